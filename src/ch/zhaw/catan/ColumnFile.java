@@ -0,0 +1,246 @@
+package ch.zhaw.catan;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * The class ColumnFile stores a table of fixed-width integer columns in a file that is accessed through
+ * {@link MappedByteBuffer}s.
+ * <p>
+ * The rows are stored in blocks of {@value #BLOCK_ROWS} rows. Within a block, the values of a column follow each
+ * other, so a query that scans one column reads the file sequentially and never builds an object per row. The file
+ * starts with a header: the magic number {@value #MAGIC_TEXT}, the version, the number of columns, the number of
+ * rows and the width of every column in bytes (1, 2, 4 or 8). Values are stored as signed numbers.
+ * <p>
+ * Rows are appended one after the other and every value of a row has to be set before the next row is appended.
+ * A file is either written or read, not both at the same time, and it is not safe for use by several threads.
+ *
+ * @version 12-05-2019
+ */
+final class ColumnFile implements Closeable {
+    static final int BLOCK_ROWS = 4096;
+    private static final int VERSION = 1;
+    private static final String MAGIC_TEXT = "CCOL";
+    private static final int MAGIC = 'C' << 24 | 'C' << 16 | 'O' << 8 | 'L';
+    private static final int ROWS_OFFSET = Integer.BYTES + 2 * Short.BYTES;
+    private static final int WIDTHS_OFFSET = ROWS_OFFSET + Long.BYTES;
+
+    private final FileChannel channel;
+    private final boolean writable;
+    private final int[] widths;
+    private final int[] offsets;
+    private final int headerSize;
+    private final long blockSize;
+    private long rows;
+    private MappedByteBuffer block;
+    private long blockIndex = -1;
+
+    /**
+     * Creates a new file, an existing file is replaced.
+     *
+     * @param path   The file
+     * @param widths The width of every column in bytes
+     * @return the file, ready to append rows
+     * @throws IOException if the file cannot be created
+     */
+    static ColumnFile create(Path path, int[] widths) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        ColumnFile file = new ColumnFile(channel, true, widths, 0);
+        file.writeHeader();
+        return file;
+    }
+
+    /**
+     * Opens a file to read it.
+     *
+     * @param path   The file
+     * @param widths The width of every column in bytes, they must be the ones of the file
+     * @return the file
+     * @throws IOException if the file cannot be read or has other columns
+     */
+    static ColumnFile open(Path path, int[] widths) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(WIDTHS_OFFSET + widths.length);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    break;
+                }
+            }
+            header.flip();
+            if (header.remaining() < WIDTHS_OFFSET || header.getInt() != MAGIC) {
+                throw new IOException("Not a column file: " + path);
+            }
+            int version = header.getShort();
+            if (version != VERSION) {
+                throw new IOException("Unknown version of the column file: " + version);
+            }
+            int columns = header.getShort();
+            long rows = header.getLong();
+            byte[] fileWidths = new byte[Math.min(columns, header.remaining())];
+            header.get(fileWidths);
+            if (columns != widths.length || !Arrays.equals(fileWidths, toBytes(widths))) {
+                throw new IOException("The column file has other columns: " + path);
+            }
+            return new ColumnFile(channel, false, widths, rows);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private ColumnFile(FileChannel channel, boolean writable, int[] widths, long rows) {
+        this.channel = channel;
+        this.writable = writable;
+        this.widths = widths.clone();
+        this.rows = rows;
+        offsets = new int[widths.length];
+        int offset = 0;
+        for (int column = 0; column < widths.length; column++) {
+            if (widths[column] != 1 && widths[column] != 2 && widths[column] != 4 && widths[column] != 8) {
+                throw new IllegalArgumentException("Not a valid width of a column: " + widths[column]);
+            }
+            offsets[column] = offset;
+            offset += widths[column] * BLOCK_ROWS;
+        }
+        blockSize = offset;
+        headerSize = (WIDTHS_OFFSET + widths.length + Long.BYTES - 1) / Long.BYTES * Long.BYTES;
+    }
+
+    long getRows() {
+        return rows;
+    }
+
+    /**
+     * Appends a row, all its values are zero.
+     *
+     * @return the index of the row
+     * @throws IOException if the file cannot be extended
+     */
+    long append() throws IOException {
+        if (!writable) {
+            throw new IllegalStateException("The column file is opened for reading.");
+        }
+        long row = rows++;
+        mapBlock(row);
+        return row;
+    }
+
+    /**
+     * Sets a value of a row, the row must be in the same block as the last row appended.
+     *
+     * @param column The column
+     * @param row    The row
+     * @param value  The value, it is cut to the width of the column
+     */
+    void set(int column, long row, long value) {
+        if (row / BLOCK_ROWS != blockIndex) {
+            throw new IllegalArgumentException("The row is not in the current block: " + row);
+        }
+        int index = offsets[column] + (int) (row % BLOCK_ROWS) * widths[column];
+        switch (widths[column]) {
+            case 1:
+                block.put(index, (byte) value);
+                break;
+            case 2:
+                block.putShort(index, (short) value);
+                break;
+            case 4:
+                block.putInt(index, (int) value);
+                break;
+            default:
+                block.putLong(index, value);
+                break;
+        }
+    }
+
+    /**
+     * Returns a value. Reading the rows in order maps every block only once.
+     *
+     * @param column The column
+     * @param row    The row
+     * @return the value
+     * @throws IOException if the file cannot be mapped
+     */
+    long get(int column, long row) throws IOException {
+        if (row < 0 || row >= rows) {
+            throw new IndexOutOfBoundsException("Not a row of the column file: " + row);
+        }
+        mapBlock(row);
+        int index = offsets[column] + (int) (row % BLOCK_ROWS) * widths[column];
+        switch (widths[column]) {
+            case 1:
+                return block.get(index);
+            case 2:
+                return block.getShort(index);
+            case 4:
+                return block.getInt(index);
+            default:
+                return block.getLong(index);
+        }
+    }
+
+    /**
+     * Writes the number of rows to the header and the mapped blocks to the file.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    void flush() throws IOException {
+        if (writable) {
+            if (block != null) {
+                block.force();
+            }
+            writeHeader();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            block = null;
+            channel.close();
+        }
+    }
+
+    private void mapBlock(long row) throws IOException {
+        long index = row / BLOCK_ROWS;
+        if (index != blockIndex) {
+            if (writable && block != null) {
+                block.force();
+            }
+            block = channel.map(writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY,
+                    headerSize + index * blockSize, blockSize);
+            blockIndex = index;
+        }
+    }
+
+    private void writeHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(headerSize);
+        header.putInt(MAGIC);
+        header.putShort((short) VERSION);
+        header.putShort((short) widths.length);
+        header.putLong(rows);
+        header.put(toBytes(widths));
+        header.clear();
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+    }
+
+    private static byte[] toBytes(int[] widths) {
+        byte[] bytes = new byte[widths.length];
+        for (int i = 0; i < widths.length; i++) {
+            bytes[i] = (byte) widths[i];
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,257 @@
+package ch.zhaw.catan;
+
+import ch.zhaw.catan.Config.Resource;
+import ch.zhaw.catan.GameLauncher.Action;
+import ch.zhaw.hexboard.Coordinates;
+
+import static ch.zhaw.catan.Config.X_MAX;
+import static ch.zhaw.catan.Config.X_MIN;
+import static ch.zhaw.catan.Config.Y_MAX;
+import static ch.zhaw.catan.Config.Y_MIN;
+
+/**
+ * The class CommandParser reads a command of {@link Action} with all its arguments from one line, e.g.
+ * {@code ROAD 5 7 6 8}, {@code SETTLEMENT 7 7} or {@code TRADE WD GR}.
+ * <p>
+ * The words of a line are separated by spaces or tabs, the command may be written in any case. A road takes the x
+ * and y coordinates of its start and its end, a settlement and a city the coordinates of their corner and a trade
+ * the name of the offered and the wanted resource (see {@link Resource}). The other commands take no arguments.
+ * Empty lines and lines starting with {@code #} are comments.
+ * <p>
+ * A parser is reused for every line and keeps the result of the last one. Parsing does not create any objects, not
+ * even for an error, so lines can be read in bulk at full speed. A parser must not be used by several threads.
+ *
+ * @version 12-05-2019
+ */
+public final class CommandParser {
+    private static final Action[] ACTIONS = Action.values();
+    private static final Resource[] RESOURCES = Resource.values();
+    private static final int MAX_ARGUMENTS = 4;
+
+    private Action action;
+    private final int[] numbers = new int[MAX_ARGUMENTS];
+    private final Resource[] resources = new Resource[2];
+    private String error;
+    private int position;
+    private int end;
+
+    /**
+     * Parses a line.
+     *
+     * @param line The line without its line separator
+     * @return true if the line is a valid command or a comment, false otherwise (see {@link #getError()})
+     */
+    public boolean parse(CharSequence line) {
+        return parse(line, 0, line.length());
+    }
+
+    /**
+     * Parses a line that is part of a longer text.
+     *
+     * @param text  The text
+     * @param start The index of the first character of the line
+     * @param end   The index after the last character of the line, without its line separator
+     * @return true if the line is a valid command or a comment, false otherwise (see {@link #getError()})
+     */
+    public boolean parse(CharSequence text, int start, int end) {
+        action = null;
+        error = null;
+        position = start;
+        this.end = end;
+        int length = nextWord(text);
+        if (length == 0 || text.charAt(position - length) == '#') {
+            return true;
+        }
+        action = findAction(text, position - length, length);
+        if (action == null) {
+            return fail("Unknown command");
+        }
+        switch (action) {
+            case ROAD:
+                return readNumbers(text, 4) && atEnd(text);
+            case SETTLEMENT:
+            case CITY:
+                return readNumbers(text, 2) && atEnd(text);
+            case TRADE:
+                return readResources(text) && atEnd(text);
+            default:
+                return atEnd(text);
+        }
+    }
+
+    /**
+     * Returns the command of the last line.
+     *
+     * @return the command or null if the line was a comment or not valid
+     */
+    public Action getAction() {
+        return action;
+    }
+
+    /**
+     * Returns why the last line is not valid.
+     *
+     * @return the reason or null if the line was valid
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * Returns the packed corner of a settlement or a city (see {@link Coordinates}).
+     *
+     * @return the corner
+     */
+    public int getCorner() {
+        return Coordinates.of(numbers[0], numbers[1]);
+    }
+
+    /**
+     * Returns the packed edge of a road (see {@link Coordinates}).
+     *
+     * @return the edge
+     */
+    public long getEdge() {
+        return Coordinates.edge(Coordinates.of(numbers[0], numbers[1]), Coordinates.of(numbers[2], numbers[3]));
+    }
+
+    /**
+     * Returns the resource offered in a trade.
+     *
+     * @return the resource
+     */
+    public Resource getOffer() {
+        return resources[0];
+    }
+
+    /**
+     * Returns the resource wanted in a trade.
+     *
+     * @return the resource
+     */
+    public Resource getWant() {
+        return resources[1];
+    }
+
+    /**
+     * Appends the last command the way it is written by the parser, e.g. {@code ROAD 5 7 6 8}.
+     *
+     * @param out Where the command is appended to
+     * @return the builder
+     */
+    public StringBuilder appendTo(StringBuilder out) {
+        out.append(action);
+        switch (action) {
+            case ROAD:
+                out.append(' ').append(numbers[0]).append(' ').append(numbers[1])
+                        .append(' ').append(numbers[2]).append(' ').append(numbers[3]);
+                break;
+            case SETTLEMENT:
+            case CITY:
+                out.append(' ').append(numbers[0]).append(' ').append(numbers[1]);
+                break;
+            case TRADE:
+                out.append(' ').append(resources[0]).append(' ').append(resources[1]);
+                break;
+            default:
+                break;
+        }
+        return out;
+    }
+
+    /**
+     * Skips the separators and the next word.
+     *
+     * @return the length of the word, {@link #position} is after it
+     */
+    private int nextWord(CharSequence text) {
+        while (position < end && isSeparator(text.charAt(position))) {
+            position++;
+        }
+        int start = position;
+        while (position < end && !isSeparator(text.charAt(position))) {
+            position++;
+        }
+        return position - start;
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == ' ' || c == '\t' || c == '\r';
+    }
+
+    private static Action findAction(CharSequence text, int start, int length) {
+        for (Action candidate : ACTIONS) {
+            if (equalsIgnoreCase(candidate.name(), text, start, length)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private static boolean equalsIgnoreCase(String name, CharSequence text, int start, int length) {
+        if (name.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (Character.toUpperCase(text.charAt(start + i)) != name.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean readNumbers(CharSequence text, int count) {
+        for (int i = 0; i < count; i++) {
+            int length = nextWord(text);
+            if (length == 0) {
+                return fail("Coordinates are missing");
+            }
+            if (length > 4) {
+                return fail("Not a coordinate");
+            }
+            int number = 0;
+            for (int j = position - length; j < position; j++) {
+                char c = text.charAt(j);
+                if (c < '0' || c > '9') {
+                    return fail("Not a coordinate");
+                }
+                number = number * 10 + c - '0';
+            }
+            boolean isX = i % 2 == 0;
+            if (isX && (number < X_MIN || number > X_MAX) || !isX && (number < Y_MIN || number > Y_MAX)) {
+                return fail("Coordinates are outside of the board");
+            }
+            numbers[i] = number;
+        }
+        return true;
+    }
+
+    private boolean readResources(CharSequence text) {
+        for (int i = 0; i < resources.length; i++) {
+            int length = nextWord(text);
+            if (length == 0) {
+                return fail("A resource is missing");
+            }
+            resources[i] = null;
+            for (Resource resource : RESOURCES) {
+                if (equalsIgnoreCase(resource.toString(), text, position - length, length)) {
+                    resources[i] = resource;
+                }
+            }
+            if (resources[i] == null) {
+                return fail("Not a resource, choose between GR, WL, WD, ST and CL");
+            }
+        }
+        return true;
+    }
+
+    private boolean atEnd(CharSequence text) {
+        return nextWord(text) == 0 || fail("Too many arguments");
+    }
+
+    private boolean fail(String reason) {
+        action = null;
+        error = reason;
+        return false;
+    }
+}
@@ -1,6 +1,6 @@
 package ch.zhaw.catan;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * The class Dice can throw two dices and returns an Integer-number.
@@ -10,7 +10,19 @@ import java.util.Random;
 public class Dice {
     private final int MAX_AMOUNT_OF_DICE = 6;
     private final int CORRECT_IF_ZERO = 1;
-    private Random random = new Random();
+    private final SplittableRandom random;
+
+    public Dice() {
+        this(new SplittableRandom());
+    }
+
+    /**
+     * Creates dices that use the given random generator, e.g. to replay a game with the same seed.
+     * @param random the random generator
+     */
+    public Dice(SplittableRandom random) {
+        this.random = random;
+    }
 
     /**
      * Each player can roll the dice. This method throws two dices at the same time and returns an Integer-number
@@ -0,0 +1,350 @@
+package ch.zhaw.catan;
+
+import ch.zhaw.catan.Config.Faction;
+import ch.zhaw.catan.Config.Resource;
+import ch.zhaw.hexboard.Coordinates;
+
+import java.awt.Point;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The class GameArchive stores statistics of many games, e.g. of a {@link Simulation}, in two {@link ColumnFile}s
+ * so they can be analysed later without reading the games again.
+ * <p>
+ * The file {@value #GAMES_FILE} has a row per game: the number of players, the ordinal of the winner or -1, the
+ * number of turns and the packed corners of the two initial settlements of every faction (see {@link Coordinates}).
+ * The file {@value #TURNS_FILE} has a row per turn: the row of its game, the number of the turn, the ordinal of the
+ * player, the dice sum, the roads, settlements and cities the player built, the points of every faction at the end
+ * of the turn and the resources every faction got from the payout. Columns of factions and resources are found by
+ * their ordinals.
+ * <p>
+ * The rows are collected by a {@link Recorder} that listens to the events of a game. The recorder writes the rows
+ * of its game at once when the game is over, so games played in parallel can share one archive.
+ *
+ * @version 12-05-2019
+ */
+public final class GameArchive implements Closeable {
+    static final String GAMES_FILE = "games.col";
+    static final String TURNS_FILE = "turns.col";
+    private static final int FACTIONS = Faction.values().length;
+    private static final int RESOURCES = Resource.values().length;
+    private static final int INITIAL_SETTLEMENTS = 2;
+    private static final int NO_CORNER = -1;
+    private static final int CORNER_GRID = 32;
+    private static final int MAX_DICE_SUM = 12;
+
+    static final int GAME_PLAYERS = 0;
+    static final int GAME_WINNER = 1;
+    static final int GAME_TURNS = 2;
+    static final int GAME_INITIAL_SETTLEMENT = 3;
+    static final int GAME_COLUMNS = GAME_INITIAL_SETTLEMENT + FACTIONS * INITIAL_SETTLEMENTS;
+
+    static final int TURN_GAME = 0;
+    static final int TURN_NUMBER = 1;
+    static final int TURN_PLAYER = 2;
+    static final int TURN_DICE = 3;
+    static final int TURN_ROADS = 4;
+    static final int TURN_SETTLEMENTS = 5;
+    static final int TURN_CITIES = 6;
+    static final int TURN_POINTS = 7;
+    static final int TURN_PAYOUT = TURN_POINTS + FACTIONS;
+    static final int TURN_COLUMNS = TURN_PAYOUT + FACTIONS * RESOURCES;
+
+    private static final int[] GAME_WIDTHS = gameWidths();
+    private static final int[] TURN_WIDTHS = turnWidths();
+
+    private final ColumnFile games;
+    private final ColumnFile turns;
+
+    private GameArchive(ColumnFile games, ColumnFile turns) {
+        this.games = games;
+        this.turns = turns;
+    }
+
+    /**
+     * Creates a new archive in a directory, an existing archive in the directory is replaced.
+     *
+     * @param directory The directory, it is created if it does not exist
+     * @return the archive, ready to record games
+     * @throws IOException if the files cannot be created
+     */
+    public static GameArchive create(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        ColumnFile games = ColumnFile.create(directory.resolve(GAMES_FILE), GAME_WIDTHS);
+        try {
+            return new GameArchive(games, ColumnFile.create(directory.resolve(TURNS_FILE), TURN_WIDTHS));
+        } catch (IOException e) {
+            games.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens an archive to query it.
+     *
+     * @param directory The directory of the archive
+     * @return the archive
+     * @throws IOException if the files cannot be read
+     */
+    public static GameArchive open(Path directory) throws IOException {
+        ColumnFile games = ColumnFile.open(directory.resolve(GAMES_FILE), GAME_WIDTHS);
+        try {
+            return new GameArchive(games, ColumnFile.open(directory.resolve(TURNS_FILE), TURN_WIDTHS));
+        } catch (IOException e) {
+            games.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Creates a recorder for one game. Attach it to the game with
+     * {@link SiedlerGame#addEventListener(GameEventListener)} before the initial placement and call
+     * {@link Recorder#finish(SiedlerGame)} when the game is over.
+     *
+     * @return the recorder
+     */
+    public Recorder newRecorder() {
+        return new Recorder();
+    }
+
+    public synchronized long getGames() {
+        return games.getRows();
+    }
+
+    public synchronized long getTurns() {
+        return turns.getRows();
+    }
+
+    /**
+     * Returns for every corner that was chosen for an initial settlement the share of the games the faction that
+     * chose it has won.
+     *
+     * @return the win rate between 0 and 1 of every corner
+     * @throws IOException if the archive cannot be read
+     */
+    public synchronized Map<Point, Double> getWinRateByInitialSettlement() throws IOException {
+        int[] placed = new int[CORNER_GRID * CORNER_GRID];
+        int[] won = new int[CORNER_GRID * CORNER_GRID];
+        for (long row = 0; row < games.getRows(); row++) {
+            int players = (int) games.get(GAME_PLAYERS, row);
+            int winner = (int) games.get(GAME_WINNER, row);
+            for (int faction = 0; faction < players; faction++) {
+                for (int i = 0; i < INITIAL_SETTLEMENTS; i++) {
+                    int corner = (int) games.get(GAME_INITIAL_SETTLEMENT + faction * INITIAL_SETTLEMENTS + i, row);
+                    if (corner != NO_CORNER) {
+                        int index = Coordinates.x(corner) * CORNER_GRID + Coordinates.y(corner);
+                        placed[index]++;
+                        if (faction == winner) {
+                            won[index]++;
+                        }
+                    }
+                }
+            }
+        }
+        Map<Point, Double> winRates = new LinkedHashMap<>();
+        for (int index = 0; index < placed.length; index++) {
+            if (placed[index] > 0) {
+                winRates.put(new Point(index / CORNER_GRID, index % CORNER_GRID), (double) won[index] / placed[index]);
+            }
+        }
+        return winRates;
+    }
+
+    /**
+     * Returns how often every dice sum was thrown.
+     *
+     * @return the number of turns per dice sum, indexed by the sum
+     * @throws IOException if the archive cannot be read
+     */
+    public synchronized long[] getDiceHistogram() throws IOException {
+        long[] histogram = new long[MAX_DICE_SUM + 1];
+        for (long row = 0; row < turns.getRows(); row++) {
+            histogram[(int) turns.get(TURN_DICE, row)]++;
+        }
+        return histogram;
+    }
+
+    /**
+     * Returns the average amount of a resource a faction got from the payout per turn.
+     *
+     * @param faction  The faction
+     * @param resource The resource
+     * @return the average payout per turn of all games the faction played in
+     * @throws IOException if the archive cannot be read
+     */
+    public synchronized double getAveragePayout(Faction faction, Resource resource) throws IOException {
+        int column = TURN_PAYOUT + faction.ordinal() * RESOURCES + resource.ordinal();
+        long sum = 0;
+        long count = 0;
+        for (long row = 0; row < turns.getRows(); row++) {
+            if (games.get(GAME_PLAYERS, turns.get(TURN_GAME, row)) > faction.ordinal()) {
+                sum += turns.get(column, row);
+                count++;
+            }
+        }
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * Returns a value of the turn file, e.g. for queries that are not offered by the archive.
+     *
+     * @param column The column, one of the constants starting with TURN_
+     * @param row    The row
+     * @return the value
+     * @throws IOException if the archive cannot be read
+     */
+    synchronized long getTurnValue(int column, long row) throws IOException {
+        return turns.get(column, row);
+    }
+
+    synchronized long getGameValue(int column, long row) throws IOException {
+        return games.get(column, row);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            games.close();
+        } finally {
+            turns.close();
+        }
+    }
+
+    private synchronized void write(Recorder recorder, Faction winner, int players) throws IOException {
+        long game = games.append();
+        games.set(GAME_PLAYERS, game, players);
+        games.set(GAME_WINNER, game, winner == null ? -1 : winner.ordinal());
+        games.set(GAME_TURNS, game, recorder.turnCount);
+        for (int i = 0; i < recorder.initialSettlements.length; i++) {
+            games.set(GAME_INITIAL_SETTLEMENT + i, game, recorder.initialSettlements[i]);
+        }
+        for (int turn = 0; turn < recorder.turnCount; turn++) {
+            long row = turns.append();
+            turns.set(TURN_GAME, row, game);
+            int offset = turn * TURN_COLUMNS;
+            for (int column = TURN_NUMBER; column < TURN_COLUMNS; column++) {
+                turns.set(column, row, recorder.turnRows[offset + column]);
+            }
+        }
+    }
+
+    private static int[] gameWidths() {
+        int[] widths = new int[GAME_COLUMNS];
+        widths[GAME_PLAYERS] = Byte.BYTES;
+        widths[GAME_WINNER] = Byte.BYTES;
+        widths[GAME_TURNS] = Short.BYTES;
+        Arrays.fill(widths, GAME_INITIAL_SETTLEMENT, GAME_COLUMNS, Integer.BYTES);
+        return widths;
+    }
+
+    private static int[] turnWidths() {
+        int[] widths = new int[TURN_COLUMNS];
+        Arrays.fill(widths, Byte.BYTES);
+        widths[TURN_GAME] = Integer.BYTES;
+        widths[TURN_NUMBER] = Short.BYTES;
+        return widths;
+    }
+
+    /**
+     * A Recorder collects the rows of one game from its events. A turn is recorded when the current player changes
+     * after the dices were thrown, so the turns of the initial placement are not recorded. The structures a player
+     * built are counted at the end of the turn, so moves that were undone are not counted.
+     */
+    public final class Recorder implements GameEventListener {
+        private final int[] initialSettlements = new int[FACTIONS * INITIAL_SETTLEMENTS];
+        private final int[] payout = new int[FACTIONS * RESOURCES];
+        private int[] turnRows = new int[64 * TURN_COLUMNS];
+        private int turnCount = 0;
+        private int dice = 0;
+        private int player;
+        private int roads;
+        private int settlements;
+        private int cities;
+
+        private Recorder() {
+            Arrays.fill(initialSettlements, NO_CORNER);
+        }
+
+        @Override
+        public void onEvent(Type type, Faction faction, long value, boolean moveStart) {
+            switch (type) {
+                case DICE:
+                    dice = (int) value;
+                    break;
+                case PAYOUT:
+                    payout[faction.ordinal() * RESOURCES + MoveJournal.getResource(value).ordinal()]
+                            += MoveJournal.getAmount(value);
+                    break;
+                case INITIAL_SETTLEMENT:
+                    int first = faction.ordinal() * INITIAL_SETTLEMENTS;
+                    int index = initialSettlements[first] == NO_CORNER ? first : first + 1;
+                    initialSettlements[index] = (int) value;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void onTurn(SiedlerGame game) {
+            endTurn(game);
+            startTurn(game);
+        }
+
+        @Override
+        public void onStateReplaced(SiedlerGame game) {
+            startTurn(game);
+        }
+
+        /**
+         * Records the last turn if it is not over yet and writes the rows of the game to the archive.
+         *
+         * @param game The game the recorder was attached to
+         * @throws IOException if the archive cannot be written
+         */
+        public void finish(SiedlerGame game) throws IOException {
+            endTurn(game);
+            startTurn(game);
+            write(this, game.getWinner(), game.getNumberOfPlayers());
+        }
+
+        private void startTurn(SiedlerGame game) {
+            Player current = game.findByFaction(game.getCurrentPlayer());
+            player = current.getFaction().ordinal();
+            roads = current.getRoads().size();
+            settlements = current.getSettlements().size();
+            cities = current.getCities().size();
+            dice = 0;
+            Arrays.fill(payout, 0);
+        }
+
+        private void endTurn(SiedlerGame game) {
+            if (dice == 0) {
+                return;
+            }
+            if ((turnCount + 1) * TURN_COLUMNS > turnRows.length) {
+                turnRows = Arrays.copyOf(turnRows, 2 * turnRows.length);
+            }
+            int offset = turnCount * TURN_COLUMNS;
+            Player previous = game.findByFaction(Faction.values()[player]);
+            int builtCities = previous.getCities().size() - cities;
+            turnRows[offset + TURN_NUMBER] = turnCount;
+            turnRows[offset + TURN_PLAYER] = player;
+            turnRows[offset + TURN_DICE] = dice;
+            turnRows[offset + TURN_ROADS] = previous.getRoads().size() - roads;
+            turnRows[offset + TURN_SETTLEMENTS] = previous.getSettlements().size() - settlements + builtCities;
+            turnRows[offset + TURN_CITIES] = builtCities;
+            for (int faction = 0; faction < game.getNumberOfPlayers(); faction++) {
+                turnRows[offset + TURN_POINTS + faction] = game.findByFaction(Faction.values()[faction]).getPoints();
+            }
+            System.arraycopy(payout, 0, turnRows, offset + TURN_PAYOUT, payout.length);
+            turnCount++;
+        }
+    }
+}
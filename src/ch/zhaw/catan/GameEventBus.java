@@ -0,0 +1,258 @@
+package ch.zhaw.catan;
+
+import ch.zhaw.catan.Config.Faction;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The class GameEventBus hands the events of a {@link SiedlerGame} to any number of subscribers, one batch per
+ * action, e.g. to render the board once after a move instead of after every change.
+ * <p>
+ * The bus is attached to a game with {@link SiedlerGame#addEventListener(GameEventListener)}. It collects the events
+ * of an action in a ring buffer of primitive arrays and delivers them together when the game tells it that the
+ * action is complete (see {@link GameEventListener#onActionEnd(SiedlerGame)}). Only if an action has more events
+ * than the buffer holds, the first part is delivered early. Collecting and delivering events creates no objects.
+ * <p>
+ * The bus adds events the game does not send itself, so subscribers need not poll and recompute the game after every
+ * command: {@link GameEventListener.Type#TURN} with the number of turns, and after an action that built or took back
+ * a structure {@link GameEventListener.Type#LONGEST_ROAD_HOLDER} if the longest road changed hands and
+ * {@link GameEventListener.Type#WINNER} if a player has won.
+ * <p>
+ * Like every listener, the bus and its subscribers are called on the thread that changes the game and must not
+ * change the game themselves.
+ *
+ * @version 12-05-2019
+ */
+public final class GameEventBus implements GameEventListener {
+    private static final int DEFAULT_CAPACITY = 256;
+    private static final Type[] TYPES = Type.values();
+    private static final Faction[] FACTIONS = Faction.values();
+
+    private final List<Subscriber> subscribers = new ArrayList<>();
+    private final byte[] types;
+    private final byte[] factions;
+    private final long[] values;
+    private final boolean[] moveStarts;
+    private final int mask;
+    private final Batch batch = new Batch();
+    private long head = 0;
+    private long tail = 0;
+    private boolean structureChanged = false;
+    private SiedlerGame game;
+    private Faction longestRoadHolder;
+    private Faction winner;
+    private int turns = 0;
+
+    /**
+     * A subscriber gets the events of every action of the game as one batch.
+     */
+    public interface Subscriber {
+
+        /**
+         * Called after an action of the game is complete.
+         *
+         * @param game   The game
+         * @param events The events of the action, they can only be read during the call
+         */
+        void onEvents(SiedlerGame game, Batch events);
+
+        /**
+         * Called when the bus is attached to a game and after the whole state of the game was replaced.
+         *
+         * @param game The game
+         */
+        default void onStateReplaced(SiedlerGame game) {
+        }
+    }
+
+    /**
+     * The events of one action, as they are stored in the ring buffer of the bus. The batch is reused for every
+     * action.
+     */
+    public final class Batch {
+        private long start;
+        private int size;
+
+        private Batch() {
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public Type getType(int index) {
+            return TYPES[types[index(index)]];
+        }
+
+        /**
+         * Returns the faction of an event.
+         *
+         * @param index The index of the event in the batch
+         * @return the faction or null if the event has none, e.g. a longest road that nobody holds anymore
+         */
+        public Faction getFaction(int index) {
+            int faction = factions[index(index)];
+            return faction == 0 ? null : FACTIONS[faction - 1];
+        }
+
+        public long getValue(int index) {
+            return values[index(index)];
+        }
+
+        public boolean isMoveStart(int index) {
+            return moveStarts[index(index)];
+        }
+
+        /**
+         * Checks whether the batch has an event of a type.
+         *
+         * @param type The type
+         * @return true if there is such an event
+         */
+        public boolean contains(Type type) {
+            for (int i = 0; i < size; i++) {
+                if (types[index(i)] == type.ordinal()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private int index(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Not an event of the batch: " + index);
+            }
+            return (int) (start + index) & mask;
+        }
+    }
+
+    /**
+     * Creates a bus with a buffer for 256 events.
+     */
+    public GameEventBus() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a bus.
+     *
+     * @param capacity The number of events the buffer holds, it is rounded up to a power of two
+     */
+    public GameEventBus(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Not a valid capacity: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+        types = new byte[size];
+        factions = new byte[size];
+        values = new long[size];
+        moveStarts = new boolean[size];
+        mask = size - 1;
+    }
+
+    /**
+     * Adds a subscriber. If the bus is attached to a game already, the subscriber is told about its state first.
+     *
+     * @param subscriber The subscriber
+     */
+    public void subscribe(Subscriber subscriber) {
+        subscribers.add(subscriber);
+        if (game != null) {
+            subscriber.onStateReplaced(game);
+        }
+    }
+
+    /**
+     * Removes a subscriber.
+     *
+     * @param subscriber The subscriber
+     */
+    public void unsubscribe(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    @Override
+    public void onEvent(Type type, Faction faction, long value, boolean moveStart) {
+        switch (type) {
+            case ROAD:
+            case SETTLEMENT:
+            case CITY:
+            case INITIAL_SETTLEMENT:
+            case INITIAL_ROAD:
+            case UNDO:
+            case REDO:
+                structureChanged = true;
+                break;
+            default:
+                break;
+        }
+        append(type, faction, value, moveStart);
+    }
+
+    @Override
+    public void onTurn(SiedlerGame game) {
+        turns++;
+        append(Type.TURN, game.getCurrentPlayer(), turns, false);
+    }
+
+    @Override
+    public void onActionEnd(SiedlerGame game) {
+        if (structureChanged) {
+            structureChanged = false;
+            Faction holder = game.getPlayerWithlongestRoad();
+            if (holder != longestRoadHolder) {
+                longestRoadHolder = holder;
+                append(Type.LONGEST_ROAD_HOLDER, holder, holder == null ? 0 : game.getLongestRoadLength(holder),
+                        false);
+            }
+            // the winner is only checked when the points may have changed, and it is only told once
+            Faction currentWinner = game.getWinner();
+            if (currentWinner != winner) {
+                winner = currentWinner;
+                if (currentWinner != null) {
+                    append(Type.WINNER, currentWinner, game.findByFaction(currentWinner).getPoints(), false);
+                }
+            }
+        }
+        deliver();
+    }
+
+    @Override
+    public void onStateReplaced(SiedlerGame game) {
+        deliver();
+        this.game = game;
+        structureChanged = false;
+        longestRoadHolder = game.getPlayerWithlongestRoad();
+        winner = game.getWinner();
+        for (int i = 0; i < subscribers.size(); i++) {
+            subscribers.get(i).onStateReplaced(game);
+        }
+    }
+
+    private void append(Type type, Faction faction, long value, boolean moveStart) {
+        if (head - tail > mask) {
+            // the action has more events than the buffer holds
+            deliver();
+        }
+        int index = (int) head & mask;
+        types[index] = (byte) type.ordinal();
+        factions[index] = (byte) (faction == null ? 0 : faction.ordinal() + 1);
+        values[index] = value;
+        moveStarts[index] = moveStart;
+        head++;
+    }
+
+    private void deliver() {
+        if (head == tail || game == null) {
+            tail = head;
+            return;
+        }
+        batch.start = tail;
+        batch.size = (int) (head - tail);
+        for (int i = 0; i < subscribers.size(); i++) {
+            subscribers.get(i).onEvents(game, batch);
+        }
+        tail = head;
+    }
+}
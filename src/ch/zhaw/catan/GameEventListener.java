@@ -0,0 +1,154 @@
+package ch.zhaw.catan;
+
+import ch.zhaw.catan.Config.Faction;
+
+/**
+ * A GameEventListener is told about every change of a {@link SiedlerGame} it is attached to (see
+ * {@link SiedlerGame#addEventListener(GameEventListener)}), e.g. to write the changes to a {@link GameEventLog} or
+ * to collect statistics in a {@link GameArchive}.
+ * <p>
+ * An event is a type, the faction that caused it and a long value, e.g. a packed corner or edge (see
+ * {@link ch.zhaw.hexboard.Coordinates}) or a change of resources (see
+ * {@link MoveJournal#resourceChange(Config.Resource, int)}). The listener is called on the thread that changes the
+ * game, right after the change, and must not change the game itself.
+ *
+ * @version 12-05-2019
+ */
+public interface GameEventListener {
+
+    /**
+     * The types of events.
+     */
+    enum Type {
+        /**
+         * A road built and paid for on the edge in the value.
+         */
+        ROAD,
+        /**
+         * A settlement built and paid for on the corner in the value.
+         */
+        SETTLEMENT,
+        /**
+         * A settlement on the corner in the value upgraded to a city.
+         */
+        CITY,
+        /**
+         * Resources a player got from the bank after the dices were thrown.
+         */
+        PAYOUT,
+        /**
+         * Resources a player gave to or got from the bank in a trade.
+         */
+        TRADE,
+        /**
+         * Resources a player lost on a seven.
+         */
+        DISCARD,
+        /**
+         * The lengths of the longest roads before a road or settlement was built (see
+         * {@link RoadNetwork#getLengths()}).
+         */
+        LONGEST_ROAD,
+        /**
+         * A change of the resources of a player that is not recorded in the journal, e.g. the payout of the second
+         * initial settlement.
+         */
+        BANK_TRANSFER,
+        /**
+         * A settlement placed during the initial placement on the corner in the value.
+         */
+        INITIAL_SETTLEMENT,
+        /**
+         * A road placed during the initial placement on the edge in the value.
+         */
+        INITIAL_ROAD,
+        /**
+         * The sum of the dices in the value.
+         */
+        DICE,
+        /**
+         * The faction is the new current player, the value is the number of turns so far.
+         */
+        TURN,
+        /**
+         * The last move was undone.
+         */
+        UNDO,
+        /**
+         * The last undone move was made again.
+         */
+        REDO,
+        /**
+         * The state of the game follows, the value is its length in bytes (only used in a {@link GameEventLog}).
+         */
+        SNAPSHOT,
+        /**
+         * The faction is the new holder of the longest road or null if nobody holds it anymore, the value is the
+         * length of its longest road (only used by a {@link GameEventBus}).
+         */
+        LONGEST_ROAD_HOLDER,
+        /**
+         * The faction has won the game, the value is its points (only used by a {@link GameEventBus}).
+         */
+        WINNER;
+
+        /**
+         * Returns the type of the journal entry that records an event of this type.
+         *
+         * @return the type of the entry or null if events of this type are not recorded in the journal
+         */
+        MoveJournal.Type toJournalType() {
+            switch (this) {
+                case ROAD:
+                    return MoveJournal.Type.ROAD;
+                case SETTLEMENT:
+                    return MoveJournal.Type.SETTLEMENT;
+                case CITY:
+                    return MoveJournal.Type.CITY;
+                case PAYOUT:
+                case TRADE:
+                case DISCARD:
+                    return MoveJournal.Type.RESOURCES;
+                case LONGEST_ROAD:
+                    return MoveJournal.Type.LONGEST_ROAD;
+                default:
+                    return null;
+            }
+        }
+    }
+
+    /**
+     * Called after the game changed.
+     *
+     * @param type      The type of the event
+     * @param faction   The faction that caused it
+     * @param value     The value of the event
+     * @param moveStart true if the event is the first entry of a move of the journal
+     */
+    void onEvent(Type type, Faction faction, long value, boolean moveStart);
+
+    /**
+     * Called after the current player changed.
+     *
+     * @param game The game
+     */
+    void onTurn(SiedlerGame game);
+
+    /**
+     * Called after an action of a player or of the game is complete, e.g. building a road, throwing the dices or
+     * paying out resources, so a listener can handle all events of the action at once. Actions that were not
+     * possible have no events and do not call it.
+     *
+     * @param game The game
+     */
+    default void onActionEnd(SiedlerGame game) {
+    }
+
+    /**
+     * Called when the listener is attached and after the whole state of the game was replaced by
+     * {@link SiedlerGame#restore(SiedlerGame.Snapshot)}.
+     *
+     * @param game The game
+     */
+    void onStateReplaced(SiedlerGame game);
+}
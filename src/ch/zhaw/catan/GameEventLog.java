@@ -0,0 +1,134 @@
+package ch.zhaw.catan;
+
+import ch.zhaw.catan.Config.Faction;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The class GameEventLog writes every change of a {@link SiedlerGame} as an event to a file, so the game can be
+ * replayed later with a {@link GameReplay}, e.g. to check a disputed game or to analyse games offline.
+ * <p>
+ * The file starts with a header of eight bytes: the magic number {@value #MAGIC_TEXT}, the version and two unused
+ * bytes. Every event then takes {@value #RECORD_SIZE} bytes: its type, the faction and the value (see
+ * {@link GameEventListener}). The first bit of the type marks the first entry of a move of the {@link MoveJournal},
+ * so a replay groups the moves the same way and can undo them like the game did. When the game is attached and
+ * every {@code snapshotInterval} turns, the whole state of the game is written in the format of a {@link SaveGame}
+ * after an event of the type {@link Type#SNAPSHOT}, whose value is the length of the state. A replay starts from the
+ * nearest snapshot instead of the start of the game.
+ * <p>
+ * The events are collected in a buffer and only written to the file when the buffer is full, when the log is
+ * flushed or when it is closed, so logging does not wait for the file during a turn. Events in the buffer are lost
+ * if the log is not closed. The file is only appended to; a new log replaces an existing file.
+ *
+ * @version 12-05-2019
+ */
+public final class GameEventLog implements GameEventListener, Closeable {
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = Integer.BYTES + 2 * Short.BYTES;
+    static final int RECORD_SIZE = 2 + Long.BYTES;
+    static final int MAGIC = 'C' << 24 | 'L' << 16 | 'O' << 8 | 'G';
+    static final int MOVE_START = 0x80;
+    static final Type[] TYPES = Type.values();
+    private static final String MAGIC_TEXT = "CLOG";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int SNAPSHOT_SIZE = 4096;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final int snapshotInterval;
+    private int turns = 0;
+
+    /**
+     * Creates a log. A game writes to it once it is attached with
+     * {@link SiedlerGame#addEventListener(GameEventListener)}.
+     *
+     * @param path             The file of the log, it is replaced if it exists
+     * @param snapshotInterval The number of turns between two snapshots
+     * @throws IOException if the file cannot be created
+     */
+    public GameEventLog(Path path, int snapshotInterval) throws IOException {
+        if (snapshotInterval < 1) {
+            throw new IllegalArgumentException("Not a valid snapshot interval: " + snapshotInterval);
+        }
+        this.snapshotInterval = snapshotInterval;
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        buffer.putInt(MAGIC);
+        buffer.putShort((short) VERSION);
+        buffer.putShort((short) 0);
+    }
+
+    /**
+     * Appends an event.
+     */
+    @Override
+    public void onEvent(Type type, Faction faction, long value, boolean moveStart) {
+        ensureRemaining(RECORD_SIZE);
+        buffer.put((byte) (moveStart ? type.ordinal() | MOVE_START : type.ordinal()));
+        buffer.put((byte) faction.ordinal());
+        buffer.putLong(value);
+    }
+
+    /**
+     * Appends the start of a new turn and a snapshot of the game if one is due.
+     */
+    @Override
+    public void onTurn(SiedlerGame game) {
+        turns++;
+        onEvent(Type.TURN, game.getCurrentPlayer(), turns, false);
+        if (turns % snapshotInterval == 0) {
+            onStateReplaced(game);
+        }
+    }
+
+    /**
+     * Appends the whole state of a game. The random generator of the game is not changed, so a game with a log
+     * throws the same dices as a game without one.
+     */
+    @Override
+    public void onStateReplaced(SiedlerGame game) {
+        ensureRemaining(RECORD_SIZE + SNAPSHOT_SIZE);
+        int start = buffer.position();
+        onEvent(Type.SNAPSHOT, game.getCurrentPlayer(), 0, false);
+        SaveGame.encode(game, buffer, false);
+        buffer.putLong(start + 2, buffer.position() - start - RECORD_SIZE);
+    }
+
+    /**
+     * Writes the buffered events to the file.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void ensureRemaining(int bytes) {
+        if (buffer.remaining() < bytes) {
+            try {
+                flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
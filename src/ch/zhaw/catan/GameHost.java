@@ -0,0 +1,126 @@
+package ch.zhaw.catan;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * The class GameHost lets many threads use one {@link SiedlerGame}, which is not thread-safe, without locks.
+ * <p>
+ * The host is the only writer of its game. Commands that change the game are put into the queue of the host from any
+ * thread and played one after the other on a thread of an {@link Executor}, in the same way as a {@link GameTable}
+ * handles the lines of its players: the host is scheduled only while its queue is not empty and never on two threads
+ * at the same time.
+ * <p>
+ * Threads that only read the game, e.g. spectators, bots and renderers, never touch the game itself. After every
+ * batch of commands the host publishes a {@link GameView} of the new state through a volatile field, and readers
+ * take the latest view with {@link #getView()}. A view is never changed, so it can be read without locks while the
+ * game goes on. The future of a command is completed after the view with its change has been published.
+ *
+ * @version 12-05-2019
+ */
+public final class GameHost {
+    private static final int COMMANDS_PER_RUN = 64;
+
+    private final SiedlerGame game;
+    private final Executor executor;
+    private final Queue<Command<?>> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final Runnable runner = this::run;
+    private volatile GameView view;
+
+    // only used by the thread that runs the host
+    private final Command<?>[] batch = new Command<?>[COMMANDS_PER_RUN];
+    private long version = 0;
+
+    private static final class Command<T> {
+        private final Function<SiedlerGame, T> action;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private T result;
+        private RuntimeException failure;
+
+        private Command(Function<SiedlerGame, T> action) {
+            this.action = action;
+        }
+
+        private void play(SiedlerGame game) {
+            try {
+                result = action.apply(game);
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+        }
+
+        private void complete() {
+            if (failure == null) {
+                future.complete(result);
+            } else {
+                future.completeExceptionally(failure);
+            }
+        }
+    }
+
+    /**
+     * Creates a host for a game. From now on the game must only be changed by commands of the host.
+     *
+     * @param game     The game
+     * @param executor The executor that plays the commands, e.g. a {@link java.util.concurrent.ForkJoinPool}
+     */
+    public GameHost(SiedlerGame game, Executor executor) {
+        this.game = game;
+        this.executor = executor;
+        view = new GameView(game, version);
+    }
+
+    /**
+     * Puts a command into the queue. It is played after all commands that were submitted before.
+     *
+     * @param action The command, it gets the game and may return a result
+     * @param <T>    The type of the result
+     * @return the future of the result, or of the exception the command has thrown
+     */
+    public <T> CompletableFuture<T> submit(Function<SiedlerGame, T> action) {
+        Command<T> command = new Command<>(action);
+        queue.add(command);
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(runner);
+        }
+        return command.future;
+    }
+
+    /**
+     * Returns the latest published view of the game. It can be called by any thread.
+     *
+     * @return the view
+     */
+    public GameView getView() {
+        return view;
+    }
+
+    private void run() {
+        int count = 0;
+        while (count < COMMANDS_PER_RUN) {
+            Command<?> command = queue.poll();
+            if (command == null) {
+                break;
+            }
+            command.play(game);
+            batch[count++] = command;
+        }
+        if (count > 0) {
+            version += count;
+            view = new GameView(game, version);
+            for (int i = 0; i < count; i++) {
+                batch[i].complete();
+                batch[i] = null;
+            }
+        }
+        scheduled.set(false);
+        if (!queue.isEmpty() && scheduled.compareAndSet(false, true)) {
+            executor.execute(runner);
+        }
+    }
+}
@@ -3,9 +3,12 @@ package ch.zhaw.catan;
 import org.beryx.textio.TextIO;
 import org.beryx.textio.TextIoFactory;
 import org.beryx.textio.TextTerminal;
+import ch.zhaw.hexboard.Coordinates;
 
 import java.awt.Point;
-import java.util.List;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.EnumMap;
 import java.util.Map;
 
 import static ch.zhaw.catan.Config.Faction;
@@ -26,10 +29,61 @@ public class GameLauncher {
      * The enum class Action holds all the commands to play the game.
      */
     public enum Action {
-        HELP, SHOW, TRADE, ROAD, SETTLEMENT, CITY, DONE, QUIT
+        HELP, SHOW, TRADE, ROAD, SETTLEMENT, CITY, UNDO, SAVE, LOAD, DONE, QUIT
+    }
+
+    /**
+     * The enum class PlayerType holds who plays a faction: a user or the computer with a {@link MctsStrategy}.
+     */
+    public enum PlayerType {
+        HUMAN, COMPUTER
     }
 
     private final static String SEP = System.lineSeparator();
+    private final static long COMPUTER_TIME_BUDGET_MILLIS = 2000;
+    private final static int MAX_COMPUTER_MOVES_PER_TURN = 32;
+    private final Map<Faction, PlayerStrategy> computerPlayers = new EnumMap<>(Faction.class);
+    private Faction longestRoadHolder;
+    private Faction winner;
+
+    /**
+     * Keeps the holder of the longest road and the winner up to date from the events of the game, so the launcher
+     * does not have to ask the game for them after every command.
+     */
+    private final class GameStatus implements GameEventBus.Subscriber {
+        private final TextTerminal<?> terminal;
+
+        private GameStatus(TextTerminal<?> terminal) {
+            this.terminal = terminal;
+        }
+
+        @Override
+        public void onEvents(SiedlerGame game, GameEventBus.Batch events) {
+            for (int i = 0; i < events.size(); i++) {
+                switch (events.getType(i)) {
+                    case LONGEST_ROAD_HOLDER:
+                        longestRoadHolder = events.getFaction(i);
+                        if (longestRoadHolder == null) {
+                            terminal.println("Nobody owns the longest road anymore.");
+                        } else {
+                            terminal.println("Player " + longestRoadHolder + " owns the longest road now!");
+                        }
+                        break;
+                    case WINNER:
+                        winner = events.getFaction(i);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+
+        @Override
+        public void onStateReplaced(SiedlerGame game) {
+            longestRoadHolder = game.getPlayerWithlongestRoad();
+            winner = game.getWinner();
+        }
+    }
 
     /**
      * This is the games main application loop. It retrieves the number of players from the user and starts a new
@@ -44,6 +98,7 @@ public class GameLauncher {
 
         // phase 1 - create default game layout
         int playerCount = getNumberOfPlayers(textIO);
+        choosePlayerTypes(textIO, playerCount);
         SiedlerGame game = new SiedlerGame(Config.WIN_POINTS, playerCount);
         SiedlerBoardTextView view = game.getView();
         terminal.println(view.toStringWithCoordinates());
@@ -53,26 +108,40 @@ public class GameLauncher {
         createInitialPlacements(playerCount, textIO, game);
 
         // phase 3 - regular gameplay until the end
-        nextTurn(terminal, game);
         runGame(textIO, terminal, game);
     }
 
     /**
      * Each case of the enum class Action is a separate case and responsible for executing the methods from the
-     * SiedlerGame class.
+     * SiedlerGame class. It starts with the first turn after the initial placement.
+     * <p>
+     * The holder of the longest road and the winner are told by a {@link GameEventBus} attached to the game.
      *
      * @param textIO   An Object of the TextIO class which enables a more beautiful UI
      * @param terminal An object of the TextTerminal class to hold user inputs
      * @param game     An object of the SiedlerGame class to execute all methods
      */
     void runGame(TextIO textIO, TextTerminal<?> terminal, SiedlerGame game) {
+        GameEventBus bus = new GameEventBus();
+        bus.subscribe(new GameStatus(terminal));
+        game.addEventListener(bus);
+        nextTurn(terminal, game);
         boolean running = true;
-        while (game.getWinner() == null && running) {
+        int movesOfTurn = 0;
+        while (winner == null && running) {
+            if (computerPlayers.containsKey(game.getCurrentPlayer())) {
+                playComputerTurn(terminal, game);
+                if (winner == null) {
+                    game.switchToNextPlayer();
+                    nextTurn(terminal, game);
+                }
+                continue;
+            }
             terminal.println("-------------------------------------------------------------");
             terminal.println("Current player " + game.getCurrentPlayer());
-            if(game.getPlayerWithlongestRoad()==null){
+            if(longestRoadHolder==null){
                 terminal.println();
-            }else if (game.getPlayerWithlongestRoad().equals(game.getCurrentPlayer())) {
+            }else if (longestRoadHolder.equals(game.getCurrentPlayer())) {
                 terminal.println();
                 terminal.println("You own the longest road currently.");
                 terminal.println();
@@ -98,6 +167,7 @@ public class GameLauncher {
                         terminal.println("Trade is not possible, inconsistent value.");
                     } else {
                         game.tradeWithBankFourToOne(tradeOffer, tradeWant);
+                        movesOfTurn++;
                     }
                     break;
                 case ROAD:
@@ -123,12 +193,7 @@ public class GameLauncher {
                         terminal.println("Road can not be built.");
                     }else{
                         terminal.println("Road has been built.");
-                    }
-                    game.updateLongestRoad();
-                    if(game.getPlayerWithlongestRoad()==null){
-                        terminal.println("");
-                    }else if (game.getPlayerWithlongestRoad().equals(game.getCurrentPlayer())) {
-                        terminal.println("You own the longest road now!");
+                        movesOfTurn++;
                     }
                     break;
                 case SETTLEMENT:
@@ -145,7 +210,8 @@ public class GameLauncher {
                         terminal.println("Settlement can not be built at this position.");
                     } else {
                         terminal.println("Settlement has been built.");
-                        game.buildSettlement(setPointSettlement);}
+                        movesOfTurn++;
+                    }
                     break;
                 case CITY:
                     int xCityCoordinate = textIO.newIntInputReader()
@@ -161,9 +227,48 @@ public class GameLauncher {
                         terminal.println("City can not be built at that position.");
                     }else{
                         terminal.println("City has been built.");
+                        movesOfTurn++;
+                    }
+                    break;
+                case UNDO:
+                    // only the moves of the current turn can be taken back, not the payout at its start
+                    if (movesOfTurn > 0 && game.undo()) {
+                        movesOfTurn--;
+                        terminal.println("Your last move has been taken back.");
+                    } else {
+                        terminal.println("There is no move of this turn to take back.");
+                    }
+                    break;
+                case SAVE:
+                    String saveFile = textIO.newStringInputReader().read("Please input the file to save to: ");
+                    try {
+                        SaveGame.save(game, Path.of(saveFile));
+                        terminal.println("The game has been saved.");
+                    } catch (IOException e) {
+                        terminal.println("The game could not be saved: " + e.getMessage());
+                    }
+                    break;
+                case LOAD:
+                    String loadFile = textIO.newStringInputReader().read("Please input the file to load from: ");
+                    try {
+                        SiedlerGame loaded = SaveGame.load(Path.of(loadFile), true);
+                        if (loaded.getNumberOfPlayers() != game.getNumberOfPlayers()) {
+                            // the players of the loaded game are not the ones chosen at the start
+                            terminal.println("The loaded game has " + loaded.getNumberOfPlayers() + " players.");
+                            choosePlayerTypes(textIO, loaded.getNumberOfPlayers());
+                        }
+                        game.removeEventListener(bus);
+                        game = loaded;
+                        game.addEventListener(bus);
+                        movesOfTurn = 0;
+                        terminal.println("The game has been loaded.");
+                        terminal.println(game.getView().toStringWithCoordinates());
+                    } catch (IOException e) {
+                        terminal.println("The game could not be loaded: " + e.getMessage());
                     }
                     break;
                 case DONE:
+                    movesOfTurn = 0;
                     game.switchToNextPlayer();
                     nextTurn(terminal, game);
                     break;
@@ -174,16 +279,55 @@ public class GameLauncher {
                     throw new IllegalStateException("Internal error found - Command not implemented.");
             }
         }
-        terminal.println("Congrats, player " + game.getCurrentPlayer().toString() + " - you won \\o/");
+        if (winner != null) {
+            terminal.println("Congrats, player " + winner.toString() + " - you won \\o/");
+        }
+    }
+
+    private void playComputerTurn(TextTerminal<?> terminal, SiedlerGame game) {
+        PlayerStrategy strategy = computerPlayers.get(game.getCurrentPlayer());
+        MoveList moves = new MoveList();
+        for (int i = 0; i < MAX_COMPUTER_MOVES_PER_TURN && winner == null; i++) {
+            int move = strategy.chooseMove(game, game.generateMoves(moves));
+            if (move == PlayerStrategy.END_TURN) {
+                break;
+            }
+            String description = describeMove(moves, move);
+            if (!game.play(moves, move)) {
+                break;
+            }
+            terminal.println("Player " + game.getCurrentPlayer() + " " + description);
+        }
+        terminal.println(game.getView().toStringWithCoordinates());
+    }
+
+    private static String describeMove(MoveList moves, int move) {
+        switch (moves.getType(move)) {
+            case ROAD:
+                long edge = moves.getEdge(move);
+                return "built a road from " + format(Coordinates.edgeStart(edge)) + " to "
+                        + format(Coordinates.edgeEnd(edge)) + ".";
+            case SETTLEMENT:
+                return "built a settlement at " + format(moves.getCorner(move)) + ".";
+            case CITY:
+                return "built a city at " + format(moves.getCorner(move)) + ".";
+            case TRADE:
+                return "traded 4 " + moves.getOffer(move) + " for 1 " + moves.getWant(move) + ".";
+            default:
+                throw new IllegalStateException("Internal error found - Move not implemented.");
+        }
+    }
+
+    private static String format(int position) {
+        return "(" + Coordinates.x(position) + ", " + Coordinates.y(position) + ")";
     }
 
     private void nextTurn(TextTerminal<?> terminal, SiedlerGame game) {
-        Map<Faction, List<Config.Resource>> resources = game.throwDice(2);
-        game.distributeResources(resources);
+        game.distributeResources(game.throwDiceForPayout(2));
         terminal.println("-------------------------------------------------------------");
         terminal.println("\nTurn: " + game.getCurrentPlayer());
         terminal.println("2 Dices were rolled and you have thrown " + game.getLastDiceSum());
-        terminal.println(checkHasLongestRoad(game));
+        terminal.println(checkHasLongestRoad(game.getCurrentPlayer()));
     }
 
     //TODO Requirements
@@ -196,6 +340,9 @@ public class GameLauncher {
                         "              You need at least 1 CLAY, 1 GRAIN, 1 WOOL, 1 WOOD \n" +
                         "CITY       -- Build a city\n" +
                         "              You need at least 3 STONE and 2 GRAIN \n" +
+                        "UNDO       -- Take back your last trade or building of this turn\n" +
+                        "SAVE       -- Save the game to a file\n" +
+                        "LOAD       -- Load a game from a file and continue it\n" +
                         "DONE       -- Finish a turn and switch to the next player\n\n";
         return helperMessage;
     }
@@ -225,6 +372,20 @@ public class GameLauncher {
         TextTerminal<?> terminal = textIO.getTextTerminal();
         terminal.println(String.format(SEP + "Player %s: You have to place your road", player));
         boolean validChoice = false;
+        PlayerStrategy strategy = computerPlayers.get(player);
+        if (strategy != null) {
+            MoveList moves = new MoveList();
+            for (Point settlement : game.findByFaction(player).getSettlements()) {
+                int corner = Coordinates.of(settlement);
+                if (!game.getBoard().hasRoadAtCorner(corner, player)
+                        && game.generateInitialRoads(corner, moves).size() > 0) {
+                    int move = strategy.chooseMove(game, moves);
+                    game.placeInitialRoad(moves.getEdge(move));
+                    terminal.println(describeMove(moves, move));
+                    return;
+                }
+            }
+        }
 
         while (!validChoice) {
             int xStartCoordinate = textIO.newIntInputReader()
@@ -258,6 +419,14 @@ public class GameLauncher {
         TextTerminal<?> terminal = textIO.getTextTerminal();
         terminal.println(String.format(SEP + "Player %s: You have to place your settlement", player));
         boolean validChoice = false;
+        PlayerStrategy strategy = computerPlayers.get(player);
+        if (strategy != null) {
+            MoveList moves = game.generateInitialSettlements(new MoveList());
+            int move = strategy.chooseMove(game, moves);
+            game.placeInitialSettlement(moves.getCorner(move), payout);
+            terminal.println(describeMove(moves, move));
+            return;
+        }
 
         while (!validChoice) {
             int xCoordinate = textIO.newIntInputReader()
@@ -277,6 +446,18 @@ public class GameLauncher {
         }
     }
 
+    private void choosePlayerTypes(TextIO textIO, int playerCount) {
+        computerPlayers.clear();
+        for (int i = 0; i < playerCount; i++) {
+            Faction faction = Faction.values()[i];
+            PlayerType type = textIO.newEnumInputReader(PlayerType.class)
+                    .read(String.format("Who plays %s?", faction));
+            if (type == PlayerType.COMPUTER) {
+                computerPlayers.put(faction, new MctsStrategy(COMPUTER_TIME_BUDGET_MILLIS));
+            }
+        }
+    }
+
     private static int getNumberOfPlayers(TextIO textIO) {
         int min = Config.MIN_NUMBER_OF_PLAYERS;
         int max = Config.Faction.values().length;
@@ -318,10 +499,8 @@ public class GameLauncher {
 
     }
 
-    private String checkHasLongestRoad(SiedlerGame game) {
-        if (!game.updateLongestRoad()) {
-            return "";
-        } else if (game.getCurrentPlayer().equals(game.checkHasLongestRoad().getFaction())) {
+    private String checkHasLongestRoad(Faction currentPlayer) {
+        if (currentPlayer.equals(longestRoadHolder)) {
             return "You own the longest road." + SEP;
         }
         return "";
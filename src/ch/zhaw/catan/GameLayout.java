@@ -0,0 +1,84 @@
+package ch.zhaw.catan;
+
+import ch.zhaw.catan.Config.Land;
+
+import java.awt.Point;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The class GameLayout holds the land and dice number of every field of a board.
+ * <p>
+ * A layout cannot be changed once it is created, so one layout can be shared by any number of games, also by games
+ * running in different threads. Everything that only depends on the layout, like the fields of every dice number
+ * or the corners and edges of the board, is calculated once when the layout is created.
+ *
+ * @version 12-05-2019
+ */
+public final class GameLayout {
+    private static final GameLayout STANDARD = new GameLayout(Config.getStandardLandPlacement(),
+            Config.getStandardDiceNumberPlacement());
+
+    private final Map<Point, Land> landPlacement;
+    private final Map<Point, Integer> diceNumberPlacement;
+    private final PayoutTable payoutTable;
+    private final MoveGenerator moveGenerator;
+
+    /**
+     * Creates a layout. The given maps are copied.
+     *
+     * @param landPlacement       The land of each field of the board
+     * @param diceNumberPlacement The dice number of each field that pays out resources
+     * @throws IllegalArgumentException if a dice number is not between 0 and 12
+     */
+    public GameLayout(Map<Point, Land> landPlacement, Map<Point, Integer> diceNumberPlacement) {
+        this.landPlacement = Collections.unmodifiableMap(copy(landPlacement));
+        this.diceNumberPlacement = Collections.unmodifiableMap(copy(diceNumberPlacement));
+        payoutTable = new PayoutTable(this.landPlacement, this.diceNumberPlacement);
+        moveGenerator = new MoveGenerator(this.landPlacement.keySet());
+    }
+
+    /**
+     * Returns the layout of the standard board as defined in {@link Config}.
+     *
+     * @return the standard layout
+     */
+    public static GameLayout standard() {
+        return STANDARD;
+    }
+
+    /**
+     * Returns the land of each field. The points must not be changed.
+     *
+     * @return an unmodifiable map of the land of each field
+     */
+    public Map<Point, Land> getLandPlacement() {
+        return landPlacement;
+    }
+
+    /**
+     * Returns the dice number of each field. The points must not be changed.
+     *
+     * @return an unmodifiable map of the dice number of each field
+     */
+    public Map<Point, Integer> getDiceNumberPlacement() {
+        return diceNumberPlacement;
+    }
+
+    PayoutTable createPayoutTable() {
+        return new PayoutTable(payoutTable);
+    }
+
+    MoveGenerator getMoveGenerator() {
+        return moveGenerator;
+    }
+
+    private static <V> Map<Point, V> copy(Map<Point, V> placement) {
+        Map<Point, V> result = new LinkedHashMap<>();
+        for (Map.Entry<Point, V> entry : placement.entrySet()) {
+            result.put(new Point(entry.getKey()), entry.getValue());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,156 @@
+package ch.zhaw.catan;
+
+import ch.zhaw.catan.Config.Faction;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * The class GameReplay reads a log written by a {@link GameEventLog} and sets up the game at the start of any turn.
+ * <p>
+ * When the log is read, the position of every snapshot and of the start of every turn is noted. To set up a turn,
+ * the last snapshot before the start of the turn is read and the events after it are made again until the start of
+ * the turn is reached. A log that ends in the middle of an event, e.g. because the game was not closed, is read up
+ * to the last complete event.
+ * <p>
+ * Moves are recorded in the journal of the replayed game like they were in the game that wrote the log, so they can
+ * be undone, but only back to the snapshot the replay started from. The replayed game does not continue with the
+ * random generator of the original game.
+ *
+ * @version 12-05-2019
+ */
+public final class GameReplay {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final Faction[] FACTIONS = Faction.values();
+
+    private final ByteBuffer log;
+    private int[] snapshots = new int[INITIAL_CAPACITY];
+    private int snapshotCount = 0;
+    private int[] turnStarts = new int[INITIAL_CAPACITY];
+    private int turns = 0;
+
+    /**
+     * Reads a log.
+     *
+     * @param path The file of the log
+     * @throws IOException if the file cannot be read or is not a log
+     */
+    public GameReplay(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("The log is too large: " + path);
+            }
+            log = ByteBuffer.allocate((int) size);
+            while (log.hasRemaining()) {
+                if (channel.read(log) < 0) {
+                    throw new EOFException("The log has changed while it was read: " + path);
+                }
+            }
+        }
+        log.flip();
+        if (log.remaining() < GameEventLog.HEADER_SIZE || log.getInt() != GameEventLog.MAGIC) {
+            throw new IOException("Not a game log: " + path);
+        }
+        int version = log.getShort();
+        if (version != GameEventLog.VERSION) {
+            throw new IOException("Unknown version of the game log: " + version);
+        }
+        log.getShort();
+        index();
+        if (snapshotCount == 0) {
+            throw new IOException("The game log has no snapshot to start from: " + path);
+        }
+    }
+
+    /**
+     * Returns the number of turns in the log, a turn starts whenever the current player changes.
+     *
+     * @return the number of turns
+     */
+    public int getTurns() {
+        return turns;
+    }
+
+    public int getSnapshotCount() {
+        return snapshotCount;
+    }
+
+    /**
+     * Sets up the game at the start of a turn: right after the current player changed, before the dices were thrown.
+     * Turn 0 is the state of the game when the log was attached.
+     *
+     * @param turn     The turn between 0 and {@link #getTurns()}
+     * @param withView true if a view of the board should be created
+     * @return a new game at the start of the turn
+     * @throws IOException if the log holds an invalid snapshot or event
+     */
+    public SiedlerGame seek(int turn, boolean withView) throws IOException {
+        if (turn < 0 || turn > turns) {
+            throw new IllegalArgumentException("Not a turn of the log: " + turn);
+        }
+        int target = turn == 0 ? snapshots[0] : turnStarts[turn - 1];
+        int index = Arrays.binarySearch(snapshots, 0, snapshotCount, target);
+        int snapshot = snapshots[index >= 0 ? index : -index - 2];
+
+        ByteBuffer events = log.duplicate();
+        events.position(snapshot + GameEventLog.RECORD_SIZE);
+        SiedlerGame game = SaveGame.decode(events, withView);
+        try {
+            while (events.position() < target) {
+                int type = events.get() & 0xFF;
+                Faction faction = FACTIONS[events.get()];
+                long value = events.getLong();
+                GameEventListener.Type eventType = GameEventLog.TYPES[type & ~GameEventLog.MOVE_START];
+                if (eventType == GameEventListener.Type.SNAPSHOT) {
+                    events.position(events.position() + (int) value);
+                } else {
+                    game.replay(eventType, faction, value, (type & GameEventLog.MOVE_START) != 0);
+                }
+            }
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IOException("Not a valid event in the game log: " + e.getMessage(), e);
+        }
+        return game;
+    }
+
+    /**
+     * Notes the position of every snapshot and the position after every turn event.
+     */
+    private void index() throws IOException {
+        while (log.remaining() >= GameEventLog.RECORD_SIZE) {
+            int position = log.position();
+            int type = (log.get() & 0xFF) & ~GameEventLog.MOVE_START;
+            log.get();
+            long value = log.getLong();
+            if (type >= GameEventLog.TYPES.length) {
+                throw new IOException("Not a valid event in the game log at " + position);
+            }
+            switch (GameEventLog.TYPES[type]) {
+                case SNAPSHOT:
+                    if (value > log.remaining()) {
+                        return;
+                    }
+                    log.position(log.position() + (int) value);
+                    if (snapshotCount == snapshots.length) {
+                        snapshots = Arrays.copyOf(snapshots, 2 * snapshotCount);
+                    }
+                    snapshots[snapshotCount++] = position;
+                    break;
+                case TURN:
+                    if (turns == turnStarts.length) {
+                        turnStarts = Arrays.copyOf(turnStarts, 2 * turns);
+                    }
+                    turnStarts[turns++] = log.position();
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+}
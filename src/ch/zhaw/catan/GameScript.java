@@ -0,0 +1,219 @@
+package ch.zhaw.catan;
+
+import ch.zhaw.catan.GameLauncher.Action;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+
+/**
+ * The class GameScript plays a game from a script instead of a user, e.g. to replay a game or to test a situation.
+ * <p>
+ * A script has one command of {@link Action} per line, written as for the {@link GameServer}, e.g.
+ * {@code SETTLEMENT 7 7} or {@code ROAD 7 7 6 6}. Every command is played by the current player in the same sequence
+ * as in {@link GameLauncher}, starting with the initial placement (see {@link GameSession}). Lines that cannot be
+ * played are reported with their line number and skipped. The script ends with its last line, with {@code QUIT} or
+ * when a player has won.
+ * <p>
+ * The script is read in large blocks into one buffer and every line is parsed right there by a
+ * {@link CommandParser}, so long scripts are played without creating a string for every line.
+ *
+ * @version 12-05-2019
+ */
+public final class GameScript {
+    private static final String SEP = System.lineSeparator();
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final String HELP = "Commands, one per line: SHOW, TRADE <offer> <want>, ROAD <x1> <y1> <x2> <y2>,"
+            + " SETTLEMENT <x> <y>, CITY <x> <y>, UNDO, DONE and QUIT. Lines starting with # are comments." + SEP;
+
+    private final GameSession session;
+    private final CommandParser parser = new CommandParser();
+    private int lines = 0;
+    private int commands = 0;
+    private int errors = 0;
+    private boolean finished = false;
+
+    /**
+     * Creates a script runner for a new game, which has not placed anything yet.
+     *
+     * @param game The game
+     */
+    public GameScript(SiedlerGame game) {
+        session = new GameSession(game);
+    }
+
+    /**
+     * Plays all lines of a script until it ends. It can be called again with the next part of a script.
+     *
+     * @param in  The script
+     * @param out Where the boards, the errors and the winner are written to
+     * @throws IOException if the script cannot be read or the output cannot be written
+     */
+    public void run(Reader in, Appendable out) throws IOException {
+        char[] buffer = new char[BUFFER_SIZE];
+        CharBuffer text = CharBuffer.wrap(buffer);
+        int length = 0;
+        boolean skipping = false;
+        int count;
+        while (!finished && (count = in.read(buffer, length, buffer.length - length)) >= 0) {
+            length += count;
+            int start = 0;
+            for (int i = 0; i < length && !finished; i++) {
+                if (buffer[i] == '\n') {
+                    if (!skipping) {
+                        execute(text, start, i, out);
+                    }
+                    skipping = false;
+                    start = i + 1;
+                }
+            }
+            if (start == 0 && length == buffer.length) {
+                // the rest of the line up to its end is dropped
+                if (!skipping) {
+                    lines++;
+                    reportError("The line is too long", out);
+                }
+                skipping = true;
+                length = 0;
+            } else {
+                System.arraycopy(buffer, start, buffer, 0, length - start);
+                length -= start;
+            }
+        }
+        if (!finished && !skipping && length > 0) {
+            execute(text, 0, length, out);
+        }
+    }
+
+    private void execute(CharSequence text, int start, int end, Appendable out) throws IOException {
+        lines++;
+        if (!parser.parse(text, start, end)) {
+            reportError(parser.getError(), out);
+            return;
+        }
+        Action action = parser.getAction();
+        if (action == null) {
+            return;
+        }
+        commands++;
+        SiedlerGame game = session.getGame();
+        switch (action) {
+            case HELP:
+                out.append(HELP);
+                break;
+            case SHOW:
+                game.getView().renderWithCoordinates(out);
+                break;
+            case QUIT:
+                finished = true;
+                break;
+            default:
+                String error = session.execute(parser);
+                if (error != null) {
+                    reportError(error, out);
+                } else if (game.getWinner() != null) {
+                    out.append("WINNER ").append(game.getWinner().toString()).append(SEP);
+                    finished = true;
+                }
+                break;
+        }
+    }
+
+    private void reportError(String error, Appendable out) throws IOException {
+        errors++;
+        out.append("line ").append(Integer.toString(lines)).append(": ERROR ").append(error).append(SEP);
+    }
+
+    /**
+     * Returns the game played by the script.
+     *
+     * @return the game
+     */
+    public SiedlerGame getGame() {
+        return session.getGame();
+    }
+
+    /**
+     * Returns the number of lines read so far.
+     *
+     * @return the number of lines
+     */
+    public int getLines() {
+        return lines;
+    }
+
+    /**
+     * Returns the number of commands read so far, including the ones that could not be played.
+     *
+     * @return the number of commands
+     */
+    public int getCommands() {
+        return commands;
+    }
+
+    /**
+     * Returns the number of lines that could not be read or played.
+     *
+     * @return the number of errors
+     */
+    public int getErrors() {
+        return errors;
+    }
+
+    /**
+     * Returns the number of turns started so far.
+     *
+     * @return the number of turns
+     */
+    public int getTurns() {
+        return session.getTurns();
+    }
+
+    /**
+     * Returns whether the script has ended with QUIT or a winner.
+     *
+     * @return true if the script has ended
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Plays a script from a file or from the standard input.
+     *
+     * @param args The file or - for the standard input, the number of players (optional) and the seed of the dice
+     *             (optional)
+     * @throws IOException if the script cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: GameScript <file|-> [players] [seed]");
+            return;
+        }
+        int players = args.length > 1 ? Integer.parseInt(args[1]) : Config.MIN_NUMBER_OF_PLAYERS;
+        SplittableRandom random = args.length > 2 ? new SplittableRandom(Long.parseLong(args[2]))
+                : new SplittableRandom();
+        GameScript script = new GameScript(new SiedlerGame(Config.WIN_POINTS, players, GameLayout.standard(), true,
+                random));
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        long start = System.nanoTime();
+        try (Reader in = args[0].equals("-") ? new InputStreamReader(System.in, StandardCharsets.UTF_8)
+                : new InputStreamReader(Files.newInputStream(Paths.get(args[0])), StandardCharsets.UTF_8)) {
+            script.run(in, out);
+        }
+        long nanos = System.nanoTime() - start;
+        Config.Faction winner = script.getGame().getWinner();
+        out.append(String.format("%d lines, %d commands, %d errors, %d turns, winner %s, %.1f ms%n",
+                script.getLines(), script.getCommands(), script.getErrors(), script.getTurns(),
+                winner == null ? "none" : winner, nanos / 1e6));
+        out.flush();
+    }
+}
@@ -0,0 +1,364 @@
+package ch.zhaw.catan;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The class GameServer hosts any number of games, called tables, for clients that connect over TCP. It has no user
+ * interface of its own.
+ * <p>
+ * All connections are served by one thread with a {@link Selector}, which never blocks on a single client. Every
+ * table is an actor: the lines of its players are put into the mailbox of the table and handled one after the other
+ * by a thread of a {@link ForkJoinPool}, so a {@link SiedlerGame} is only ever used by one thread at a time and
+ * thousands of tables share a few threads (see {@link GameTable}). Other threads of the process read the state of a
+ * table through the {@link GameView} it publishes, see {@link #getView(String)}.
+ * <p>
+ * Clients speak a line protocol. A client first sends {@code JOIN <table> <players>} to take the next free seat of a
+ * table, which is created for the given number of players if it does not exist. The game starts when all seats are
+ * taken. Then the commands of {@link GameLauncher.Action} can be sent, with their arguments on the same line, e.g.
+ * {@code ROAD 6 6 6 8} or {@code TRADE WD GR}. The server answers every line with {@code OK}, {@code ERROR} and a
+ * reason or the requested data, and tells all players of a table about every change of the game. The lines sent by
+ * the server are described by {@code HELP}.
+ *
+ * @version 12-05-2019
+ */
+public final class GameServer implements Closeable {
+    /**
+     * The port the server listens on if no other port is given.
+     */
+    public static final int DEFAULT_PORT = 4711;
+    private static final int MAX_LINE_LENGTH = 1024;
+    private static final int MAX_PENDING_WRITES = 1024;
+
+    private final ServerSocketChannel serverChannel;
+    private final Selector selector;
+    private final ForkJoinPool pool;
+    private final Map<String, GameTable> tables = new ConcurrentHashMap<>();
+    private final Thread selectorThread;
+    private volatile boolean running = true;
+
+    /**
+     * Starts a server that listens on an address. The tables are played on as many threads as there are cores.
+     *
+     * @param address The address, its port may be 0 to choose a free port
+     * @throws IOException if the server cannot listen on the address
+     */
+    public GameServer(InetSocketAddress address) throws IOException {
+        this(address, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Starts a server that listens on an address.
+     *
+     * @param address The address, its port may be 0 to choose a free port
+     * @param threads The number of threads that play the tables
+     * @throws IOException if the server cannot listen on the address
+     */
+    public GameServer(InetSocketAddress address, int threads) throws IOException {
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        try {
+            serverChannel.bind(address);
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            serverChannel.close();
+            selector.close();
+            throw e;
+        }
+        pool = new ForkJoinPool(threads, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+        selectorThread = new Thread(this::serve, "GameServer");
+        selectorThread.start();
+    }
+
+    /**
+     * Returns the port the server listens on.
+     *
+     * @return the port
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Returns the number of tables that have players.
+     *
+     * @return the number of tables
+     */
+    public int getTableCount() {
+        return tables.size();
+    }
+
+    /**
+     * Stops the server and closes all connections. Tables that are still played are dropped.
+     *
+     * @throws IOException if the server cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        selector.wakeup();
+        try {
+            selectorThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        pool.shutdown();
+        try {
+            pool.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns the latest view of the game of a table. Spectators and bots can read it while the game goes on.
+     *
+     * @param table The name of the table
+     * @return the view or null if there is no such table or its game has not started
+     */
+    public GameView getView(String table) {
+        GameTable current = tables.get(table);
+        return current == null ? null : current.getView();
+    }
+
+    ForkJoinPool getPool() {
+        return pool;
+    }
+
+    void removeTable(GameTable table) {
+        tables.remove(table.getName(), table);
+    }
+
+    private void serve() {
+        try {
+            while (running) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    Connection connection = (Connection) key.attachment();
+                    if (key.isReadable()) {
+                        connection.read();
+                    }
+                    if (key.isValid() && key.isWritable()) {
+                        connection.writePending();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("The server stopped: " + e.getMessage());
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof Connection) {
+                    ((Connection) key.attachment()).close();
+                }
+            }
+            try {
+                serverChannel.close();
+                selector.close();
+            } catch (IOException e) {
+                System.err.println("The server could not be closed: " + e.getMessage());
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        Connection connection = new Connection(channel);
+        connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+        connection.send("WELCOME");
+    }
+
+    /**
+     * Handles a line of a client that is not seated at a table, every other line goes to the table.
+     */
+    private void dispatch(Connection connection, String line) {
+        GameTable table = connection.table;
+        if (table != null) {
+            table.post(connection, line);
+            return;
+        }
+        String[] words = line.split("\\s+");
+        String command = words[0].toUpperCase();
+        if (command.equals("JOIN")) {
+            int players;
+            try {
+                players = words.length == 3 ? Integer.parseInt(words[2]) : -1;
+            } catch (NumberFormatException e) {
+                players = -1;
+            }
+            if (players < Config.MIN_NUMBER_OF_PLAYERS || players > Config.Faction.values().length) {
+                connection.send("ERROR Usage: JOIN <table> <players>, with " + Config.MIN_NUMBER_OF_PLAYERS + " to "
+                        + Config.Faction.values().length + " players");
+                return;
+            }
+            final int tablePlayers = players;
+            table = tables.computeIfAbsent(words[1], name -> new GameTable(this, name, tablePlayers));
+            // lines that follow the JOIN go to the same table, which answers them if the seat was not given
+            connection.table = table;
+            table.post(connection, line);
+        } else if (command.equals("QUIT")) {
+            connection.send("BYE");
+            connection.close();
+        } else if (command.equals("HELP")) {
+            connection.send(GameTable.HELP);
+        } else if (!command.isEmpty()) {
+            connection.send("ERROR Join a table first: JOIN <table> <players>");
+        }
+    }
+
+    /**
+     * A client. It is read by the thread of the selector and written by the thread of its table or the selector.
+     */
+    final class Connection {
+        private final SocketChannel channel;
+        private final ByteBuffer input = ByteBuffer.allocate(MAX_LINE_LENGTH);
+        // guarded by this
+        private final ArrayDeque<ByteBuffer> output = new ArrayDeque<>();
+        private SelectionKey key;
+        private boolean closed = false;
+        volatile GameTable table;
+
+        private Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Sends a line to the client. If the client cannot take it right now, it is sent by the selector later.
+         *
+         * @param line The line, it may contain line separators
+         */
+        void send(String line) {
+            ByteBuffer buffer = StandardCharsets.UTF_8.encode(line + "\n");
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (output.isEmpty()) {
+                    try {
+                        channel.write(buffer);
+                    } catch (IOException e) {
+                        close();
+                        return;
+                    }
+                    if (!buffer.hasRemaining()) {
+                        return;
+                    }
+                }
+                if (output.size() >= MAX_PENDING_WRITES) {
+                    // the client does not read what it gets
+                    close();
+                    return;
+                }
+                output.add(buffer);
+                key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            }
+            selector.wakeup();
+        }
+
+        /**
+         * Closes the connection, the client leaves its table.
+         */
+        void close() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                output.clear();
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // the connection is gone anyway
+            }
+            GameTable current = table;
+            if (current != null) {
+                current.post(this, null);
+            }
+        }
+
+        private synchronized void writePending() {
+            try {
+                while (!output.isEmpty()) {
+                    ByteBuffer buffer = output.peek();
+                    channel.write(buffer);
+                    if (buffer.hasRemaining()) {
+                        return;
+                    }
+                    output.poll();
+                }
+                key.interestOps(SelectionKey.OP_READ);
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        private void read() {
+            int count;
+            try {
+                count = channel.read(input);
+            } catch (IOException e) {
+                count = -1;
+            }
+            if (count < 0) {
+                close();
+                return;
+            }
+            input.flip();
+            int start = 0;
+            for (int i = 0; i < input.limit(); i++) {
+                if (input.get(i) == '\n' && channel.isOpen()) {
+                    String line = new String(input.array(), start, i - start, StandardCharsets.UTF_8).trim();
+                    start = i + 1;
+                    dispatch(this, line);
+                }
+            }
+            input.position(start);
+            input.compact();
+            if (!input.hasRemaining()) {
+                send("ERROR The line is too long");
+                close();
+            }
+        }
+    }
+
+    /**
+     * Starts a server and keeps it running until the process is stopped.
+     *
+     * @param args The port (optional)
+     * @throws IOException if the server cannot be started
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        GameServer server = new GameServer(new InetSocketAddress(port));
+        System.out.println("The server listens on port " + server.getPort() + ".");
+    }
+}
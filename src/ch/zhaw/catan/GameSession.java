@@ -0,0 +1,157 @@
+package ch.zhaw.catan;
+
+import ch.zhaw.catan.Config.Resource;
+
+/**
+ * The class GameSession plays the commands read by a {@link CommandParser} on a {@link SiedlerGame} in the same
+ * sequence as {@link GameLauncher}: the initial placement, where every player places a settlement and then a road,
+ * first in order and then in reverse order, and then turns that start with throwing the dice.
+ * <p>
+ * A session is used by {@link GameTable} for the players of a server and by {@link GameScript} for scripts. It does
+ * not know who sends a command, the command is always played by the current player.
+ *
+ * @version 12-05-2019
+ */
+final class GameSession {
+    private static final int NUMBER_OF_DICES = 2;
+
+    private final SiedlerGame game;
+    private final int players;
+    private int initialStep = 0;
+    private int movesOfTurn = 0;
+    private int turns = 0;
+
+    GameSession(SiedlerGame game) {
+        this.game = game;
+        this.players = game.getNumberOfPlayers();
+    }
+
+    SiedlerGame getGame() {
+        return game;
+    }
+
+    /**
+     * Returns whether the players still place their initial settlements and roads.
+     *
+     * @return true during the initial placement
+     */
+    boolean isPlacingInitial() {
+        return initialStep < 4 * players;
+    }
+
+    /**
+     * Returns whether the next initial placement is a settlement or a road.
+     *
+     * @return true if a settlement is placed next
+     */
+    boolean isSettlementNext() {
+        return initialStep % 2 == 0;
+    }
+
+    /**
+     * Returns the number of turns started so far, a turn starts after the initial placement and after every DONE.
+     *
+     * @return the number of turns
+     */
+    int getTurns() {
+        return turns;
+    }
+
+    /**
+     * Plays the last command of a parser for the current player. SHOW, HELP and QUIT are left to the caller.
+     *
+     * @param command A parser that has read a command
+     * @return null if the command has been played or why it cannot be played
+     */
+    String execute(CommandParser command) {
+        if (isPlacingInitial()) {
+            return placeInitial(command);
+        }
+        boolean played;
+        switch (command.getAction()) {
+            case TRADE:
+                played = game.checkTradeWithBankFourToOne(command.getOffer(), command.getWant())
+                        && game.tradeWithBankFourToOne(command.getOffer(), command.getWant());
+                break;
+            case ROAD:
+                played = game.buildRoad(command.getEdge());
+                break;
+            case SETTLEMENT:
+                played = game.buildSettlement(command.getCorner());
+                break;
+            case CITY:
+                played = game.buildCity(command.getCorner());
+                break;
+            case UNDO:
+                // only the moves of the current turn can be taken back, not the payout at its start
+                if (movesOfTurn == 0 || !game.undo()) {
+                    return "There is no move of this turn to take back";
+                }
+                movesOfTurn--;
+                return null;
+            case DONE:
+                game.switchToNextPlayer();
+                startTurn();
+                return null;
+            case SAVE:
+            case LOAD:
+                return "Games cannot be saved or loaded here";
+            default:
+                throw new IllegalStateException("Internal error found - Command not implemented.");
+        }
+        if (!played) {
+            return "The move is not possible";
+        }
+        movesOfTurn++;
+        return null;
+    }
+
+    private String placeInitial(CommandParser command) {
+        int placement = initialStep / 2;
+        boolean settlement = isSettlementNext();
+        boolean placed;
+        if (settlement && command.getAction() == GameLauncher.Action.SETTLEMENT) {
+            placed = game.placeInitialSettlement(command.getCorner(), placement >= players);
+        } else if (!settlement && command.getAction() == GameLauncher.Action.ROAD) {
+            placed = game.placeInitialRoad(command.getEdge());
+        } else {
+            return settlement ? "Place your initial settlement first" : "Place your initial road first";
+        }
+        if (!placed) {
+            return "Cannot place it there";
+        }
+        initialStep++;
+        if (settlement) {
+            return null;
+        }
+        if (placement < players - 1) {
+            game.switchToNextPlayer();
+        } else if (placement >= players && placement < 2 * players - 1) {
+            game.switchToPreviousPlayer();
+        }
+        if (!isPlacingInitial()) {
+            startTurn();
+        }
+        return null;
+    }
+
+    private void startTurn() {
+        movesOfTurn = 0;
+        turns++;
+        game.distributeResources(game.throwDiceForPayout(NUMBER_OF_DICES));
+    }
+
+    /**
+     * Appends the resources of the current player, e.g. {@code STOCK GR 1 WL 0 WD 2 ST 0 CL 1}.
+     *
+     * @param out Where the resources are appended to
+     * @return the builder
+     */
+    StringBuilder appendStock(StringBuilder out) {
+        out.append("STOCK");
+        for (Resource resource : Resource.values()) {
+            out.append(' ').append(resource).append(' ').append(game.getCurrentPlayerResourceStock(resource));
+        }
+        return out;
+    }
+}
@@ -0,0 +1,269 @@
+package ch.zhaw.catan;
+
+import ch.zhaw.catan.Config.Faction;
+
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The class GameTable is a game of a {@link GameServer} and the players seated at it.
+ * <p>
+ * A table is an actor: the lines of its players are put into its mailbox from any thread, and the table handles them
+ * one after the other on a thread of the pool of the server. It is scheduled on the pool only while its mailbox is
+ * not empty, and never on two threads at the same time, so its game and its seats need no locks. After a number of
+ * lines the table gives its thread to the other tables, so a busy table cannot starve them.
+ * <p>
+ * The game follows the same sequence as in {@link GameLauncher}: the initial placement, then turns that start with
+ * throwing the dice. When a player leaves, the table is closed and the other players can join another table.
+ *
+ * @version 12-05-2019
+ */
+final class GameTable implements Runnable {
+    static final String HELP = String.join("\n",
+            "JOIN <table> <players> -- Take a seat at a table, the game starts when all seats are taken",
+            "SHOW                   -- Show the board, sent as BOARD <lines> and the lines",
+            "TRADE <offer> <want>   -- Trade 4 resources to 1 other with the bank, e.g. TRADE WD GR",
+            "ROAD <x1> <y1> <x2> <y2> -- Build a road, needs 1 CLAY and 1 WOOD",
+            "SETTLEMENT <x> <y>     -- Build a settlement, needs 1 CLAY, 1 GRAIN, 1 WOOL, 1 WOOD",
+            "CITY <x> <y>           -- Build a city, needs 3 STONE and 2 GRAIN",
+            "UNDO                   -- Take back your last trade or building of this turn",
+            "DONE                   -- Finish your turn",
+            "QUIT                   -- Leave the game, it ends for all players",
+            "The server sends: START, PLACE <faction> SETTLEMENT|ROAD, TURN <faction> <dice>, STOCK <resources>,",
+            "PLAYED <faction> <command>, LEFT <faction>, WINNER <faction>, CLOSED, OK and ERROR <reason>.");
+    private static final int LINES_PER_RUN = 64;
+
+    private final GameServer server;
+    private final String name;
+    private final int players;
+    private final Queue<Message> mailbox = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private volatile GameView view;
+
+    // only used by the thread that runs the table
+    private final GameServer.Connection[] seats;
+    private int seated = 0;
+    private final CommandParser parser = new CommandParser();
+    private GameSession session;
+    private long version = 0;
+    private boolean changed = false;
+    private boolean closed = false;
+
+    private static final class Message {
+        private final GameServer.Connection from;
+        private final String line;
+
+        private Message(GameServer.Connection from, String line) {
+            this.from = from;
+            this.line = line;
+        }
+    }
+
+    GameTable(GameServer server, String name, int players) {
+        this.server = server;
+        this.name = name;
+        this.players = players;
+        seats = new GameServer.Connection[players];
+    }
+
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the latest view of the game, which is published after every run of the table that changed the game.
+     * It can be called by any thread.
+     *
+     * @return the view or null if the game has not started
+     */
+    GameView getView() {
+        return view;
+    }
+
+    /**
+     * Puts a line of a client into the mailbox and schedules the table if it is not scheduled yet.
+     *
+     * @param from The client
+     * @param line The line or null if the client is gone
+     */
+    void post(GameServer.Connection from, String line) {
+        mailbox.add(new Message(from, line));
+        if (scheduled.compareAndSet(false, true)) {
+            server.getPool().execute(this);
+        }
+    }
+
+    @Override
+    public void run() {
+        for (int i = 0; i < LINES_PER_RUN; i++) {
+            Message message = mailbox.poll();
+            if (message == null) {
+                break;
+            }
+            try {
+                handle(message.from, message.line);
+            } catch (RuntimeException e) {
+                message.from.send("ERROR " + e.getMessage());
+            }
+        }
+        if (changed) {
+            changed = false;
+            view = new GameView(session.getGame(), version);
+        }
+        scheduled.set(false);
+        if (!mailbox.isEmpty() && scheduled.compareAndSet(false, true)) {
+            server.getPool().execute(this);
+        }
+    }
+
+    private void handle(GameServer.Connection from, String line) {
+        int seat = findSeat(from);
+        if (line == null) {
+            if (seat >= 0) {
+                leave(seat);
+            }
+            return;
+        }
+        if (seat < 0) {
+            // the connection was sent here by a JOIN, the lines after it wait for its answer
+            join(from, line);
+            return;
+        }
+        if (!parser.parse(line)) {
+            from.send(isJoin(line) ? "ERROR You are already seated at the table " + name
+                    : "ERROR " + parser.getError());
+            return;
+        }
+        GameLauncher.Action action = parser.getAction();
+        if (action == null) {
+            return;
+        }
+        if (action == GameLauncher.Action.HELP) {
+            from.send(HELP);
+            return;
+        }
+        if (action == GameLauncher.Action.QUIT) {
+            from.send("BYE");
+            leave(seat);
+            from.close();
+            return;
+        }
+        if (session == null) {
+            from.send("ERROR The game has not started, " + seated + " of " + players + " players are seated");
+            return;
+        }
+        SiedlerGame game = session.getGame();
+        if (action == GameLauncher.Action.SHOW) {
+            String board = game.getView().toStringWithCoordinates();
+            String separator = System.lineSeparator();
+            int lines = (board.length() - board.replace(separator, "").length()) / separator.length();
+            from.send("BOARD " + lines + "\n" + board.substring(0, board.length() - separator.length()));
+            return;
+        }
+        Faction player = game.getCurrentPlayer();
+        if (seat != player.ordinal()) {
+            from.send("ERROR It is the turn of " + player);
+            return;
+        }
+        boolean placingInitial = session.isPlacingInitial();
+        int turns = session.getTurns();
+        String error = session.execute(parser);
+        if (error != null) {
+            from.send("ERROR " + error);
+            return;
+        }
+        version++;
+        changed = true;
+        from.send("OK");
+        if (action != GameLauncher.Action.DONE) {
+            broadcast(parser.appendTo(new StringBuilder("PLAYED ").append(player).append(' ')).toString());
+        }
+        if (game.getWinner() != null) {
+            broadcast("WINNER " + game.getWinner());
+            close();
+        } else if (session.isPlacingInitial()) {
+            broadcast("PLACE " + game.getCurrentPlayer() + (session.isSettlementNext() ? " SETTLEMENT" : " ROAD"));
+        } else if (session.getTurns() != turns) {
+            broadcast("TURN " + game.getCurrentPlayer() + " " + game.getLastDiceSum());
+            seats[game.getCurrentPlayer().ordinal()].send(getStock());
+        } else if (!placingInitial) {
+            from.send(getStock());
+        }
+    }
+
+    private int findSeat(GameServer.Connection connection) {
+        for (int i = 0; i < seated; i++) {
+            if (seats[i] == connection) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void join(GameServer.Connection from, String line) {
+        if (!isJoin(line)) {
+            from.send("ERROR Join a table first: JOIN <table> <players>");
+            return;
+        }
+        // the server has checked the words of the line before it sent the connection here
+        if (closed || seated == players || Integer.parseInt(line.split("\\s+")[2]) != players) {
+            if (from.table == this) {
+                from.table = null;
+            }
+            from.send(closed ? "ERROR The table is closed"
+                    : seated < players ? "ERROR The table is for " + players + " players"
+                    : "ERROR The table is full");
+            return;
+        }
+        seats[seated] = from;
+        Faction faction = Faction.values()[seated];
+        seated++;
+        from.send("JOINED " + name + " " + faction);
+        if (seated == players) {
+            session = new GameSession(new SiedlerGame(Config.WIN_POINTS, players, GameLayout.standard(), true,
+                    new SplittableRandom()));
+            changed = true;
+            broadcast("START " + players);
+            broadcast("PLACE " + session.getGame().getCurrentPlayer() + " SETTLEMENT");
+        }
+    }
+
+    private static boolean isJoin(String line) {
+        return line.regionMatches(true, 0, "JOIN", 0, 4)
+                && (line.length() == 4 || Character.isWhitespace(line.charAt(4)));
+    }
+
+    private String getStock() {
+        return session.appendStock(new StringBuilder()).toString();
+    }
+
+    private void leave(int seat) {
+        GameServer.Connection connection = seats[seat];
+        connection.table = null;
+        seats[seat] = null;
+        broadcast("LEFT " + Faction.values()[seat]);
+        close();
+    }
+
+    private void close() {
+        closed = true;
+        server.removeTable(this);
+        for (int i = 0; i < seated; i++) {
+            if (seats[i] != null) {
+                seats[i].table = null;
+                seats[i].send("CLOSED");
+                seats[i] = null;
+            }
+        }
+    }
+
+    private void broadcast(String line) {
+        for (int i = 0; i < seated; i++) {
+            if (seats[i] != null) {
+                seats[i].send(line);
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package ch.zhaw.catan;
+
+import ch.zhaw.catan.Config.Faction;
+import ch.zhaw.catan.Config.Resource;
+import ch.zhaw.hexboard.Coordinates;
+
+import java.util.SplittableRandom;
+
+/**
+ * The class GameView is the state of a {@link SiedlerGame} at one point in time, as it is published by a
+ * {@link GameHost} or a table of a {@link GameServer} for other threads.
+ * <p>
+ * A view cannot be changed. It is a {@link SiedlerGame.Snapshot}, which shares its data with the game until the game
+ * changes it, so taking a view copies nothing and reading it needs no locks. Every view has a version: a view with a
+ * higher version of the same host shows a later state.
+ *
+ * @version 12-05-2019
+ */
+public final class GameView {
+    private final long version;
+    private final int winPoints;
+    private final SiedlerGame.Snapshot snapshot;
+
+    /**
+     * Takes a view of a game. It must be called by the thread that changes the game.
+     *
+     * @param game    The game
+     * @param version The version of the view
+     */
+    GameView(SiedlerGame game, long version) {
+        this.version = version;
+        this.winPoints = game.getWinPoints();
+        this.snapshot = game.snapshot();
+    }
+
+    /**
+     * Returns the version of the view, it grows with every command played on the game.
+     *
+     * @return the version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public int getNumberOfPlayers() {
+        return snapshot.getNumberOfPlayers();
+    }
+
+    public Faction getCurrentPlayer() {
+        return snapshot.getCurrentPlayer();
+    }
+
+    public int getLastDiceSum() {
+        return snapshot.getLastDiceSum();
+    }
+
+    public int getPoints(Faction faction) {
+        return snapshot.getPlayer(faction).getPoints();
+    }
+
+    public int getResourceStock(Faction faction, Resource resource) {
+        return snapshot.getPlayer(faction).getResourceAmount(resource);
+    }
+
+    public int getBankStock(Resource resource) {
+        return snapshot.getBankStock(resource);
+    }
+
+    public Faction getPlayerWithLongestRoad() {
+        return snapshot.getPlayerWithLongestRoad();
+    }
+
+    /**
+     * Returns the winner the same way as {@link SiedlerGame#getWinner()}.
+     *
+     * @return the winner or null if no player has enough points yet
+     */
+    public Faction getWinner() {
+        Faction winner = null;
+        int winnerPoints = 0;
+        for (int i = 0; i < getNumberOfPlayers(); i++) {
+            Faction faction = Faction.values()[i];
+            if (winnerPoints < getPoints(faction)) {
+                winnerPoints = getPoints(faction);
+                winner = faction;
+            }
+        }
+        return winnerPoints >= winPoints ? winner : null;
+    }
+
+    /**
+     * Returns what is built on a corner.
+     *
+     * @param corner The packed corner (see {@link Coordinates})
+     * @return the occupancy or {@link Occupancy#EMPTY} if nothing is built or there is no such corner
+     */
+    public byte getCornerOccupancy(int corner) {
+        return SiedlerBoard.getCornerOccupancy(snapshot.getBoard(), corner);
+    }
+
+    /**
+     * Returns what is built on an edge.
+     *
+     * @param edge The packed edge (see {@link Coordinates})
+     * @return the occupancy or {@link Occupancy#EMPTY} if nothing is built or there is no such edge
+     */
+    public byte getEdgeOccupancy(long edge) {
+        return SiedlerBoard.getEdgeOccupancy(snapshot.getBoard(), edge);
+    }
+
+    /**
+     * Sets a game of the reader to the state of the view, e.g. to render its board or to search the next moves on
+     * a copy of the game. The game must have the same layout and number of players as the game of the view.
+     *
+     * @param game   The game of the reader
+     * @param random The random generator the game continues with
+     * @throws IllegalArgumentException if the game has another layout or number of players
+     */
+    public void restoreTo(SiedlerGame game, SplittableRandom random) {
+        game.restore(snapshot, random);
+    }
+}
@@ -0,0 +1,481 @@
+package ch.zhaw.catan;
+
+import ch.zhaw.catan.Config.Faction;
+import ch.zhaw.hexboard.Coordinates;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The MctsStrategy chooses its moves with a Monte Carlo tree search: it tries the possible moves on copies of the
+ * game and plays every copy to the end with random moves. The move that was tried most often is chosen, since the
+ * search tries the moves with good results more often.
+ * <p>
+ * The tree holds the moves of the current player's turn, from the current state to the end of the turn. The dices
+ * decide how the game goes on after that, so a play-out starts from there: it ends the turn and lets all players,
+ * including the searching one, play random moves (see {@link RandomStrategy}) until a player has won or a number of
+ * turns is reached. A play-out that reaches this limit is rated by the difference of the points. During the initial
+ * placement only the settlement or road to place is chosen by the tree, the play-out places the remaining ones.
+ * <p>
+ * The search is parallelized at the root: each thread of a {@link ForkJoinPool} searches its own tree on its own
+ * copy of the game, restored from one {@link SiedlerGame.Snapshot}, and the number of tries of the moves are added up.
+ * After a move was chosen, each tree keeps the part below this move and the next decision of the same turn starts
+ * from there. The search stops when its time budget is used up or when the maximum number of play-outs is reached,
+ * the latter makes a search with a seeded strategy reproducible. The dices of the copies are drawn from the random
+ * generator of the strategy, so searching does not change the dices of the game.
+ * <p>
+ * If the thread that chooses a move is interrupted, the searches are stopped and the strategy falls back to ending
+ * the turn, or to the first move during the initial placement, instead of a move from an incomplete search.
+ * <p>
+ * Unlike the {@link RandomStrategy}, this strategy keeps state between decisions. Games running at the same time
+ * can share it, but they have to wait for each other. Since a decision waits for the searches on the pool, the
+ * strategy must not be used by games that run on the same pool, e.g. by {@link Simulation#runParallel(int, long,
+ * ForkJoinPool)} on the common pool; such games are played one after the other with {@link Simulation#run(int,
+ * long)}.
+ *
+ * @version 12-05-2019
+ */
+public class MctsStrategy implements PlayerStrategy {
+    private static final int DEFAULT_PLAYOUT_TURNS = 40;
+    private static final int MAX_MOVES_PER_TURN = 32;
+    private static final int NUMBER_OF_DICES = 2;
+    private static final int INITIAL_ROADS_PER_PLAYER = 2;
+    private static final double EXPLORATION = Math.sqrt(2);
+    private static final PlayerStrategy PLAYOUT_STRATEGY = new RandomStrategy();
+
+    private final long timeBudgetNanos;
+    private final int maxPlayouts;
+    private final int playoutTurns;
+    private final ForkJoinPool pool;
+    private final Worker[] workers;
+    private final SplittableRandom random;
+    private final LongAdder playouts = new LongAdder();
+    private final LongAdder searchNanos = new LongAdder();
+    private volatile boolean stopped = false;
+
+    /**
+     * Creates a strategy that searches on all threads of the common pool until its time budget is used up.
+     *
+     * @param timeBudgetMillis The time of every decision in milliseconds
+     */
+    public MctsStrategy(long timeBudgetMillis) {
+        this(timeBudgetMillis, Integer.MAX_VALUE, ForkJoinPool.commonPool().getParallelism(),
+                ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a strategy.
+     *
+     * @param timeBudgetMillis The time of every decision in milliseconds
+     * @param maxPlayouts      The maximum number of play-outs of every decision, shared by all threads
+     * @param threads          The number of trees that are searched in parallel
+     * @param pool             The pool that searches the trees
+     */
+    public MctsStrategy(long timeBudgetMillis, int maxPlayouts, int threads, ForkJoinPool pool) {
+        this(timeBudgetMillis, maxPlayouts, threads, pool, new SplittableRandom());
+    }
+
+    /**
+     * Creates a strategy with a seeded random generator, its search is reproducible if it is limited by the number
+     * of play-outs.
+     *
+     * @param timeBudgetMillis The time of every decision in milliseconds
+     * @param maxPlayouts      The maximum number of play-outs of every decision, shared by all threads
+     * @param threads          The number of trees that are searched in parallel
+     * @param pool             The pool that searches the trees
+     * @param seed             The seed of the random generator of the strategy
+     */
+    public MctsStrategy(long timeBudgetMillis, int maxPlayouts, int threads, ForkJoinPool pool, long seed) {
+        this(timeBudgetMillis, maxPlayouts, threads, pool, new SplittableRandom(seed));
+    }
+
+    private MctsStrategy(long timeBudgetMillis, int maxPlayouts, int threads, ForkJoinPool pool,
+                         SplittableRandom random) {
+        if (threads < 1 || maxPlayouts < 1) {
+            throw new IllegalArgumentException("At least one thread and one play-out are needed.");
+        }
+        this.timeBudgetNanos = timeBudgetMillis * 1_000_000L;
+        this.maxPlayouts = maxPlayouts;
+        this.playoutTurns = DEFAULT_PLAYOUT_TURNS;
+        this.pool = pool;
+        this.random = random;
+        workers = new Worker[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Worker();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalStateException if it is called on a thread of the pool that searches the trees
+     */
+    @Override
+    public synchronized int chooseMove(SiedlerGame game, MoveList moves) {
+        if (ForkJoinTask.inForkJoinPool() && ForkJoinTask.getPool() == pool) {
+            throw new IllegalStateException("The strategy cannot be used by a game that runs on its own pool.");
+        }
+        long start = System.nanoTime();
+        Faction player = game.getCurrentPlayer();
+        boolean initialPlacement = isInitialPlacement(game);
+        SiedlerGame.Snapshot root = game.snapshot(random.nextLong());
+        stopped = false;
+        List<Future<Void>> searches = new ArrayList<>(workers.length);
+        for (int i = 0; i < workers.length; i++) {
+            Worker worker = workers[i];
+            int budget = maxPlayouts / workers.length + (i < maxPlayouts % workers.length ? 1 : 0);
+            worker.prepare(game, moves, initialPlacement, root, random.split());
+            searches.add(pool.submit(() -> {
+                worker.search(player, start + timeBudgetNanos, budget);
+                return null;
+            }));
+        }
+        if (!awaitSearches(searches)) {
+            for (Worker worker : workers) {
+                worker.keep(game, -1);
+            }
+            searchNanos.add(System.nanoTime() - start);
+            return initialPlacement ? 0 : END_TURN;
+        }
+
+        int choices = initialPlacement ? moves.size() : moves.size() + 1;
+        int best = 0;
+        long bestVisits = -1;
+        for (int child = 0; child < choices; child++) {
+            long visits = 0;
+            for (Worker worker : workers) {
+                visits += worker.getVisits(child);
+            }
+            if (visits > bestVisits) {
+                best = child;
+                bestVisits = visits;
+            }
+        }
+        for (Worker worker : workers) {
+            worker.keep(game, best);
+        }
+        searchNanos.add(System.nanoTime() - start);
+        return best == moves.size() ? END_TURN : best;
+    }
+
+    /**
+     * Waits until all searches have ended. If the thread is interrupted, the searches are stopped, but they are still
+     * waited for, since the next decision uses their trees again.
+     *
+     * @return true if the searches have ended normally, false if they were stopped
+     */
+    private boolean awaitSearches(List<Future<Void>> searches) {
+        boolean interrupted = false;
+        Throwable failure = null;
+        for (Future<Void> search : searches) {
+            while (true) {
+                try {
+                    search.get();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    stopped = true;
+                } catch (ExecutionException e) {
+                    failure = e.getCause();
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            throw new IllegalStateException("Internal error found - search failed.", failure);
+        }
+        return !interrupted;
+    }
+
+    /**
+     * Returns the number of play-outs per second of search time over all decisions so far.
+     *
+     * @return play-outs per second
+     */
+    public double getPlayoutsPerSecond() {
+        long nanos = searchNanos.sum();
+        return nanos == 0 ? 0 : playouts.sum() * 1e9 / nanos;
+    }
+
+    public long getPlayouts() {
+        return playouts.sum();
+    }
+
+    /**
+     * The initial placement is over when every player has placed both initial roads.
+     */
+    static boolean isInitialPlacement(SiedlerGame game) {
+        return countRoads(game) < INITIAL_ROADS_PER_PLAYER * game.getNumberOfPlayers();
+    }
+
+    private static int countRoads(SiedlerGame game) {
+        int roads = 0;
+        for (int i = 0; i < game.getNumberOfPlayers(); i++) {
+            roads += game.findByFaction(Faction.values()[i]).getRoads().size();
+        }
+        return roads;
+    }
+
+    /**
+     * A node of a tree. Its children are the moves of its state, in the order they were generated, and, during a
+     * normal turn, ending the turn as the last child. Ending the turn and the moves of the initial placement are
+     * leaves, since the game goes on randomly after them.
+     */
+    private static final class Node {
+        private final boolean leaf;
+        private MoveList moves;
+        private Node[] children;
+        private int expanded;
+        private int visits;
+        private double reward;
+
+        Node(boolean leaf) {
+            this.leaf = leaf;
+        }
+
+        boolean isFullyExpanded() {
+            return children != null && expanded == children.length;
+        }
+
+        int selectChild() {
+            double logVisits = Math.log(visits);
+            int best = 0;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < children.length; i++) {
+                Node child = children[i];
+                double value = child.reward / child.visits + EXPLORATION * Math.sqrt(logVisits / child.visits);
+                if (value > bestValue) {
+                    best = i;
+                    bestValue = value;
+                }
+            }
+            return best;
+        }
+    }
+
+    /**
+     * Searches one tree on its own copy of the game.
+     */
+    private final class Worker {
+        private final MoveList scratch = new MoveList();
+        private final int[] path = new int[MAX_MOVES_PER_TURN + 1];
+        private SiedlerGame copy;
+        private SplittableRandom random;
+        private SiedlerGame.Snapshot snapshot;
+        private Node root;
+        private boolean initialPlacement;
+        private SiedlerGame keptFor;
+
+        void prepare(SiedlerGame game, MoveList moves, boolean initialPlacement, SiedlerGame.Snapshot snapshot,
+                     SplittableRandom random) {
+            if (copy == null || copy.getLayout() != game.getLayout()
+                    || copy.getNumberOfPlayers() != game.getNumberOfPlayers()
+                    || copy.getWinPoints() != game.getWinPoints()) {
+                copy = new SiedlerGame(game.getWinPoints(), game.getNumberOfPlayers(), game.getLayout(), false,
+                        random);
+            }
+            this.random = random;
+            this.snapshot = snapshot;
+            this.initialPlacement = initialPlacement;
+            boolean reuse = keptFor == game && root != null && root.moves != null && !initialPlacement
+                    && root.moves.hasSameMoves(moves);
+            if (!reuse) {
+                root = new Node(false);
+                root.moves = moves.copy();
+                root.children = new Node[initialPlacement ? moves.size() : moves.size() + 1];
+            }
+        }
+
+        void search(Faction player, long deadline, int budget) {
+            for (int i = 0; i < budget && !stopped && System.nanoTime() < deadline; i++) {
+                copy.restore(snapshot, random);
+                int depth = select();
+                double reward = playOut(player, walk(depth));
+                backPropagate(depth, reward);
+                playouts.increment();
+            }
+        }
+
+        /**
+         * Walks down the tree on the copy of the game, expands one child and returns the depth of the path.
+         */
+        private int select() {
+            Node node = root;
+            int depth = 0;
+            while (true) {
+                if (node.leaf) {
+                    return depth;
+                }
+                if (node.children == null) {
+                    node.moves = copy.generateMoves(scratch).copy();
+                    node.children = new Node[node.moves.size() + 1];
+                }
+                int child;
+                if (!node.isFullyExpanded()) {
+                    child = node.expanded++;
+                    node.children[child] = new Node(initialPlacement || child == node.moves.size()
+                            || depth + 1 >= MAX_MOVES_PER_TURN);
+                } else {
+                    child = node.selectChild();
+                }
+                path[depth++] = child;
+                boolean expandedNow = node.children[child].visits == 0;
+                playInTree(node, child);
+                node = node.children[child];
+                if (expandedNow) {
+                    return depth;
+                }
+            }
+        }
+
+        private Node walk(int depth) {
+            Node node = root;
+            for (int i = 0; i < depth; i++) {
+                node = node.children[path[i]];
+            }
+            return node;
+        }
+
+        private void playInTree(Node node, int child) {
+            if (initialPlacement) {
+                if (node.moves.getType(child) == MoveList.Type.SETTLEMENT) {
+                    copy.placeInitialSettlement(node.moves.getCorner(child),
+                            countRoads(copy) >= copy.getNumberOfPlayers());
+                } else {
+                    copy.placeInitialRoad(node.moves.getEdge(child));
+                }
+            } else if (child < node.moves.size()) {
+                copy.play(node.moves, child);
+            }
+        }
+
+        private void backPropagate(int depth, double reward) {
+            Node node = root;
+            node.visits++;
+            node.reward += reward;
+            for (int i = 0; i < depth; i++) {
+                node = node.children[path[i]];
+                node.visits++;
+                node.reward += reward;
+            }
+        }
+
+        /**
+         * Plays the copy of the game randomly from the state of the node and rates the result for the player.
+         */
+        private double playOut(Faction player, Node node) {
+            if (initialPlacement) {
+                completeInitialPlacement();
+            } else if (!node.leaf) {
+                playTurn();
+            }
+            if (!initialPlacement) {
+                copy.switchToNextPlayer();
+            }
+            for (int turn = 0; turn < playoutTurns && copy.getWinner() == null; turn++) {
+                copy.distributeResources(copy.throwDiceForPayout(NUMBER_OF_DICES));
+                playTurn();
+                copy.switchToNextPlayer();
+            }
+            Faction winner = copy.getWinner();
+            if (winner != null) {
+                return winner == player ? 1 : 0;
+            }
+            int points = copy.findByFaction(player).getPoints();
+            int bestOther = 0;
+            for (int i = 0; i < copy.getNumberOfPlayers(); i++) {
+                Faction faction = Faction.values()[i];
+                if (faction != player) {
+                    bestOther = Math.max(bestOther, copy.findByFaction(faction).getPoints());
+                }
+            }
+            double rating = 0.5 + (points - bestOther) / (2.0 * copy.getWinPoints());
+            return Math.max(0, Math.min(1, rating));
+        }
+
+        private void playTurn() {
+            for (int i = 0; i < MAX_MOVES_PER_TURN && copy.getWinner() == null; i++) {
+                int move = PLAYOUT_STRATEGY.chooseMove(copy, copy.generateMoves(scratch));
+                if (move == END_TURN || !copy.play(scratch, move)) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Places the remaining initial settlements and roads in the order of {@link GameLauncher}: every player in
+         * turn, then every player in reverse order with a payout. Afterwards the first player has the turn.
+         */
+        private void completeInitialPlacement() {
+            int players = copy.getNumberOfPlayers();
+            Faction current = copy.getCurrentPlayer();
+            int placed = countRoads(copy);
+            if (copy.findByFaction(current).getSettlements().size() > copy.findByFaction(current).getRoads().size()) {
+                placeRandomRoad(current);
+                placed++;
+            }
+            for (int position = placed; position < 2 * players; position++) {
+                switchTo(position < players ? position : 2 * players - 1 - position);
+                if (copy.generateInitialSettlements(scratch).size() == 0) {
+                    continue;
+                }
+                int settlement = scratch.getCorner(PLAYOUT_STRATEGY.chooseMove(copy, scratch));
+                copy.placeInitialSettlement(settlement, position >= players);
+                placeRandomRoad(copy.getCurrentPlayer());
+            }
+            switchTo(0);
+        }
+
+        /**
+         * Places a random road next to the settlement of the faction that has no road yet.
+         */
+        private void placeRandomRoad(Faction faction) {
+            for (Point settlement : copy.findByFaction(faction).getSettlements()) {
+                int corner = Coordinates.of(settlement);
+                if (!copy.getBoard().hasRoadAtCorner(corner, faction)) {
+                    copy.generateInitialRoads(corner, scratch);
+                    if (scratch.size() > 0) {
+                        copy.placeInitialRoad(scratch.getEdge(PLAYOUT_STRATEGY.chooseMove(copy, scratch)));
+                    }
+                    return;
+                }
+            }
+        }
+
+        private void switchTo(int player) {
+            while (copy.getCurrentPlayer().ordinal() != player) {
+                copy.switchToNextPlayer();
+            }
+        }
+
+        long getVisits(int child) {
+            Node node = root.children[child];
+            return node == null ? 0 : node.visits;
+        }
+
+        /**
+         * Keeps the part of the tree below the chosen move for the next decision of the same turn. A negative move
+         * drops the whole tree.
+         */
+        void keep(SiedlerGame game, int child) {
+            Node node = child < 0 ? null : root.children[child];
+            if (initialPlacement || node == null || node.leaf) {
+                root = null;
+                keptFor = null;
+            } else {
+                root = node;
+                keptFor = game;
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package ch.zhaw.catan;
+
+import ch.zhaw.catan.Config.Faction;
+import ch.zhaw.catan.Config.Resource;
+import ch.zhaw.catan.Config.Structure;
+import ch.zhaw.hexboard.Coordinates;
+
+import java.awt.Point;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * The class MoveGenerator enumerates the legal moves of the current player.
+ * <p>
+ * The corners of the board are collected once when the generator is created. A generation then only walks these
+ * corners and checks the occupancy of the board, after checking the resources and the stock of the player once per
+ * kind of structure. Roads are only looked for next to the corners the player is connected to. The generator does not
+ * keep any state of a game, so it can be shared by all games of the same layout.
+ *
+ * @version 12-05-2019
+ */
+class MoveGenerator {
+    private static final Resource[] RESOURCES = Resource.values();
+    private static final int RESOURCES_FOR_TRADE = 4;
+
+    private final int[] corners;
+
+    /**
+     * Collects the corners of the fields.
+     *
+     * @param fields The fields of the board
+     */
+    MoveGenerator(Collection<Point> fields) {
+        Set<Integer> cornerSet = new LinkedHashSet<>();
+        for (Point field : fields) {
+            for (Point corner : SiedlerBoard.getCornerCoordinatesOfField(field)) {
+                cornerSet.add(Coordinates.of(corner));
+            }
+        }
+        corners = cornerSet.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Writes all legal moves of the current player of the game to the list. Trades of a resource against the same
+     * resource are left out.
+     *
+     * @param game  The game
+     * @param moves The list, it is cleared first
+     */
+    void generate(SiedlerGame game, MoveList moves) {
+        moves.clear();
+        SiedlerBoard board = game.getBoard();
+        Faction faction = game.getCurrentPlayer();
+        if (game.playerHasEnoughResourcesForRoad() && game.playerHasEnoughStructure(Structure.ROAD)) {
+            for (int corner : corners) {
+                if (isConnected(board, corner, faction)) {
+                    generateRoads(board, corner, faction, moves);
+                }
+            }
+        }
+        if (game.playerHasEnoughResourcesForSettlement() && game.playerHasEnoughStructure(Structure.SETTLEMENT)) {
+            for (int corner : corners) {
+                if (board.getCornerOccupancy(corner) == Occupancy.EMPTY && !board.hasStructureNextToCorner(corner)
+                        && board.hasRoadAtCorner(corner, faction)) {
+                    moves.addSettlement(corner);
+                }
+            }
+        }
+        if (game.playerHasEnoughResourcesForCity() && game.playerHasEnoughStructure(Structure.CITY)) {
+            byte settlement = Occupancy.of(faction, Structure.SETTLEMENT);
+            for (int corner : corners) {
+                if (board.getCornerOccupancy(corner) == settlement) {
+                    moves.addCity(corner);
+                }
+            }
+        }
+        for (Resource offer : RESOURCES) {
+            if (game.getCurrentPlayerResourceStock(offer) >= RESOURCES_FOR_TRADE) {
+                for (Resource want : RESOURCES) {
+                    if (want != offer && game.bankHasEnoughResource(want)) {
+                        moves.addTrade(offer, want);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes all corners on which an initial settlement can be placed to the list.
+     *
+     * @param board The board of the game
+     * @param moves The list, it is cleared first
+     */
+    void generateInitialSettlements(SiedlerBoard board, MoveList moves) {
+        moves.clear();
+        for (int corner : corners) {
+            if (board.getCornerOccupancy(corner) == Occupancy.EMPTY && !board.hasStructureNextToCorner(corner)) {
+                moves.addSettlement(corner);
+            }
+        }
+    }
+
+    /**
+     * Writes all free edges that connect to a corner to the list.
+     *
+     * @param board  The board of the game
+     * @param corner The packed corner, usually the initial settlement that was just placed
+     * @param moves  The list, it is cleared first
+     */
+    void generateInitialRoads(SiedlerBoard board, int corner, MoveList moves) {
+        moves.clear();
+        for (int i = 0; i < 3; i++) {
+            long edge = Coordinates.edge(corner, SiedlerBoard.getAdjacentCorner(corner, i));
+            if (board.hasEdge(edge) && board.getEdgeOccupancy(edge) == Occupancy.EMPTY) {
+                moves.addRoad(edge);
+            }
+        }
+    }
+
+    /**
+     * Adds the free edges at a connected corner. An edge between two connected corners is only added from its start.
+     */
+    private static void generateRoads(SiedlerBoard board, int corner, Faction faction, MoveList moves) {
+        for (int i = 0; i < 3; i++) {
+            int neighbour = SiedlerBoard.getAdjacentCorner(corner, i);
+            long edge = Coordinates.edge(corner, neighbour);
+            if (board.hasEdge(edge) && board.getEdgeOccupancy(edge) == Occupancy.EMPTY
+                    && (Coordinates.edgeStart(edge) == corner || !isConnected(board, neighbour, faction))) {
+                moves.addRoad(edge);
+            }
+        }
+    }
+
+    private static boolean isConnected(SiedlerBoard board, int corner, Faction faction) {
+        return Occupancy.isOwnedBy(board.getCornerOccupancy(corner), faction) || board.hasRoadAtCorner(corner, faction);
+    }
+}
@@ -0,0 +1,182 @@
+package ch.zhaw.catan;
+
+import ch.zhaw.catan.Config.Faction;
+import ch.zhaw.catan.Config.Resource;
+
+import java.util.Arrays;
+
+/**
+ * The class MoveJournal records the changes a {@link SiedlerGame} made, so they can be undone and redone.
+ * <p>
+ * A move consists of one or more entries. Every entry is a type, a faction and a long value, stored in parallel
+ * arrays like the moves of a {@link MoveList}. The game knows how to apply and how to reverse every type of entry,
+ * so undoing a move only touches the entries of this move and never copies the state of the game.
+ * <p>
+ * Undone moves are kept until a new move is recorded, so they can be redone.
+ *
+ * @version 12-05-2019
+ */
+final class MoveJournal {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final Type[] TYPES = Type.values();
+    private static final Faction[] FACTIONS = Faction.values();
+    private static final Resource[] RESOURCES = Resource.values();
+
+    /**
+     * The types of entries.
+     */
+    enum Type {
+        /**
+         * A road built on the edge in the value.
+         */
+        ROAD,
+        /**
+         * A settlement built on the corner in the value.
+         */
+        SETTLEMENT,
+        /**
+         * A settlement on the corner in the value upgraded to a city.
+         */
+        CITY,
+        /**
+         * A change of the resources of a player, the opposite change is made at the bank (see
+         * {@link #resourceChange(Resource, int)}).
+         */
+        RESOURCES,
+        /**
+         * The lengths of the longest roads before the move (see {@link RoadNetwork#getLengths()}).
+         */
+        LONGEST_ROAD
+    }
+
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private byte[] factions = new byte[INITIAL_CAPACITY];
+    private long[] values = new long[INITIAL_CAPACITY];
+    private int size = 0;
+    private int end = 0;
+    private int[] moves = new int[INITIAL_CAPACITY];
+    private int moveCount = 0;
+    private int moveEnd = 0;
+    private boolean pending = false;
+
+    /**
+     * Starts a new move. The move is only recorded once an entry is added to it, so an operation that does not
+     * change anything does not leave an empty move and does not discard the moves that can be redone.
+     */
+    void beginMove() {
+        pending = true;
+    }
+
+    /**
+     * Adds an entry to the current move.
+     *
+     * @param type    The type of the entry
+     * @param faction The faction that made the change
+     * @param value   The value of the entry
+     * @return true if the entry is the first one of a new move
+     */
+    boolean add(Type type, Faction faction, long value) {
+        boolean first = pending;
+        if (pending) {
+            if (moveCount == moves.length) {
+                moves = Arrays.copyOf(moves, 2 * moveCount);
+            }
+            moves[moveCount++] = size;
+            pending = false;
+        }
+        if (size == types.length) {
+            types = Arrays.copyOf(types, 2 * size);
+            factions = Arrays.copyOf(factions, 2 * size);
+            values = Arrays.copyOf(values, 2 * size);
+        }
+        types[size] = (byte) type.ordinal();
+        factions[size] = (byte) faction.ordinal();
+        values[size] = value;
+        size++;
+        end = size;
+        moveEnd = moveCount;
+        return first;
+    }
+
+    boolean canUndo() {
+        return moveCount > 0;
+    }
+
+    boolean canRedo() {
+        return moveCount < moveEnd;
+    }
+
+    /**
+     * Marks the last move as undone.
+     *
+     * @return the index of the first entry of the move, its entries end at the size before the call
+     */
+    int undo() {
+        size = moves[--moveCount];
+        pending = false;
+        return size;
+    }
+
+    /**
+     * Marks the next undone move as done again.
+     *
+     * @return the index after the last entry of the move, its entries start at the size before the call
+     */
+    int redo() {
+        moveCount++;
+        size = moveCount < moveEnd ? moves[moveCount] : end;
+        pending = false;
+        return size;
+    }
+
+    /**
+     * Returns the number of entries of the moves that are done.
+     *
+     * @return the index after the last entry of the last move
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Forgets all moves.
+     */
+    void clear() {
+        size = 0;
+        end = 0;
+        moveCount = 0;
+        moveEnd = 0;
+        pending = false;
+    }
+
+    Type getType(int index) {
+        return TYPES[types[index]];
+    }
+
+    Faction getFaction(int index) {
+        return FACTIONS[factions[index]];
+    }
+
+    long getValue(int index) {
+        return values[index];
+    }
+
+    /**
+     * Packs a change of the resources of a player into the value of a {@link Type#RESOURCES} entry.
+     *
+     * @param resource The resource
+     * @param amount   The amount the player gets, negative if the player loses resources
+     * @return the value of the entry
+     */
+    static long resourceChange(Resource resource, int amount) {
+        return (long) resource.ordinal() << Integer.SIZE | (amount & 0xFFFFFFFFL);
+    }
+
+    static Resource getResource(long value) {
+        return RESOURCES[(int) (value >>> Integer.SIZE)];
+    }
+
+    static int getAmount(long value) {
+        return (int) value;
+    }
+}
@@ -0,0 +1,169 @@
+package ch.zhaw.catan;
+
+import ch.zhaw.catan.Config.Resource;
+import ch.zhaw.hexboard.Coordinates;
+
+import java.util.Arrays;
+
+/**
+ * The class MoveList is a reusable buffer for the moves generated by {@link SiedlerGame#generateMoves(MoveList)}.
+ * <p>
+ * Every move is stored as its type and a primitive value: the packed edge of a road, the packed corner of a
+ * settlement or city (see {@link Coordinates}) or the offered and wanted resource of a trade. The buffer only grows
+ * and is overwritten by the next generation, so it can be reused for every decision without creating objects.
+ *
+ * @version 12-05-2019
+ */
+public final class MoveList {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final Type[] TYPES = Type.values();
+    private static final Resource[] RESOURCES = Resource.values();
+
+    /**
+     * The kinds of moves that can be generated.
+     */
+    public enum Type {
+        ROAD, SETTLEMENT, CITY, TRADE
+    }
+
+    private byte[] types;
+    private long[] values;
+    private int size;
+
+    /**
+     * Creates an empty list.
+     */
+    public MoveList() {
+        types = new byte[INITIAL_CAPACITY];
+        values = new long[INITIAL_CAPACITY];
+    }
+
+    private MoveList(MoveList moves) {
+        types = Arrays.copyOf(moves.types, moves.size);
+        values = Arrays.copyOf(moves.values, moves.size);
+        size = moves.size;
+    }
+
+    /**
+     * Returns a copy of the moves that does not take more memory than needed, e.g. to keep the moves of a state.
+     *
+     * @return the copy
+     */
+    MoveList copy() {
+        return new MoveList(this);
+    }
+
+    /**
+     * Checks whether the list holds the same moves in the same order as another list.
+     *
+     * @param moves the other list
+     * @return true if both lists hold the same moves
+     */
+    boolean hasSameMoves(MoveList moves) {
+        return size == moves.size
+                && Arrays.equals(types, 0, size, moves.types, 0, size)
+                && Arrays.equals(values, 0, size, moves.values, 0, size);
+    }
+
+    /**
+     * Removes all moves. The capacity of the buffer is kept.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Type getType(int index) {
+        checkIndex(index);
+        return TYPES[types[index]];
+    }
+
+    /**
+     * Returns the packed edge of a road move.
+     *
+     * @param index the index of the move
+     * @return the packed edge
+     */
+    public long getEdge(int index) {
+        checkType(index, Type.ROAD);
+        return values[index];
+    }
+
+    /**
+     * Returns the packed corner of a settlement or city move.
+     *
+     * @param index the index of the move
+     * @return the packed corner
+     */
+    public int getCorner(int index) {
+        checkIndex(index);
+        if (types[index] != Type.SETTLEMENT.ordinal() && types[index] != Type.CITY.ordinal()) {
+            throw new IllegalStateException("Move " + index + " is a " + getType(index));
+        }
+        return (int) values[index];
+    }
+
+    /**
+     * Returns the resource offered by a trade move.
+     *
+     * @param index the index of the move
+     * @return the offered resource
+     */
+    public Resource getOffer(int index) {
+        checkType(index, Type.TRADE);
+        return RESOURCES[(int) (values[index] >> 8)];
+    }
+
+    /**
+     * Returns the resource wanted by a trade move.
+     *
+     * @param index the index of the move
+     * @return the wanted resource
+     */
+    public Resource getWant(int index) {
+        checkType(index, Type.TRADE);
+        return RESOURCES[(int) (values[index] & 0xFF)];
+    }
+
+    void addRoad(long edge) {
+        add(Type.ROAD, edge);
+    }
+
+    void addSettlement(int corner) {
+        add(Type.SETTLEMENT, corner);
+    }
+
+    void addCity(int corner) {
+        add(Type.CITY, corner);
+    }
+
+    void addTrade(Resource offer, Resource want) {
+        add(Type.TRADE, offer.ordinal() << 8 | want.ordinal());
+    }
+
+    private void add(Type type, long value) {
+        if (size == types.length) {
+            types = Arrays.copyOf(types, Math.max(INITIAL_CAPACITY, 2 * size));
+            values = Arrays.copyOf(values, Math.max(INITIAL_CAPACITY, 2 * size));
+        }
+        types[size] = (byte) type.ordinal();
+        values[size] = value;
+        size++;
+    }
+
+    private void checkType(int index, Type type) {
+        checkIndex(index);
+        if (types[index] != type.ordinal()) {
+            throw new IllegalStateException("Move " + index + " is a " + getType(index));
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+}
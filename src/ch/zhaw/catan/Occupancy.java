@@ -0,0 +1,66 @@
+package ch.zhaw.catan;
+
+import ch.zhaw.catan.Config.Faction;
+import ch.zhaw.catan.Config.Structure;
+
+/**
+ * The class Occupancy encodes which structure of which faction occupies a corner or an edge of the
+ * {@link SiedlerBoard} in a single byte.
+ * <p>
+ * The lower three bits hold the faction's ordinal plus one, the next two bits the structure's ordinal plus one.
+ * A value of {@link #EMPTY} means that nothing has been built.
+ */
+public final class Occupancy {
+    public static final byte EMPTY = 0;
+    private static final int OWNER_BITS = 3;
+    private static final int OWNER_MASK = (1 << OWNER_BITS) - 1;
+    private static final Faction[] FACTIONS = Faction.values();
+    private static final Structure[] STRUCTURES = Structure.values();
+
+    private Occupancy() {
+    }
+
+    /**
+     * Encodes a structure of a faction.
+     *
+     * @param owner     The faction that owns the structure
+     * @param structure The structure
+     * @return The encoded occupancy
+     */
+    public static byte of(Faction owner, Structure structure) {
+        return (byte) ((structure.ordinal() + 1) << OWNER_BITS | (owner.ordinal() + 1));
+    }
+
+    /**
+     * Checks if the occupancy belongs to the given faction.
+     *
+     * @param occupancy The encoded occupancy
+     * @param faction   The faction
+     * @return true if the faction owns the structure
+     */
+    public static boolean isOwnedBy(byte occupancy, Faction faction) {
+        return (occupancy & OWNER_MASK) == faction.ordinal() + 1;
+    }
+
+    /**
+     * Returns the owner of the occupancy.
+     *
+     * @param occupancy The encoded occupancy
+     * @return The faction that owns the structure or null if the occupancy is empty
+     */
+    public static Faction getOwner(byte occupancy) {
+        int owner = occupancy & OWNER_MASK;
+        return owner == 0 ? null : FACTIONS[owner - 1];
+    }
+
+    /**
+     * Returns the structure of the occupancy.
+     *
+     * @param occupancy The encoded occupancy
+     * @return The structure or null if the occupancy is empty
+     */
+    public static Structure getStructure(byte occupancy) {
+        int structure = occupancy >> OWNER_BITS;
+        return structure == 0 ? null : STRUCTURES[structure - 1];
+    }
+}
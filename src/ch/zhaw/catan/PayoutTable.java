@@ -0,0 +1,187 @@
+package ch.zhaw.catan;
+
+import ch.zhaw.catan.Config.Faction;
+import ch.zhaw.catan.Config.Land;
+import ch.zhaw.catan.Config.Resource;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The PayoutTable calculates which resources the players receive for a dice roll.
+ * <p>
+ * All fields with a dice number are numbered once. For each of these fields the table keeps the owner of its six
+ * corners and how many resources the owner receives (1 for a settlement, 2 for a city). The table has to be told
+ * about every settlement and city that is built. A payout is then written into a matrix that holds the amount per
+ * faction and resource, indexed by their ordinals. The matrix is reused for every dice roll, so a payout does not
+ * allocate any objects.
+ * <p>
+ * A snapshot of a table shares the owners of the corners with the table until the table changes them.
+ */
+class PayoutTable {
+    private static final int CORNERS_PER_FIELD = 6;
+    private static final int NO_OWNER = -1;
+    private static final int NO_RESOURCE = -1;
+    private static final int MAX_DICE_SUM = 12;
+
+    private final Point[] fields;
+    private final int[] resourceOfField;
+    private final int[][] fieldsByDiceNumber;
+    private int[] ownerOfCorner;
+    private int[] yieldOfCorner;
+    private boolean shared = false;
+    private final int[][] payout = new int[Faction.values().length][Resource.values().length];
+
+    /**
+     * Creates the table for a layout.
+     *
+     * @param landPlacement       The land of each field of the board
+     * @param diceNumberPlacement The dice number of each field that pays out resources
+     * @throws IllegalArgumentException if a dice number is not between 0 and 12
+     */
+    PayoutTable(Map<Point, Land> landPlacement, Map<Point, Integer> diceNumberPlacement) {
+        fields = new Point[diceNumberPlacement.size()];
+        resourceOfField = new int[fields.length];
+        List<List<Integer>> fieldIndices = new ArrayList<>();
+        for (int i = 0; i <= MAX_DICE_SUM; i++) {
+            fieldIndices.add(new ArrayList<>());
+        }
+
+        int index = 0;
+        for (Map.Entry<Point, Integer> entry : diceNumberPlacement.entrySet()) {
+            if (entry.getValue() < 0 || entry.getValue() > MAX_DICE_SUM) {
+                throw new IllegalArgumentException("Not a valid dice number: " + entry.getValue());
+            }
+            Land land = landPlacement.get(entry.getKey());
+            fields[index] = new Point(entry.getKey());
+            resourceOfField[index] = land == null || land.getResource() == null
+                    ? NO_RESOURCE : land.getResource().ordinal();
+            fieldIndices.get(entry.getValue()).add(index);
+            index++;
+        }
+
+        fieldsByDiceNumber = new int[MAX_DICE_SUM + 1][];
+        for (int i = 0; i <= MAX_DICE_SUM; i++) {
+            fieldsByDiceNumber[i] = fieldIndices.get(i).stream().mapToInt(Integer::intValue).toArray();
+        }
+        ownerOfCorner = new int[fields.length * CORNERS_PER_FIELD];
+        yieldOfCorner = new int[fields.length * CORNERS_PER_FIELD];
+        Arrays.fill(ownerOfCorner, NO_OWNER);
+    }
+
+    /**
+     * Creates an empty table for the same layout as the given table. The layout data is shared, only the owners of
+     * the corners are new.
+     *
+     * @param layout The table whose layout is used
+     */
+    PayoutTable(PayoutTable layout) {
+        fields = layout.fields;
+        resourceOfField = layout.resourceOfField;
+        fieldsByDiceNumber = layout.fieldsByDiceNumber;
+        ownerOfCorner = new int[fields.length * CORNERS_PER_FIELD];
+        yieldOfCorner = new int[fields.length * CORNERS_PER_FIELD];
+        Arrays.fill(ownerOfCorner, NO_OWNER);
+    }
+
+    private PayoutTable(PayoutTable table, int[] ownerOfCorner, int[] yieldOfCorner) {
+        fields = table.fields;
+        resourceOfField = table.resourceOfField;
+        fieldsByDiceNumber = table.fieldsByDiceNumber;
+        this.ownerOfCorner = ownerOfCorner;
+        this.yieldOfCorner = yieldOfCorner;
+        shared = true;
+    }
+
+    /**
+     * Returns a table with the same owners of the corners. Later changes to this table do not change the snapshot.
+     *
+     * @return the snapshot
+     */
+    PayoutTable snapshot() {
+        shared = true;
+        return new PayoutTable(this, ownerOfCorner, yieldOfCorner);
+    }
+
+    /**
+     * Sets the owners of the corners back to a snapshot of a table of the same layout.
+     *
+     * @param snapshot The snapshot taken with {@link #snapshot()}
+     */
+    void restore(PayoutTable snapshot) {
+        ownerOfCorner = snapshot.ownerOfCorner;
+        yieldOfCorner = snapshot.yieldOfCorner;
+        shared = true;
+    }
+
+    /**
+     * Registers a settlement or city on a corner. The corner is updated for every field with a dice number that
+     * touches it.
+     *
+     * @param corner  The corner on which the structure was built
+     * @param faction The owner of the structure
+     * @param amount  The amount of resources the structure receives per payout (1 for a settlement, 2 for a city)
+     */
+    void occupyCorner(Point corner, Faction faction, int amount) {
+        setCorner(corner, faction.ordinal(), amount);
+    }
+
+    /**
+     * Removes the settlement or city on a corner, e.g. to undo building it.
+     *
+     * @param corner The corner of the removed structure
+     */
+    void vacateCorner(Point corner) {
+        setCorner(corner, NO_OWNER, 0);
+    }
+
+    private void setCorner(Point corner, int owner, int amount) {
+        if (shared) {
+            ownerOfCorner = ownerOfCorner.clone();
+            yieldOfCorner = yieldOfCorner.clone();
+            shared = false;
+        }
+        for (int field = 0; field < fields.length; field++) {
+            List<Point> corners = SiedlerBoard.getCornerCoordinatesOfField(fields[field]);
+            for (int i = 0; i < CORNERS_PER_FIELD; i++) {
+                if (corners.get(i).equals(corner)) {
+                    ownerOfCorner[field * CORNERS_PER_FIELD + i] = owner;
+                    yieldOfCorner[field * CORNERS_PER_FIELD + i] = amount;
+                }
+            }
+        }
+    }
+
+    /**
+     * Calculates the payout for a dice sum.
+     * <p>
+     * The returned matrix is owned by this table and overwritten by the next call.
+     * </p>
+     *
+     * @param diceSum The thrown dice sum
+     * @return The amount of resources per faction and resource, indexed by their ordinals
+     */
+    int[][] getPayout(int diceSum) {
+        for (int[] row : payout) {
+            Arrays.fill(row, 0);
+        }
+        if (diceSum < 0 || diceSum > MAX_DICE_SUM) {
+            return payout;
+        }
+        for (int field : fieldsByDiceNumber[diceSum]) {
+            int resource = resourceOfField[field];
+            if (resource == NO_RESOURCE) {
+                continue;
+            }
+            for (int i = field * CORNERS_PER_FIELD; i < (field + 1) * CORNERS_PER_FIELD; i++) {
+                if (ownerOfCorner[i] != NO_OWNER) {
+                    payout[ownerOfCorner[i]][resource] += yieldOfCorner[i];
+                }
+            }
+        }
+        return payout;
+    }
+}
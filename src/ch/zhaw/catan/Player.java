@@ -6,10 +6,10 @@ import ch.zhaw.catan.Config.Structure;
 
 import java.awt.Point;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * This class is responsible for saving the stats of a player.
@@ -27,7 +27,9 @@ public class Player {
     private Map<Structure, Integer> structureStockPerPlayer; //this is the stock of properties per player as they are limited
     private int points;
     private boolean hasLongestRoad;
+    private boolean shared;
     private static final int AMOUNTRESOURCE = 5;
+    private static final Resource[] RESOURCES = Resource.values();
     private static final int NUMBER_OF_ROADS_PER_PLAYER = 15;
     private static final int NUMBER_OF_SETTLEMENTS_PER_PLAYER = 5;
     private static final int NUMBER_OF_CITIES_PER_PLAYER = 4;
@@ -37,16 +39,59 @@ public class Player {
         settlements = new ArrayList<>();
         cities = new ArrayList<>();
         this.faction = faction;
-        resources = new HashMap<>();
+        resources = new EnumMap<>(Resource.class);
         for (int i = 0; i < AMOUNTRESOURCE; i++) {
             resources.put(Resource.values()[i], 0);
         }
-        structureStockPerPlayer = new HashMap<>();
+        structureStockPerPlayer = new EnumMap<>(Structure.class);
         structureStockPerPlayer.put(Structure.ROAD,NUMBER_OF_ROADS_PER_PLAYER);
         structureStockPerPlayer.put(Structure.SETTLEMENT,NUMBER_OF_SETTLEMENTS_PER_PLAYER);
         structureStockPerPlayer.put(Structure.CITY,NUMBER_OF_CITIES_PER_PLAYER);
     }
 
+    private Player(Player player) {
+        faction = player.faction;
+        restore(player);
+    }
+
+    /**
+     * Returns a player with the same stats. The lists and maps are shared with this player until one of them is
+     * changed, then this player copies them first.
+     *
+     * @return the snapshot of the player
+     */
+    Player snapshot() {
+        shared = true;
+        return new Player(this);
+    }
+
+    /**
+     * Sets the stats of the player back to a snapshot.
+     *
+     * @param snapshot a snapshot taken with {@link #snapshot()}
+     */
+    void restore(Player snapshot) {
+        roads = snapshot.roads;
+        settlements = snapshot.settlements;
+        cities = snapshot.cities;
+        resources = snapshot.resources;
+        structureStockPerPlayer = snapshot.structureStockPerPlayer;
+        points = snapshot.points;
+        hasLongestRoad = snapshot.hasLongestRoad;
+        shared = true;
+    }
+
+    private void unshare() {
+        if (shared) {
+            roads = new ArrayList<>(roads);
+            settlements = new ArrayList<>(settlements);
+            cities = new ArrayList<>(cities);
+            resources = new EnumMap<>(resources);
+            structureStockPerPlayer = new EnumMap<>(structureStockPerPlayer);
+            shared = false;
+        }
+    }
+
     /**
      * The player can build a road. The method saveRoad needs a valid startPoint and a valid endPoint to
      * save the road to the List roadLocation
@@ -54,6 +99,7 @@ public class Player {
      * @param spot2 endPoint of the road
      */
     public void saveRoad(Point spot1, Point spot2) {
+        unshare();
         List<Point> roadLocation = new ArrayList<>();
         roadLocation.add(spot1);
         roadLocation.add(spot2);
@@ -61,12 +107,30 @@ public class Player {
         structureStockPerPlayer.put(Structure.ROAD, structureStockPerPlayer.get(Structure.ROAD) - 1);
     }
 
+    /**
+     * Deletes a road of the player, e.g. to undo building it, and puts it back to the stock.
+     * @param spot1 one end of the road
+     * @param spot2 the other end of the road
+     */
+    public void deleteRoadAndPutBackToStock(Point spot1, Point spot2) {
+        unshare();
+        for (int i = roads.size() - 1; i >= 0; i--) {
+            List<Point> road = roads.get(i);
+            if (road.contains(spot1) && road.contains(spot2)) {
+                roads.remove(i);
+                structureStockPerPlayer.put(Structure.ROAD, structureStockPerPlayer.get(Structure.ROAD) + 1);
+                return;
+            }
+        }
+    }
+
     /**
      * Save a settlement and give the player a point. When a settlement is saved, the structure Stock is decremented
      * by 1
      * @param spot a valid Point where to save the new settlement
      */
     public void saveSettlement(Point spot) {
+        unshare();
         settlements.add(spot);
         structureStockPerPlayer.put(Structure.SETTLEMENT, structureStockPerPlayer.get(Structure.SETTLEMENT) - 1);
         points += 1;
@@ -78,6 +142,7 @@ public class Player {
      * @param spot the Point where the settlement is
      */
     public void deleteSettlementAndPutBackToStock(Point spot) {
+        unshare();
         settlements.remove(spot);
         structureStockPerPlayer.put(Structure.SETTLEMENT, structureStockPerPlayer.get(Structure.SETTLEMENT) + 1);
         points -= 1;
@@ -89,34 +154,42 @@ public class Player {
      * @param spot a valid Point
      */
     public void saveCity(Point spot) {
+        unshare();
         settlements.remove(spot);
         cities.add(spot);
         structureStockPerPlayer.put(Structure.CITY, structureStockPerPlayer.get(Structure.CITY) - 1);
         points += 2;
     }
 
+    /**
+     * Delete a city and put it back to the stock, the player looses the 2 points of the city. Used to undo
+     * building a city.
+     * @param spot the Point where the city is
+     */
+    public void deleteCityAndPutBackToStock(Point spot) {
+        unshare();
+        cities.remove(spot);
+        structureStockPerPlayer.put(Structure.CITY, structureStockPerPlayer.get(Structure.CITY) + 1);
+        points -= 2;
+    }
 
     /**
-     * Check the enum and look for a random resource
+     * Picks a random resource card of the player. Every card has the same chance, so a resource is chosen with a
+     * probability proportional to the amount the player has of it. The player must have at least one card.
      *
+     * @param random the random generator to choose with
      * @return a random resource from the Resource Enum
      */
-    public Resource getRandomResource() {
-        Random random = new Random();
-
-        // filter all resources which are zero
-        List<Resource> greaterZero = new ArrayList<>();
-        for (Map.Entry<Resource, Integer> entry : resources.entrySet()) {
-            if( entry.getValue() > 0) {
-                greaterZero.add(entry.getKey());
+    public Resource getRandomResource(SplittableRandom random) {
+        // pick a random card and find the resource it belongs to
+        int card = random.nextInt(getTotalResourcesAmount());
+        for (Resource resource : RESOURCES) {
+            card -= resources.get(resource);
+            if (card < 0) {
+                return resource;
             }
         }
-
-        // pick random resource which is greater than zero
-        int position = random.nextInt(greaterZero.size());
-
-        // return resource
-        return greaterZero.get(position);
+        throw new IllegalStateException("Internal error found - resource amounts changed.");
     }
 
     /**
@@ -169,6 +242,7 @@ public class Player {
      * @param newAmount The newAmount which has to be set
      */
     public void setResourceAmount(Resource resource, int newAmount) {
+        unshare();
         resources.replace(resource, newAmount);
     }
 
@@ -198,6 +272,7 @@ public class Player {
     }
 
     public void setStructureAmount(Structure structure) {
+        unshare();
         structureStockPerPlayer.replace(structure,structureStockPerPlayer.get(structure)-1);
     }
 }
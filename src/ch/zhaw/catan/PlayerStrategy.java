@@ -0,0 +1,29 @@
+package ch.zhaw.catan;
+
+/**
+ * A PlayerStrategy decides which moves a player makes when a game is played without a user, e.g. by a
+ * {@link Simulation}.
+ * <p>
+ * The strategy is always asked to choose one of the moves in a {@link MoveList}. During the initial placement the
+ * list holds the corners for a settlement and then the edges for the road next to it, and a move has to be chosen.
+ * During a normal turn the list holds the moves generated by {@link SiedlerGame#generateMoves(MoveList)} and the
+ * strategy ends the turn by returning {@link #END_TURN}.
+ * <p>
+ * A simulation can play several games at the same time with the same strategies. A strategy should therefore not
+ * keep any state of a game, and take its random decisions with {@link SiedlerGame#getRandom()}. A strategy that
+ * keeps state between decisions, like the {@link MctsStrategy}, has to make sure that the games wait for each other.
+ *
+ * @version 12-05-2019
+ */
+public interface PlayerStrategy {
+    int END_TURN = -1;
+
+    /**
+     * Chooses a move for the current player of the game. The game and the list must not be changed.
+     *
+     * @param game  The game
+     * @param moves The possible moves, never empty during the initial placement
+     * @return the index of the chosen move or {@link #END_TURN}
+     */
+    int chooseMove(SiedlerGame game, MoveList moves);
+}
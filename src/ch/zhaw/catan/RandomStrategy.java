@@ -0,0 +1,42 @@
+package ch.zhaw.catan;
+
+/**
+ * The RandomStrategy plays a random move, but always prefers building to trading: it chooses a random city if it
+ * can build one, otherwise a random settlement, then a random road and only then a random trade. It ends the turn
+ * when there is nothing left to do.
+ * <p>
+ * The strategy takes its random decisions with the random generator of the game, so it does not keep any state and
+ * can be shared by games running in parallel.
+ *
+ * @version 12-05-2019
+ */
+public class RandomStrategy implements PlayerStrategy {
+    private static final MoveList.Type[] PREFERENCE = {
+            MoveList.Type.CITY, MoveList.Type.SETTLEMENT, MoveList.Type.ROAD, MoveList.Type.TRADE
+    };
+
+    @Override
+    public int chooseMove(SiedlerGame game, MoveList moves) {
+        for (MoveList.Type type : PREFERENCE) {
+            int count = 0;
+            for (int i = 0; i < moves.size(); i++) {
+                if (moves.getType(i) == type) {
+                    count++;
+                }
+            }
+            if (count > 0) {
+                return nthOfType(moves, type, game.getRandom().nextInt(count));
+            }
+        }
+        return END_TURN;
+    }
+
+    private static int nthOfType(MoveList moves, MoveList.Type type, int n) {
+        for (int i = 0; i < moves.size(); i++) {
+            if (moves.getType(i) == type && n-- == 0) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("No move of type " + type);
+    }
+}
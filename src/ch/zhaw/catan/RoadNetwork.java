@@ -0,0 +1,322 @@
+package ch.zhaw.catan;
+
+import ch.zhaw.catan.Config.Faction;
+import ch.zhaw.hexboard.Coordinates;
+
+import java.util.Arrays;
+
+/**
+ * The class RoadNetwork keeps track of the roads of every faction and of the longest trade route.
+ * <p>
+ * The longest road of a faction is the longest trail through its road graph, i.e. a path that uses every road at
+ * most once but may visit a corner several times. A trail can end at a corner with a settlement or city of another
+ * faction, but it cannot pass through it.
+ * <p>
+ * When a road is built only the connected part of the faction's network that contains the new road is searched,
+ * since adding a road never makes any other trail shorter. A settlement breaks the trails of the other factions
+ * running through its corner, so their networks are searched again. The length of each faction's longest road and
+ * the current holder are kept up to date and can be queried without any search.
+ * <p>
+ * A snapshot of a network shares the roads and lengths with the network until the network changes them.
+ *
+ * @version 12-05-2019
+ */
+class RoadNetwork {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final SiedlerBoard board;
+    private final int minLength;
+    private long[][] roads;
+    private int[] roadCount;
+    private int[] longestRoad;
+    private boolean shared = false;
+    private boolean[] used = new boolean[INITIAL_CAPACITY];
+    private boolean[] inComponent = new boolean[INITIAL_CAPACITY];
+    private int[] stack = new int[2 * INITIAL_CAPACITY];
+    private Faction holder;
+
+    /**
+     * Creates an empty network.
+     *
+     * @param board     The board whose occupancy decides which corners break a trail
+     * @param minLength The minimal length of a road to become the longest road
+     */
+    RoadNetwork(SiedlerBoard board, int minLength) {
+        this.board = board;
+        this.minLength = minLength;
+        int factions = Faction.values().length;
+        roads = new long[factions][INITIAL_CAPACITY];
+        roadCount = new int[factions];
+        longestRoad = new int[factions];
+    }
+
+    private RoadNetwork(RoadNetwork network) {
+        board = network.board;
+        minLength = network.minLength;
+        roads = network.roads;
+        roadCount = network.roadCount;
+        longestRoad = network.longestRoad;
+        used = network.used;
+        inComponent = network.inComponent;
+        stack = network.stack;
+        holder = network.holder;
+        shared = true;
+    }
+
+    /**
+     * Returns a network with the same roads and longest roads. Later changes to this network do not change the
+     * snapshot.
+     *
+     * @return the snapshot
+     */
+    RoadNetwork snapshot() {
+        shared = true;
+        return new RoadNetwork(this);
+    }
+
+    /**
+     * Sets the roads, the longest roads and the holder back to a snapshot.
+     *
+     * @param snapshot The snapshot taken with {@link #snapshot()}
+     */
+    void restore(RoadNetwork snapshot) {
+        roads = snapshot.roads;
+        roadCount = snapshot.roadCount;
+        longestRoad = snapshot.longestRoad;
+        holder = snapshot.holder;
+        shared = true;
+        for (int count : roadCount) {
+            ensureCapacity(count);
+        }
+    }
+
+    /**
+     * Adds a road and searches the part of the faction's network that is connected to it.
+     *
+     * @param edge    The packed edge of the road (see {@link Coordinates})
+     * @param faction The owner of the road
+     */
+    void addRoad(long edge, Faction faction) {
+        unshare();
+        int owner = faction.ordinal();
+        if (roadCount[owner] == roads[owner].length) {
+            roads[owner] = Arrays.copyOf(roads[owner], 2 * roadCount[owner]);
+        }
+        int newRoad = roadCount[owner]++;
+        roads[owner][newRoad] = edge;
+        ensureCapacity(roadCount[owner]);
+
+        markComponent(owner, newRoad);
+        int longest = 0;
+        for (int road = 0; road < roadCount[owner]; road++) {
+            if (inComponent[road]) {
+                longest = Math.max(longest, longestTrailFrom(owner, Coordinates.edgeStart(roads[owner][road])));
+                longest = Math.max(longest, longestTrailFrom(owner, Coordinates.edgeEnd(roads[owner][road])));
+            }
+        }
+        longestRoad[owner] = Math.max(longestRoad[owner], longest);
+        updateHolder();
+    }
+
+    /**
+     * Registers a settlement. The networks of the other factions that run through the corner are searched again.
+     *
+     * @param corner  The packed corner of the settlement (see {@link Coordinates})
+     * @param faction The owner of the settlement
+     */
+    void addSettlement(int corner, Faction faction) {
+        unshare();
+        for (int other = 0; other < roadCount.length; other++) {
+            if (other != faction.ordinal() && countRoadsAt(other, corner) > 1) {
+                longestRoad[other] = longestTrail(other);
+            }
+        }
+        updateHolder();
+    }
+
+    /**
+     * Removes a road, e.g. to undo building it. The lengths of the longest roads are not searched again, they have
+     * to be set back with {@link #setLengths(long)}.
+     *
+     * @param edge    The packed edge of the road (see {@link Coordinates})
+     * @param faction The owner of the road
+     */
+    void removeRoad(long edge, Faction faction) {
+        unshare();
+        int owner = faction.ordinal();
+        for (int road = roadCount[owner] - 1; road >= 0; road--) {
+            if (roads[owner][road] == edge) {
+                roads[owner][road] = roads[owner][--roadCount[owner]];
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the lengths of the longest roads of all factions and the holder, packed into a long with one byte per
+     * faction and the ordinal of the holder plus one in the byte after them.
+     *
+     * @return the packed lengths
+     */
+    long getLengths() {
+        long lengths = holder == null ? 0 : holder.ordinal() + 1;
+        for (int owner = longestRoad.length - 1; owner >= 0; owner--) {
+            lengths = lengths << Byte.SIZE | longestRoad[owner];
+        }
+        return lengths;
+    }
+
+    /**
+     * Sets the lengths of the longest roads and the holder back to values returned by {@link #getLengths()}.
+     *
+     * @param lengths The packed lengths
+     */
+    void setLengths(long lengths) {
+        unshare();
+        for (int owner = 0; owner < longestRoad.length; owner++) {
+            longestRoad[owner] = (int) (lengths & 0xFF);
+            lengths >>>= Byte.SIZE;
+        }
+        holder = lengths == 0 ? null : Faction.values()[(int) lengths - 1];
+    }
+
+    /**
+     * Returns the faction holding the longest road.
+     *
+     * @return the holder or null if no road is long enough
+     */
+    Faction getHolder() {
+        return holder;
+    }
+
+    /**
+     * Returns the length of the longest road of a faction.
+     *
+     * @param faction The faction
+     * @return the number of roads of its longest trail
+     */
+    int getLongestRoad(Faction faction) {
+        return longestRoad[faction.ordinal()];
+    }
+
+    /**
+     * The holder keeps the longest road on a tie. If it loses the longest road, the faction with the strictly
+     * longest road takes it over; if there is none, nobody holds it.
+     */
+    private void updateHolder() {
+        int bestLength = 0;
+        Faction best = null;
+        boolean tie = false;
+        for (Faction faction : Faction.values()) {
+            int length = longestRoad[faction.ordinal()];
+            if (length > bestLength) {
+                bestLength = length;
+                best = faction;
+                tie = false;
+            } else if (length == bestLength && length > 0) {
+                tie = true;
+            }
+        }
+        if (holder != null && longestRoad[holder.ordinal()] >= Math.max(bestLength, minLength)) {
+            return;
+        }
+        holder = bestLength >= minLength && !tie ? best : null;
+    }
+
+    private int longestTrail(int owner) {
+        int longest = 0;
+        for (int road = 0; road < roadCount[owner]; road++) {
+            longest = Math.max(longest, longestTrailFrom(owner, Coordinates.edgeStart(roads[owner][road])));
+            longest = Math.max(longest, longestTrailFrom(owner, Coordinates.edgeEnd(roads[owner][road])));
+        }
+        return longest;
+    }
+
+    /**
+     * Depth first search over the unused roads of a faction. The depth is bounded by the number of its roads.
+     */
+    private int longestTrailFrom(int owner, int corner) {
+        int longest = 0;
+        long[] own = roads[owner];
+        for (int road = 0; road < roadCount[owner]; road++) {
+            if (!used[road]) {
+                int next = otherEnd(own[road], corner);
+                if (next != corner) {
+                    used[road] = true;
+                    int length = 1 + (isBlocked(owner, next) ? 0 : longestTrailFrom(owner, next));
+                    used[road] = false;
+                    longest = Math.max(longest, length);
+                }
+            }
+        }
+        return longest;
+    }
+
+    /**
+     * Marks all roads that are connected to the given road.
+     */
+    private void markComponent(int owner, int road) {
+        Arrays.fill(inComponent, false);
+        inComponent[road] = true;
+        int top = 0;
+        stack[top++] = Coordinates.edgeStart(roads[owner][road]);
+        stack[top++] = Coordinates.edgeEnd(roads[owner][road]);
+        while (top > 0) {
+            int corner = stack[--top];
+            for (int other = 0; other < roadCount[owner]; other++) {
+                int next = otherEnd(roads[owner][other], corner);
+                if (!inComponent[other] && next != corner) {
+                    inComponent[other] = true;
+                    stack[top++] = next;
+                }
+            }
+        }
+    }
+
+    private int countRoadsAt(int owner, int corner) {
+        int count = 0;
+        for (int road = 0; road < roadCount[owner]; road++) {
+            if (otherEnd(roads[owner][road], corner) != corner) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private boolean isBlocked(int owner, int corner) {
+        byte occupancy = board.getCornerOccupancy(corner);
+        return occupancy != Occupancy.EMPTY && Occupancy.getOwner(occupancy).ordinal() != owner;
+    }
+
+    /**
+     * Returns the other end of a road, or the corner itself if the road does not touch it.
+     */
+    private static int otherEnd(long edge, int corner) {
+        int start = Coordinates.edgeStart(edge);
+        int end = Coordinates.edgeEnd(edge);
+        if (start == corner) {
+            return end;
+        }
+        return end == corner ? start : corner;
+    }
+
+    private void unshare() {
+        if (shared) {
+            roads = roads.clone();
+            for (int i = 0; i < roads.length; i++) {
+                roads[i] = roads[i].clone();
+            }
+            roadCount = roadCount.clone();
+            longestRoad = longestRoad.clone();
+            shared = false;
+        }
+    }
+
+    private void ensureCapacity(int count) {
+        if (count > used.length) {
+            used = new boolean[2 * count];
+            inComponent = new boolean[2 * count];
+            stack = new int[4 * count];
+        }
+    }
+}
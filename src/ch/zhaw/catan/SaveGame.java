@@ -0,0 +1,240 @@
+package ch.zhaw.catan;
+
+import ch.zhaw.catan.Config.Land;
+
+import java.awt.Point;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * The class SaveGame writes games to channels and files in a compact binary format and reads them back.
+ * <p>
+ * A saved game starts with a header of eight bytes: the magic number {@value #MAGIC_TEXT}, the version of the format
+ * and the length of the rest. The rest holds the number of players, the points needed for winning, the land of
+ * every field, the dice number of every field that has one and the state written by the game (see
+ * {@link SiedlerGame#writeState(ByteBuffer, long)}). All numbers are stored in as few bytes as they need,
+ * coordinates in one byte each, so a game with four players on the standard board takes about 300 to 500 bytes.
+ * <p>
+ * Several games can be written to the same channel one after the other and read back in the same order, e.g. to
+ * archive the games of a {@link Simulation}. Games on the standard board are read back with
+ * {@link GameLayout#standard()}, so they share its layout.
+ *
+ * @version 12-05-2019
+ */
+public final class SaveGame {
+    static final int VERSION = 1;
+    private static final String MAGIC_TEXT = "CATN";
+    private static final int MAGIC = 'C' << 24 | 'A' << 16 | 'T' << 8 | 'N';
+    private static final int HEADER_SIZE = Integer.BYTES + 2 * Short.BYTES;
+    private static final int MAX_SIZE = 4096;
+    private static final Land[] LANDS = Land.values();
+
+    private SaveGame() {
+    }
+
+    /**
+     * Saves a game to a file, the file is replaced if it exists. Saving reseeds the random generator of the game,
+     * so the game that is loaded again throws the same dice.
+     *
+     * @param game The game
+     * @param path The file
+     * @throws IOException if the file cannot be written
+     */
+    public static void save(SiedlerGame game, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(game, channel);
+        }
+    }
+
+    /**
+     * Loads a game from a file.
+     *
+     * @param path     The file
+     * @param withView true if a view of the board should be created
+     * @return the game
+     * @throws IOException if the file cannot be read or does not hold a saved game
+     */
+    public static SiedlerGame load(Path path, boolean withView) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            SiedlerGame game = read(channel, withView);
+            if (game == null) {
+                throw new EOFException("The file is empty: " + path);
+            }
+            return game;
+        }
+    }
+
+    /**
+     * Writes a game to a channel. Like {@link #save(SiedlerGame, Path)}, writing reseeds the random generator of the
+     * game.
+     *
+     * @param game    The game
+     * @param channel The channel
+     * @throws IOException if the channel cannot be written
+     */
+    public static void write(SiedlerGame game, WritableByteChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(MAX_SIZE);
+        encode(game, buffer);
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Reads the next game from a channel.
+     *
+     * @param channel  The channel
+     * @param withView true if a view of the board should be created
+     * @return the game or null if the channel has reached its end
+     * @throws IOException if the channel cannot be read or does not hold a saved game
+     */
+    public static SiedlerGame read(ReadableByteChannel channel, boolean withView) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        if (!readFully(channel, header, true)) {
+            return null;
+        }
+        header.flip();
+        int length = checkHeader(header);
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + length);
+        buffer.put(header.rewind());
+        readFully(channel, buffer, false);
+        buffer.flip();
+        return decode(buffer, withView);
+    }
+
+    /**
+     * Writes a game to a buffer.
+     *
+     * @param game   The game
+     * @param buffer The buffer, it needs up to {@value #MAX_SIZE} bytes
+     */
+    static void encode(SiedlerGame game, ByteBuffer buffer) {
+        encode(game, buffer, true);
+    }
+
+    /**
+     * Writes a game to a buffer.
+     *
+     * @param game   The game
+     * @param buffer The buffer, it needs up to {@value #MAX_SIZE} bytes
+     * @param reseed true if the game should be reseeded so it can be read back with the same random generator,
+     *               false if the random generator should be left alone and a game read back gets another one
+     */
+    static void encode(SiedlerGame game, ByteBuffer buffer, boolean reseed) {
+        int start = buffer.position();
+        buffer.putInt(MAGIC);
+        buffer.putShort((short) VERSION);
+        buffer.putShort((short) 0);
+        buffer.put((byte) game.getNumberOfPlayers());
+        buffer.put((byte) game.getWinPoints());
+        GameLayout layout = game.getLayout();
+        buffer.put((byte) layout.getLandPlacement().size());
+        for (Map.Entry<Point, Land> entry : layout.getLandPlacement().entrySet()) {
+            buffer.put((byte) entry.getKey().x);
+            buffer.put((byte) entry.getKey().y);
+            buffer.put((byte) entry.getValue().ordinal());
+        }
+        buffer.put((byte) layout.getDiceNumberPlacement().size());
+        for (Map.Entry<Point, Integer> entry : layout.getDiceNumberPlacement().entrySet()) {
+            buffer.put((byte) entry.getKey().x);
+            buffer.put((byte) entry.getKey().y);
+            buffer.put(entry.getValue().byteValue());
+        }
+        game.writeState(buffer, reseed ? game.reseed() : 0);
+        buffer.putShort(start + Integer.BYTES + Short.BYTES, (short) (buffer.position() - start - HEADER_SIZE));
+    }
+
+    /**
+     * Reads a game from a buffer.
+     *
+     * @param buffer   The buffer, positioned at the header of the game
+     * @param withView true if a view of the board should be created
+     * @return the game
+     * @throws IOException if the buffer does not hold a saved game
+     */
+    static SiedlerGame decode(ByteBuffer buffer, boolean withView) throws IOException {
+        int length = checkHeader(buffer);
+        if (buffer.remaining() < length) {
+            throw new EOFException("The saved game is incomplete.");
+        }
+        try {
+            int players = buffer.get();
+            int winPoints = buffer.get();
+            if (players < Config.MIN_NUMBER_OF_PLAYERS || players > Config.Faction.values().length) {
+                throw new IllegalArgumentException("Not a valid number of players: " + players);
+            }
+            Map<Point, Land> landPlacement = new LinkedHashMap<>();
+            for (int i = buffer.get() & 0xFF; i > 0; i--) {
+                landPlacement.put(readPoint(buffer), LANDS[buffer.get()]);
+            }
+            Map<Point, Integer> diceNumberPlacement = new LinkedHashMap<>();
+            for (int i = buffer.get() & 0xFF; i > 0; i--) {
+                diceNumberPlacement.put(readPoint(buffer), (int) buffer.get());
+            }
+            GameLayout layout = toLayout(landPlacement, diceNumberPlacement);
+            SiedlerGame game = new SiedlerGame(winPoints, players, layout, withView);
+            game.readState(buffer);
+            return game;
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | BufferUnderflowException
+                | NoSuchElementException e) {
+            throw new IOException("Not a valid saved game: " + e.getMessage(), e);
+        }
+    }
+
+    private static GameLayout toLayout(Map<Point, Land> landPlacement, Map<Point, Integer> diceNumberPlacement) {
+        GameLayout standard = GameLayout.standard();
+        if (standard.getLandPlacement().equals(landPlacement)
+                && standard.getDiceNumberPlacement().equals(diceNumberPlacement)) {
+            return standard;
+        }
+        return new GameLayout(landPlacement, diceNumberPlacement);
+    }
+
+    private static Point readPoint(ByteBuffer buffer) {
+        int x = buffer.get() & 0xFF;
+        int y = buffer.get() & 0xFF;
+        return new Point(x, y);
+    }
+
+    private static int checkHeader(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a saved game.");
+        }
+        int version = buffer.getShort();
+        if (version != VERSION) {
+            throw new IOException("Unknown version of the saved game: " + version);
+        }
+        return buffer.getShort() & 0xFFFF;
+    }
+
+    /**
+     * Reads from a channel until the buffer is full.
+     *
+     * @return false if the channel was at its end before anything was read and this is allowed
+     */
+    private static boolean readFully(ReadableByteChannel channel, ByteBuffer buffer, boolean endAllowed)
+            throws IOException {
+        boolean empty = buffer.position() == 0;
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                if (endAllowed && empty && buffer.position() == 0) {
+                    return false;
+                }
+                throw new EOFException("The saved game is incomplete.");
+            }
+        }
+        return true;
+    }
+}
@@ -1,6 +1,9 @@
 package ch.zhaw.catan;
 
+import ch.zhaw.catan.Config.Faction;
 import ch.zhaw.catan.Config.Land;
+import ch.zhaw.catan.Config.Structure;
+import ch.zhaw.hexboard.Coordinates;
 import ch.zhaw.hexboard.HexBoard;
 
 import java.util.List;
@@ -9,7 +12,11 @@ import java.awt.Point;
 
 /**
  * The class SiedlerBoard extends the HexBoard class and
- *
+ * <p>
+ * Besides the String data shown by the view, the board keeps the occupancy of every corner and edge as a byte
+ * (see {@link Occupancy}). The occupancy is stored as the tag of the corner or edge in the storage of the board
+ * (see {@link HexBoard#getCornerTag(int)}), so the game rules can be checked without creating any objects, and a
+ * snapshot of the board holds the occupancy without any further copy.
  *
  * @version 12-05-2019
  */
@@ -17,10 +24,22 @@ public class SiedlerBoard extends HexBoard<Land, String, String, String> {
 
     public static final String NO_SUCH_EDGE = "no_edge";
 
+    /**
+     * Creates an empty board. The board data is kept in the array based storage
+     * since the size of the board is fixed once the layout has been set up.
+     */
+    public SiedlerBoard() {
+        super(StorageType.ARRAY);
+    }
+
     public static List<Point> getAdjacentCorners(Point position) {
         return HexBoard.getAdjacentCorners(position);
     }
 
+    public static List<Point> getCornerCoordinatesOfField(Point position) {
+        return HexBoard.getCornerCoordinatesOfField(position);
+    }
+
     /**
      * This method tries to retrieve the edge between point p1 and p2.
      * -    If there is an edge, its data will be returned (which can be null).
@@ -40,34 +59,231 @@ public class SiedlerBoard extends HexBoard<Land, String, String, String> {
         return NO_SUCH_EDGE;
     }
 
+    /**
+     * Works like {@link #getEdge(Point, Point)} for a packed edge (see {@link Coordinates}).
+     *
+     * @param edge the packed edge
+     * @return String Data of the edge, if there is an edge. Constant NO_SUCH_EDGE otherwise
+     */
+    @Override
+    public String getEdge(long edge) {
+        if (super.hasEdge(edge)) {
+            return super.getEdge(edge);
+        }
+
+        return NO_SUCH_EDGE;
+    }
+
     /**
      * Put a road to the hex board and set the edges
      * @param roadStart start of the road
      * @param roadEnd   end of the road
-     * @param data      the String which has to be given and set to the hex board
+     * @param faction   the faction that owns the road
      */
-    public void putRoad(Point roadStart, Point roadEnd, String data){
-        setEdge(roadStart, roadEnd, data);
+    public void putRoad(Point roadStart, Point roadEnd, Faction faction){
+        putRoad(Coordinates.edge(roadStart, roadEnd), faction);
+    }
+
+    /**
+     * Put a road to the hex board
+     * @param edge      the packed edge (see {@link Coordinates})
+     * @param faction   the faction that owns the road
+     */
+    public void putRoad(long edge, Faction faction) {
+        setEdge(edge, faction.toString().substring(1));
+        setEdgeTag(edge, Occupancy.of(faction, Structure.ROAD));
     }
 
     /**
      * Put a settlement to the hex board
      * @param position  the position where the settlement has to be put
-     * @param data      the String which has to be given and set to the hex board
+     * @param faction   the faction that owns the settlement
+     */
+    public void putSettlement(Point position, Faction faction){
+        putSettlement(Coordinates.of(position), faction);
+    }
+
+    /**
+     * Put a settlement to the hex board
+     * @param position  the packed position where the settlement has to be put (see {@link Coordinates})
+     * @param faction   the faction that owns the settlement
      */
-    public void putSettlement(Point position, String data){
-        setCorner(position, data);
+    public void putSettlement(int position, Faction faction) {
+        setCorner(position, faction.toString());
+        setCornerTag(position, Occupancy.of(faction, Structure.SETTLEMENT));
     }
 
     /**
      * Put a city to the hex board
      * @param position  the position where the settlement has to be put
-     * @param data      the String which has to be given and set to the hex board
+     * @param faction   the faction that owns the city
      */
-    public void putCity(Point position, String data) {
-        setCorner(position, data);
+    public void putCity(Point position, Faction faction) {
+        putCity(Coordinates.of(position), faction);
     }
 
+    /**
+     * Put a city to the hex board
+     * @param position  the packed position where the city has to be put (see {@link Coordinates})
+     * @param faction   the faction that owns the city
+     */
+    public void putCity(int position, Faction faction) {
+        setCorner(position, faction.toString().toUpperCase());
+        setCornerTag(position, Occupancy.of(faction, Structure.CITY));
+    }
 
-}
+    /**
+     * Removes the road on an edge, e.g. to undo building it.
+     * @param edge      the packed edge (see {@link Coordinates})
+     */
+    public void removeRoad(long edge) {
+        setEdge(edge, null);
+        setEdgeTag(edge, Occupancy.EMPTY);
+    }
 
+    /**
+     * Removes the settlement or city on a corner, e.g. to undo building it.
+     * @param position  the packed position of the settlement or city (see {@link Coordinates})
+     */
+    public void removeStructure(int position) {
+        setCorner(position, null);
+        setCornerTag(position, Occupancy.EMPTY);
+    }
+
+    /**
+     * Returns the occupancy of a corner.
+     *
+     * @param position the corner
+     * @return the occupancy or {@link Occupancy#EMPTY} if nothing is built or there is no such corner
+     */
+    public byte getCornerOccupancy(Point position) {
+        return getCornerOccupancy(Coordinates.of(position));
+    }
+
+    /**
+     * Returns the occupancy of a corner.
+     *
+     * @param position the packed corner (see {@link Coordinates})
+     * @return the occupancy or {@link Occupancy#EMPTY} if nothing is built or there is no such corner
+     */
+    public byte getCornerOccupancy(int position) {
+        return getCornerTag(position);
+    }
+
+    /**
+     * Returns the occupancy of an edge.
+     *
+     * @param p1 first point of the edge
+     * @param p2 second point of the edge
+     * @return the occupancy or {@link Occupancy#EMPTY} if nothing is built or there is no such edge
+     */
+    public byte getEdgeOccupancy(Point p1, Point p2) {
+        return getEdgeOccupancy(Coordinates.edge(p1, p2));
+    }
+
+    /**
+     * Returns the occupancy of an edge.
+     *
+     * @param edge the packed edge (see {@link Coordinates})
+     * @return the occupancy or {@link Occupancy#EMPTY} if nothing is built or there is no such edge
+     */
+    public byte getEdgeOccupancy(long edge) {
+        return getEdgeTag(edge);
+    }
+
+    /**
+     * Checks whether one of the edges that connect to the corner holds a road of the faction.
+     *
+     * @param corner  the corner
+     * @param faction the faction
+     * @return true if the faction owns a road that starts or ends at the corner
+     */
+    public boolean hasRoadAtCorner(Point corner, Faction faction) {
+        return hasRoadAtCorner(Coordinates.of(corner), faction);
+    }
+
+    /**
+     * Checks whether one of the edges that connect to the corner holds a road of the faction.
+     *
+     * @param corner  the packed corner (see {@link Coordinates})
+     * @param faction the faction
+     * @return true if the faction owns a road that starts or ends at the corner
+     */
+    public boolean hasRoadAtCorner(int corner, Faction faction) {
+        if (!hasCorner(corner)) {
+            return false;
+        }
+        for (int i = 0; i < 3; i++) {
+            if (Occupancy.isOwnedBy(getEdgeOccupancy(Coordinates.edge(corner, getAdjacentCorner(corner, i))),
+                    faction)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether a settlement or city is built on one of the direct neighbours of the corner.
+     *
+     * @param corner the packed corner (see {@link Coordinates})
+     * @return true if a neighbour corner is occupied
+     */
+    public boolean hasStructureNextToCorner(int corner) {
+        for (int i = 0; i < 3; i++) {
+            if (getCornerOccupancy(getAdjacentCorner(corner, i)) != Occupancy.EMPTY) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns one of the three direct neighbours of a corner, in the same order as
+     * {@link #getAdjacentCorners(Point)}.
+     *
+     * @param corner the packed corner (see {@link Coordinates})
+     * @param i      the number of the neighbour, 0 to 2
+     * @return the packed neighbour corner, which might not exist on the board
+     */
+    public static int getAdjacentCorner(int corner, int i) {
+        int x = Coordinates.x(corner);
+        int y = Coordinates.y(corner);
+        // corners with y % 3 == 0 connect upwards vertically and downwards diagonally
+        int verticalY = y % 3 == 0 ? y - 2 : y + 2;
+        int diagonalY = y % 3 == 0 ? y + 1 : y - 1;
+        switch (i) {
+            case 0:
+                return Coordinates.of(x, verticalY);
+            case 1:
+                return Coordinates.of(x + 1, diagonalY);
+            case 2:
+                return Coordinates.of(x - 1, diagonalY);
+            default:
+                throw new IllegalArgumentException("A corner has only three neighbours: " + i);
+        }
+    }
+
+    /**
+     * Returns the occupancy of a corner at the time a snapshot was taken. A snapshot is never changed, so this can
+     * be called by any thread while the board itself is changed.
+     *
+     * @param snapshot a snapshot taken with {@link #snapshot()}
+     * @param position the packed corner (see {@link Coordinates})
+     * @return the occupancy or {@link Occupancy#EMPTY} if nothing is built or there is no such corner
+     */
+    static byte getCornerOccupancy(Snapshot<Land, String, String> snapshot, int position) {
+        return snapshot.getCornerTag(position);
+    }
+
+    /**
+     * Returns the occupancy of an edge at the time a snapshot was taken, like
+     * {@link #getCornerOccupancy(Snapshot, int)}.
+     *
+     * @param snapshot a snapshot taken with {@link #snapshot()}
+     * @param edge     the packed edge (see {@link Coordinates})
+     * @return the occupancy or {@link Occupancy#EMPTY} if nothing is built or there is no such edge
+     */
+    static byte getEdgeOccupancy(Snapshot<Land, String, String> snapshot, long edge) {
+        return snapshot.getEdgeTag(edge);
+    }
+}
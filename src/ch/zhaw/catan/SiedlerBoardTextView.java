@@ -1,22 +1,27 @@
 package ch.zhaw.catan;
 
 import ch.zhaw.catan.Config.Land;
+import ch.zhaw.hexboard.HexBoardAnsiView;
 import ch.zhaw.hexboard.HexBoardTextView;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
 /**
  * The class SiedlerBoardTextView extends the class HexBoardTextView.
- * It adds coordinates to the HexBoard.
+ * It adds coordinates to the HexBoard, either to a String or written straight to an {@link Appendable}.
  *
  * @author Kunsang Kündetsang
  * @version 12-05-2019
  */
 public class SiedlerBoardTextView extends HexBoardTextView<Land, String, String, String> {
+    private static final String X_COORDINATES = boardWithXCoordinates();
 
     public SiedlerBoardTextView(SiedlerBoard board) {
         super(board);
     }
 
-    private String boardWithXCoordinates() {
+    private static String boardWithXCoordinates() {
         StringBuilder coordinates= new StringBuilder();
         coordinates.append("\t");
         for (int i=0; i<15;i++){
@@ -29,27 +34,35 @@ public class SiedlerBoardTextView extends HexBoardTextView<Land, String, String,
     return coordinates+System.lineSeparator();
     }
 
-    private String boardWithYCoordinates(String oldBoard) {
-        String[] lines = oldBoard.split(System.lineSeparator());
-        StringBuilder board= new StringBuilder();
-        int coordinate=0;
-        int counter=0;
-        for (String line : lines) {
-            if(counter%6==0){
-                board.append(coordinate).append("\t").append(line).append(System.lineSeparator());
-                coordinate++;
-                counter++;
+    private static void appendNumber(Appendable out, int number) throws IOException {
+        if (number >= 10) {
+            appendNumber(out, number / 10);
+        }
+        out.append((char) ('0' + number % 10));
+    }
 
-            }else if(counter%6==1||counter%6==2||counter%6==5){
-                board.append("\t").append(line).append(System.lineSeparator());
-                counter++;
+    /**
+     * Writes the board with the given coordinates to the specified output without creating a String of the board.
+     *
+     * @param out where the board is written to, e.g. a {@link java.io.Writer} or a {@link java.nio.CharBuffer}
+     * @throws IOException if the board cannot be written
+     */
+    public void renderWithCoordinates(Appendable out) throws IOException {
+        String separator = System.lineSeparator();
+        int lines = updateLines();
+        out.append(X_COORDINATES);
+        int coordinate=0;
+        for (int counter=0; counter<lines; counter++) {
+            if(counter%6==1||counter%6==2||counter%6==5){
+                out.append('\t');
             }else{
-                board.append(coordinate).append("\t").append(line).append(System.lineSeparator());
+                appendNumber(out, coordinate);
+                out.append('\t');
                 coordinate++;
-                counter++;
             }
+            appendLine(out, counter);
+            out.append(separator);
         }
-        return board.toString();
     }
 
     /**
@@ -57,9 +70,29 @@ public class SiedlerBoardTextView extends HexBoardTextView<Land, String, String,
      * @return  the String who has been created
      */
     public String toStringWithCoordinates(){
-        String newBoard;
-        newBoard= boardWithXCoordinates();
-        newBoard+=boardWithYCoordinates(toString());
-        return newBoard;
+        StringBuilder newBoard = new StringBuilder(X_COORDINATES.length() * 30);
+        try {
+            renderWithCoordinates(newBoard);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return newBoard.toString();
+    }
+
+    /**
+     * Creates a view that writes the board with the given coordinates to an ANSI terminal, at first completely and
+     * afterwards only what changed.
+     *
+     * @return the view
+     */
+    public HexBoardAnsiView newAnsiView() {
+        // the x coordinates take the first row, the y coordinates end at the first tab stop
+        return new HexBoardAnsiView(this, 2, 9) {
+            @Override
+            protected void writeFrame(Appendable out) throws IOException {
+                out.append(CLEAR_SCREEN);
+                renderWithCoordinates(out);
+            }
+        };
     }
 }
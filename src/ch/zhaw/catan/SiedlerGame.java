@@ -3,46 +3,61 @@ package ch.zhaw.catan;
 import ch.zhaw.catan.Config.Faction;
 import ch.zhaw.catan.Config.Resource;
 import ch.zhaw.catan.Config.Structure;
+import ch.zhaw.hexboard.Coordinates;
+import ch.zhaw.hexboard.HexBoard;
 import ch.zhaw.hexboard.Label;
 
 import java.awt.Point;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.NoSuchElementException;
-import java.util.Random;
-import java.util.Set;
-
-import static ch.zhaw.catan.SiedlerBoard.NO_SUCH_EDGE;
-import static java.util.Arrays.asList;
-import static java.util.Collections.singletonList;
-import static java.util.stream.Collectors.toMap;
+import java.util.SplittableRandom;
 
 /**
  * The SiedlerGame class holds the game's board and enables the players to interact with the game's state.
  * After creating and running a new SiedlerGame a new SiedlerBoard will be created and the game starts in Phase 1,
  * which initializes the board according to the default layout.
+ * <p>
+ * The state of a game can be saved with {@link #snapshot()} and set back with {@link #restore(Snapshot)}, e.g. by a
+ * player that tries out moves. A snapshot shares the board, the road network and the players with the game; each
+ * of them is copied only when the game changes it afterwards.
+ * <p>
+ * Building, trading, the payout of resources and the resources lost on a seven are recorded in a
+ * {@link MoveJournal}, so they can be taken back with {@link #undo()} and made again with {@link #redo()}. The
+ * journal only records what changed, e.g. the edge of a road or the resources a player got, so undoing a move
+ * does not copy the state of the game.
+ * <p>
+ * The state of a game can also be written to a {@link ByteBuffer} and read back into a new game with the same
+ * layout, see {@link SaveGame} for the format.
  *
  * @author Ala Hadi und Silvan Lüthy
  * @version 2019/11/27
  */
 public class SiedlerGame {
-    private Dice dice = new Dice();
+    private SplittableRandom random;
+    private Dice dice;
     private int winPoints;
     private int currentPlayer = 0;
     private SiedlerBoard board = new SiedlerBoard();
     private List<Faction> factions = new ArrayList<>();
     private List<Player> players = new ArrayList<>();
-    private SiedlerBoardTextView view = new SiedlerBoardTextView(board);
-    private Random ran = new Random();
-    private Map<Resource, Integer> bank = new HashMap<>();
+    private final SiedlerBoardTextView view;
+    private Map<Resource, Integer> bank = new EnumMap<>(Resource.class);
     private Player playerWithlongestRoad;
     private int lastDiceSum;
-    private static final int AMOUNTRESOURCE = Resource.values().length;
+    private static final Resource[] RESOURCES = Resource.values();
+    private static final int AMOUNTRESOURCE = RESOURCES.length;
     private static final int STOCKRESOURCE = 19;
     private static final int MIN_AMOUNT_FOR_LONGESTSTREET = 5;
+    private final PayoutTable payoutTable;
+    private final RoadNetwork roadNetwork = new RoadNetwork(board, MIN_AMOUNT_FOR_LONGESTSTREET);
+    private final MoveGenerator moveGenerator;
+    private final GameLayout layout;
+    private final MoveJournal journal = new MoveJournal();
+    private final List<GameEventListener> eventListeners = new ArrayList<>();
 
     /**
      * Constructor of the class SiedlerGame.
@@ -55,6 +70,55 @@ public class SiedlerGame {
      *                  The maximum amount is defined by the amount of Factions in the Faction enum
      */
     public SiedlerGame(int winPoints, int players) {
+        this(winPoints, players, GameLayout.standard(), true);
+    }
+
+    /**
+     * Constructor of the class SiedlerGame for a custom layout.
+     *
+     * @param winPoints           The amount of points needed for winning the game
+     * @param players             The amount of players
+     * @param landPlacement       The land of each field of the board
+     * @param diceNumberPlacement The dice number of each field that pays out resources
+     */
+    public SiedlerGame(int winPoints, int players, Map<Point, Config.Land> landPlacement,
+                       Map<Point, Integer> diceNumberPlacement) {
+        this(winPoints, players, new GameLayout(landPlacement, diceNumberPlacement), true);
+    }
+
+    /**
+     * Constructor of the class SiedlerGame for a shared layout.
+     * <p>
+     * Games that are only simulated don't need a view. Without a view the game does not create any labels and
+     * {@link #getView()} returns null.
+     *
+     * @param winPoints The amount of points needed for winning the game
+     * @param players   The amount of players
+     * @param layout    The layout of the board
+     * @param withView  true if a view of the board should be created
+     */
+    public SiedlerGame(int winPoints, int players, GameLayout layout, boolean withView) {
+        this(winPoints, players, layout, withView, new SplittableRandom());
+    }
+
+    /**
+     * Constructor of the class SiedlerGame for a shared layout and a given random generator.
+     * <p>
+     * Every random decision of the game, the dices and the resources lost on a seven, is taken with the given
+     * generator, so a game with a seeded generator can be reproduced. Games played at the same time should use
+     * generators split off from a common one (see {@link SplittableRandom#split()}).
+     *
+     * @param winPoints The amount of points needed for winning the game
+     * @param players   The amount of players
+     * @param layout    The layout of the board
+     * @param withView  true if a view of the board should be created
+     * @param random    The random generator of the game, it must not be shared with other games
+     */
+    public SiedlerGame(int winPoints, int players, GameLayout layout, boolean withView,
+                       SplittableRandom random) {
+        this.layout = layout;
+        this.random = random;
+        this.dice = new Dice(random);
         this.winPoints = winPoints;
 
         // create factions
@@ -68,16 +132,21 @@ public class SiedlerGame {
             bank.put(Resource.values()[i],STOCKRESOURCE); //TODO: remove this magic number
         }
 
-        // set default game layout
-        for (Map.Entry<Point, Config.Land> entry : Config.getStandardLandPlacement().entrySet()) {
+        // set game layout
+        for (Map.Entry<Point, Config.Land> entry : layout.getLandPlacement().entrySet()) {
             board.addField(entry.getKey(), entry.getValue());
         }
 
         // add labels to view
-        for (Map.Entry<Point, Integer> entry : Config.getStandardDiceNumberPlacement().entrySet()) {
-            String label = String.format("%02d", entry.getValue());
-            view.setLowerFieldLabel(entry.getKey(), new Label(label.charAt(0), label.charAt(1)));
+        view = withView ? new SiedlerBoardTextView(board) : null;
+        if (view != null) {
+            for (Map.Entry<Point, Integer> entry : layout.getDiceNumberPlacement().entrySet()) {
+                String label = String.format("%02d", entry.getValue());
+                view.setLowerFieldLabel(entry.getKey(), new Label(label.charAt(0), label.charAt(1)));
+            }
         }
+        payoutTable = layout.createPayoutTable();
+        moveGenerator = layout.getMoveGenerator();
     }
 
     /**
@@ -85,6 +154,10 @@ public class SiedlerGame {
      */
     public void switchToNextPlayer() {
         currentPlayer = (currentPlayer + 1) % players.size();
+        for (int i = 0; i < eventListeners.size(); i++) {
+            eventListeners.get(i).onTurn(this);
+        }
+        endAction();
     }
 
     /**
@@ -92,6 +165,35 @@ public class SiedlerGame {
      */
     public void switchToPreviousPlayer() {
         currentPlayer = (currentPlayer - 1 + players.size()) % players.size();
+        for (int i = 0; i < eventListeners.size(); i++) {
+            eventListeners.get(i).onTurn(this);
+        }
+        endAction();
+    }
+
+    /**
+     * Attaches a listener that is told about every change of the game from now on, e.g. a {@link GameEventLog}.
+     * The listener is told about the current state of the game first, so a log can be replayed from there. Any
+     * number of listeners can be attached, e.g. a log and a {@link GameEventBus} for spectators, they are told in
+     * the order they were attached.
+     *
+     * @param eventListener the listener
+     */
+    public void addEventListener(GameEventListener eventListener) {
+        if (eventListener == null) {
+            throw new IllegalArgumentException("The listener must not be null.");
+        }
+        eventListeners.add(eventListener);
+        eventListener.onStateReplaced(this);
+    }
+
+    /**
+     * Detaches a listener, it is not told about changes of the game anymore.
+     *
+     * @param eventListener the listener
+     */
+    public void removeEventListener(GameEventListener eventListener) {
+        eventListeners.remove(eventListener);
     }
 
     public SiedlerBoard getBoard() {
@@ -116,26 +218,36 @@ public class SiedlerGame {
      * @return boolean True if the settlement could be placed successfully, false otherwise.
      */
     public boolean placeInitialSettlement(Point position, boolean payout) {
+        return placeInitialSettlement(Coordinates.of(position), payout);
+    }
+
+    /**
+     * Works like {@link #placeInitialSettlement(Point, boolean)} for a packed corner (see {@link Coordinates}).
+     *
+     * @param position The packed corner on which to place the settlement
+     * @param payout   Boolean which defines if a payout should follow after placing the settlement
+     * @return boolean True if the settlement could be placed successfully, false otherwise.
+     */
+    public boolean placeInitialSettlement(int position, boolean payout) {
         // check if settlement can be created at position
         if (!board.hasCorner(position) || !checkCornerFree(position) || !checkDistanceRule(position)) {
             return false;
         }
 
         // create settlement
-        board.putSettlement(position, getCurrentPlayer().toString());
-        players.get(currentPlayer).saveSettlement(position);
-        players.get(currentPlayer).setStructureAmount(Structure.SETTLEMENT);
+        log(GameEventListener.Type.INITIAL_SETTLEMENT, getCurrentPlayer(), position, false);
+        applyInitialSettlement(getCurrentPlayer(), position);
 
         // do payout
         if (payout) {
-            List<Config.Land> fields = board.getFields(position);
+            List<Config.Land> fields = board.getFields(Coordinates.toPoint(position));
             for (Config.Land land : fields) {
-                if (!land.equals(Config.Land.WATER)) {
-                    increaseResourcesAndUpdateBankResources(land.getResource(), 1);
+                if (land.getResource() != null) {
+                    transferWithBank(land.getResource(), 1);
                 }
             }
         }
-
+        endAction();
         return true;
     }
 
@@ -149,27 +261,54 @@ public class SiedlerGame {
      * @return boolean  True if the road could be placed successfully, false otherwise.
      */
     public boolean placeInitialRoad(Point roadStart, Point roadEnd) {
-        String player = getCurrentPlayer().toString();
-        String edgeData = board.getEdge(roadStart, roadEnd);
-        if (NO_SUCH_EDGE.equals(edgeData) || null != edgeData) {
+        return placeInitialRoad(Coordinates.edge(roadStart, roadEnd));
+    }
+
+    /**
+     * Works like {@link #placeInitialRoad(Point, Point)} for a packed edge (see {@link Coordinates}).
+     *
+     * @param edge The packed edge on which to place the road
+     * @return boolean True if the road could be placed successfully, false otherwise.
+     */
+    public boolean placeInitialRoad(long edge) {
+        Faction player = getCurrentPlayer();
+        if (!checkEdgeFree(edge)) {
             return false;
         }
 
         // you can only place a road adjacent to a settlement of the player
-        if (!(board.getCorner(roadStart) != null && board.getCorner(roadStart).equals(player))
-                && !(board.getCorner(roadEnd) != null && board.getCorner(roadEnd).equals(player))) {
+        int roadStart = Coordinates.edgeStart(edge);
+        int roadEnd = Coordinates.edgeEnd(edge);
+        if (!isAdjacentToOwnStructure(roadStart, player) && !isAdjacentToOwnStructure(roadEnd, player)) {
             return false;
         }
 
         // write player edge data to the board
-        board.putRoad(roadStart, roadEnd, player.substring(1));
-        players.get(currentPlayer).saveRoad(roadEnd, roadStart);
-        players.get(currentPlayer).setStructureAmount(Structure.ROAD);
+        log(GameEventListener.Type.INITIAL_ROAD, player, edge, false);
+        applyInitialRoad(player, edge);
+        endAction();
 
         //return currentPlayer.addEdge(roadStart, roadEnd);
         return true;
     }
 
+    private void applyInitialSettlement(Faction player, int position) {
+        Point point = Coordinates.toPoint(position);
+        board.putSettlement(position, player);
+        roadNetwork.addSettlement(position, player);
+        updateLongestRoad();
+        payoutTable.occupyCorner(point, player, 1);
+        getPlayer(player).saveSettlement(point);
+    }
+
+    private void applyInitialRoad(Faction player, long edge) {
+        board.putRoad(edge, player);
+        roadNetwork.addRoad(edge, player);
+        updateLongestRoad();
+        getPlayer(player).saveRoad(Coordinates.toPoint(Coordinates.edgeEnd(edge)),
+                Coordinates.toPoint(Coordinates.edgeStart(edge)));
+    }
+
     private int getRandomDiceRoll(int dicethrows) {
         return dice.rollTheDice(dicethrows);
     }
@@ -197,20 +336,32 @@ public class SiedlerGame {
      * @return payout, the Map RFesources per Faction
      */
     public Map<Faction, List<Resource>> throwDice(int dicethrow) {
-        Map<Faction, List<Resource>> result = new HashMap<>();
+        return toResourceMap(throwDiceForPayout(dicethrow));
+    }
 
+    /**
+     * Works like {@link #throwDice(int)}, but returns the payout as a matrix with the amount of resources per
+     * faction and resource, indexed by their ordinals. On a seven the matrix is empty.
+     * <p>
+     * The returned matrix is reused and overwritten by the next dice roll.
+     *
+     * @param dicethrow the amount of dices to play with, should be two for the Siedler-Game
+     * @return payout, the amount of resources per faction and resource
+     */
+    public int[][] throwDiceForPayout(int dicethrow) {
         // throw the dice
         int diceSum = getRandomDiceRoll(dicethrow);
         this.lastDiceSum = diceSum;
+        log(GameEventListener.Type.DICE, getCurrentPlayer(), diceSum, false);
 
         // if dice is 7
         if (diceSum == 7) {
             stealResources();
-        } else {
-            result = getResourceDistributionForThrow(diceSum);
+            endAction();
+            return payoutTable.getPayout(-1);
         }
-
-        return result;
+        endAction();
+        return payoutTable.getPayout(diceSum);
     }
 
     /**
@@ -218,6 +369,7 @@ public class SiedlerGame {
      * 7 resources will lose half of their stock in a randomly chosen fashion.
      */
     private void stealResources() {
+        journal.beginMove();
         // find all players with more than 7 resources
         for (Player player : players) {
             int sum = player.getTotalResourcesAmount();
@@ -230,9 +382,7 @@ public class SiedlerGame {
 
             // delete N random resources and return to bank
             for (int i = 0; i < toDelete; i++) {
-                Resource resource = player.getRandomResource();
-                player.setResourceAmount(resource, player.getResourceAmount(resource) - 1);
-                bank.merge(resource, 1, Integer::sum);
+                transferResources(player, player.getRandomResource(random), -1, GameEventListener.Type.DISCARD);
             }
         }
     }
@@ -245,112 +395,61 @@ public class SiedlerGame {
      * @return Map<Faction, List < Resource>> Returns a Map of resources each player should be payed out with
      */
     Map<Faction, List<Resource>> getResourceDistributionForThrow(int diceSum) {
-        // find all fields with annotation diceSum
-        Map<Point, Integer> fields = findFieldByAnnotation(diceSum);
-        Map<Faction, List<Resource>> result = new HashMap<>();
-
-        // for each field annotated with diceSum do
-        for (Point point : fields.keySet()) {
-            List<String> corners = board.getCornersOfField(point);
-            Resource resource = board.getField(point).getResource();
+        return toResourceMap(payoutTable.getPayout(diceSum));
+    }
 
-            for (String cornerData : corners) {
-                if (cornerData.equals(cornerData.toUpperCase())) {
-                    getResourcesForCities(result, resource, cornerData);
-                } else {
-                    getResourcesForSettlements(result, resource, cornerData);
+    private static Map<Faction, List<Resource>> toResourceMap(int[][] payout) {
+        Map<Faction, List<Resource>> result = new HashMap<>();
+        for (Faction faction : Faction.values()) {
+            for (Resource resource : Resource.values()) {
+                for (int i = 0; i < payout[faction.ordinal()][resource.ordinal()]; i++) {
+                    result.computeIfAbsent(faction, f -> new ArrayList<>()).add(resource);
                 }
             }
         }
         return result;
     }
 
-    // check for city
-    private void getResourcesForCities(Map<Faction, List<Resource>> result, Resource resource, String data) {
-        try {
-            Faction fac = Faction.findByName(data.toLowerCase());
-            result.merge(fac, new ArrayList<>(asList(resource, resource)), (a, b) -> {
-                a.addAll(b);
-                return a;
-            });
-        } catch (IllegalArgumentException | NoSuchElementException e) {
-            // not a city of any faction
-        }
-    }
-
-    // check for settlement
-    private void getResourcesForSettlements(Map<Faction, List<Resource>> result, Resource resource, String data) {
-        try {
-            Faction fac = Faction.findByName(data);
-            result.merge(fac, new ArrayList<>(singletonList(resource)), (a, b) -> {
-                a.addAll(b);
-                return a;
-            });
-
-        } catch (IllegalArgumentException e) {
-            // not a settlement of any faction
-        }
-    }
-
-    private Map<Point, Integer> findFieldByAnnotation(int diceSum) {
-        Map<Point, Integer> fields = Config.getStandardDiceNumberPlacement();
-        return fields.entrySet().stream()
-                .filter(entry -> entry.getValue() == diceSum)
-                .collect(toMap(Map.Entry::getKey, Map.Entry::getValue));
-    }
-
-
     /**
-     * Player with longest road will get assigned the title of having the longest road
+     * Player with longest road will get assigned the title of having the longest road. The holder is kept up to
+     * date by the road network whenever a road or settlement is built, this method hands the title (and its
+     * winning points) over to the respective player.
      *
-     * @return true if a player has a longest street
+     * @return true if the holder of the longest road changed
      */
     public boolean updateLongestRoad() {
-        if (checkHasLongestRoad() == (null)) {
+        Player holder = checkHasLongestRoad();
+        if (holder == playerWithlongestRoad) {
             return false;
         }
-        if (playerWithlongestRoad == null) {
-            playerWithlongestRoad = checkHasLongestRoad();
-            playerWithlongestRoad.setHasLongestRoad();
-            return true;
-        } else if (!playerWithlongestRoad.equals(checkHasLongestRoad())) {
+        if (playerWithlongestRoad != null) {
             playerWithlongestRoad.removeHasLongestRoad();
-            playerWithlongestRoad = checkHasLongestRoad();
-            playerWithlongestRoad.setHasLongestRoad();
-            return true;
         }
-        return false;
-    }
-
-    /**
-     * Checks which player has the longest road. All points that appear more than once will be counted.
-     * The player who has the biggest count will receive the title of having the longest road.
-     * @return player with the longest road
-     */
-    //p.getRoads() returns List<List<Point>> streets
-    //so many loops as i need to save all points per player in a set and list.
-    public Player checkHasLongestRoad(){
-        int maxLength = 0;
-        Player playerLongestRoad = null;
-        for(Player p : players) {
-            Set<Point> set = new HashSet<>();
-            int count = 0;
-            int roadLength = 0;
-            for (int i = 0; i < p.getRoads().size(); i++) {
-                for (int j = 0; j < 2; j++) {
-                    if(set.contains(p.getRoads().get(i).get(j)))
-                        count++;
-                    else
-                        set.add(p.getRoads().get(i).get(j));
-                }
-            }
-            roadLength = count+1;
-            if(roadLength > maxLength && roadLength >= MIN_AMOUNT_FOR_LONGESTSTREET) {
-                maxLength = roadLength;
-                playerLongestRoad = p;
-            }
+        playerWithlongestRoad = holder;
+        if (playerWithlongestRoad != null) {
+            playerWithlongestRoad.setHasLongestRoad();
         }
-        return playerLongestRoad;
+        return true;
+    }
+
+    /**
+     * Returns the player who holds the longest road according to the road network.
+     *
+     * @return player with the longest road or null if no road is long enough
+     */
+    public Player checkHasLongestRoad() {
+        Faction holder = roadNetwork.getHolder();
+        return holder == null ? null : findByFaction(holder);
+    }
+
+    /**
+     * Returns the length of the longest trail of roads of a player.
+     *
+     * @param faction the player
+     * @return the number of roads of the longest trail
+     */
+    public int getLongestRoadLength(Faction faction) {
+        return roadNetwork.getLongestRoad(faction);
     }
 
     /**
@@ -363,23 +462,45 @@ public class SiedlerGame {
      * @return true if road is successfully built
      */
     public boolean buildRoad(Point roadStart, Point roadEnd) {
-        if (!(checkEdgeFree(roadStart, roadEnd) && playerHasEnoughResourcesForRoad() && playerHasEnoughStructure(Config.Structure.ROAD)
-                && (isAdjacentToOwnRoad(roadStart) || isAdjacentToOwnRoad(roadEnd)
-                || isAdjacentToOwnStructure(roadStart, getCurrentPlayer().toString()) ||
-                isAdjacentToOwnStructure(roadEnd, getCurrentPlayer().toString())))) {
+        return buildRoad(Coordinates.edge(roadStart, roadEnd));
+    }
+
+    /**
+     * Works like {@link #buildRoad(Point, Point)} for a packed edge (see {@link Coordinates}).
+     *
+     * @param edge the packed edge
+     * @return true if road is successfully built
+     */
+    public boolean buildRoad(long edge) {
+        if (!canBuildRoad(edge)) {
             return false;
         } else {
-            board.putRoad(roadStart, roadEnd, getCurrentPlayer().toString().substring(1));
-            players.get(currentPlayer).saveRoad(roadStart, roadEnd);
-            decreaseResourcesAndUpdateBankResources(Resource.CLAY, 1);
-            decreaseResourcesAndUpdateBankResources(Resource.WOOD, 1);
-            players.get(currentPlayer).setStructureAmount(Structure.ROAD);
+            journal.beginMove();
+            record(GameEventListener.Type.LONGEST_ROAD, getCurrentPlayer(), roadNetwork.getLengths());
+            record(GameEventListener.Type.ROAD, getCurrentPlayer(), edge);
+            applyRoad(getCurrentPlayer(), edge);
+            endAction();
             return true;
         }
     }
 
-    private boolean isAdjacentToOwnStructure(Point point, String player) {
-        return board.getCorner(point) != null && board.getCorner(point).toLowerCase().equals(player);
+    /**
+     * Checks the rules for building a road for the current player without changing the game.
+     *
+     * @param edge the packed edge (see {@link Coordinates})
+     * @return true if {@link #buildRoad(long)} would succeed
+     */
+    public boolean canBuildRoad(long edge) {
+        int roadStart = Coordinates.edgeStart(edge);
+        int roadEnd = Coordinates.edgeEnd(edge);
+        return checkEdgeFree(edge) && playerHasEnoughResourcesForRoad() && playerHasEnoughStructure(Structure.ROAD)
+                && (isAdjacentToOwnRoad(roadStart) || isAdjacentToOwnRoad(roadEnd)
+                || isAdjacentToOwnStructure(roadStart, getCurrentPlayer())
+                || isAdjacentToOwnStructure(roadEnd, getCurrentPlayer()));
+    }
+
+    private boolean isAdjacentToOwnStructure(int point, Faction player) {
+        return Occupancy.isOwnedBy(board.getCornerOccupancy(point), player);
     }
 
     /**
@@ -391,23 +512,41 @@ public class SiedlerGame {
      * @return true if settlement is successfully built
      */
     public boolean buildSettlement(Point position) {
-            if (!(checkCornerFree(position) && checkDistanceRule(position)
-                    && playerHasEnoughResourcesForSettlement()
-                    && playerHasEnoughStructure(Config.Structure.SETTLEMENT)
-                    && isAdjacentToOwnRoad(position))) {
+        return buildSettlement(Coordinates.of(position));
+    }
+
+    /**
+     * Works like {@link #buildSettlement(Point)} for a packed corner (see {@link Coordinates}).
+     *
+     * @param position the packed corner
+     * @return true if settlement is successfully built
+     */
+    public boolean buildSettlement(int position) {
+            if (!canBuildSettlement(position)) {
                 return false;
             } else {
-                board.putSettlement(position, getCurrentPlayer().toString());
-                players.get(currentPlayer).saveSettlement(position);
-                decreaseResourcesAndUpdateBankResources(Resource.CLAY, 1);
-                decreaseResourcesAndUpdateBankResources(Resource.WOOD, 1);
-                decreaseResourcesAndUpdateBankResources(Resource.WOOL, 1);
-                decreaseResourcesAndUpdateBankResources(Resource.GRAIN, 1);
-                players.get(currentPlayer).setStructureAmount(Structure.SETTLEMENT);
+                journal.beginMove();
+                record(GameEventListener.Type.LONGEST_ROAD, getCurrentPlayer(), roadNetwork.getLengths());
+                record(GameEventListener.Type.SETTLEMENT, getCurrentPlayer(), position);
+                applySettlement(getCurrentPlayer(), position);
+                endAction();
                 return true;
             }
         }
 
+    /**
+     * Checks the rules for building a settlement for the current player without changing the game.
+     *
+     * @param position the packed corner (see {@link Coordinates})
+     * @return true if {@link #buildSettlement(int)} would succeed
+     */
+    public boolean canBuildSettlement(int position) {
+        return board.hasCorner(position) && checkCornerFree(position) && checkDistanceRule(position)
+                && playerHasEnoughResourcesForSettlement()
+                && playerHasEnoughStructure(Structure.SETTLEMENT)
+                && isAdjacentToOwnRoad(position);
+    }
+
 
     /**
      * A city will be built for certain player.
@@ -418,22 +557,40 @@ public class SiedlerGame {
      * @return true if city is successfully built
      */
     public boolean buildCity(Point position) {
-        //make sure this point has players own settlement
-        if (!(board.getCorner(position).equals(players.get(currentPlayer).getFaction().toString())
-                && playerHasEnoughResourcesForCity() &&
-                playerHasEnoughStructure(Config.Structure.CITY))) {
+        return buildCity(Coordinates.of(position));
+    }
+
+    /**
+     * Works like {@link #buildCity(Point)} for a packed corner (see {@link Coordinates}).
+     *
+     * @param position the packed corner
+     * @return true if city is successfully built
+     */
+    public boolean buildCity(int position) {
+        if (!canBuildCity(position)) {
             return false;
         } else {
-            board.putCity(position, players.get(currentPlayer).getFaction().toString().toUpperCase());
-            players.get(currentPlayer).deleteSettlementAndPutBackToStock(position);
-            players.get(currentPlayer).saveCity(position);
-            decreaseResourcesAndUpdateBankResources(Resource.STONE, 3);
-            decreaseResourcesAndUpdateBankResources(Resource.GRAIN, 2);
-            players.get(currentPlayer).setStructureAmount(Structure.CITY);
+            journal.beginMove();
+            record(GameEventListener.Type.CITY, getCurrentPlayer(), position);
+            applyCity(getCurrentPlayer(), position);
+            endAction();
             return true;
         }
     }
 
+    /**
+     * Checks the rules for building a city for the current player without changing the game.
+     *
+     * @param position the packed corner (see {@link Coordinates})
+     * @return true if {@link #buildCity(int)} would succeed
+     */
+    public boolean canBuildCity(int position) {
+        //make sure this point has players own settlement
+        return board.getCornerOccupancy(position) == Occupancy.of(getCurrentPlayer(), Structure.SETTLEMENT)
+                && playerHasEnoughResourcesForCity()
+                && playerHasEnoughStructure(Structure.CITY);
+    }
+
     /**
      * Trade with bank via offering 4 of a kind of a resource against another kind of a resource.
      * Certain resource/bank stocks will be updated
@@ -447,8 +604,10 @@ public class SiedlerGame {
             if (!checkTradeWithBankFourToOne(offer, want)) {
                 return false;
             } else {
-                decreaseResourcesAndUpdateBankResources(offer, 4);
-                increaseResourcesAndUpdateBankResources(want, 1);
+                journal.beginMove();
+                transferResources(players.get(currentPlayer), offer, -4, GameEventListener.Type.TRADE);
+                transferResources(players.get(currentPlayer), want, 1, GameEventListener.Type.TRADE);
+                endAction();
                 return true;
             }
         }
@@ -474,25 +633,105 @@ public class SiedlerGame {
         return null;
     }
 
+    /**
+     * Returns the random generator of the game. Strategies that play the game can use it, so their decisions are
+     * reproduced together with the game.
+     *
+     * @return the random generator
+     */
+    public SplittableRandom getRandom() {
+        return random;
+    }
+
+    public int getWinPoints() {
+        return winPoints;
+    }
+
+    public int getNumberOfPlayers() {
+        return players.size();
+    }
+
+    public GameLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * Returns the view of the board.
+     *
+     * @return the view or null if the game was created without a view
+     */
     public SiedlerBoardTextView getView() {
         return view;
     }
 
-    private boolean checkDistanceRule(Point position) {
-        List<Point> cornerPoints = SiedlerBoard.getAdjacentCorners(position);
-        boolean canPlaceHere = true;
-        for (Point p : cornerPoints) {
-            canPlaceHere &= board.getCorner(p) == null;
-        }
-        return canPlaceHere;
+    private boolean checkDistanceRule(int position) {
+        return !board.hasStructureNextToCorner(position);
     }
 
-    private boolean checkCornerFree(Point position) {
-        return board.getCorner(position) == null;
+    private boolean checkCornerFree(int position) {
+        return board.getCornerOccupancy(position) == Occupancy.EMPTY;
     }
 
-    private boolean checkEdgeFree(Point position1, Point position2) {
-        return board.getEdge(position1, position2) == null;
+    private boolean checkEdgeFree(long edge) {
+        return board.hasEdge(edge) && board.getEdgeOccupancy(edge) == Occupancy.EMPTY;
+    }
+
+    /**
+     * Writes all roads, settlements, cities and 4:1 trades with the bank the current player can make right now to
+     * the given list. The list is cleared first and can be reused for every call.
+     *
+     * @param moves the list to fill
+     * @return the given list
+     */
+    public MoveList generateMoves(MoveList moves) {
+        moveGenerator.generate(this, moves);
+        return moves;
+    }
+
+    /**
+     * Writes all corners on which the current player can place an initial settlement to the given list.
+     *
+     * @param moves the list to fill, it is cleared first
+     * @return the given list
+     */
+    public MoveList generateInitialSettlements(MoveList moves) {
+        moveGenerator.generateInitialSettlements(board, moves);
+        return moves;
+    }
+
+    /**
+     * Writes all free edges that connect to the given corner to the list. These are the initial roads the current
+     * player can place next to a settlement.
+     *
+     * @param settlement the packed corner of the settlement
+     * @param moves      the list to fill, it is cleared first
+     * @return the given list
+     */
+    public MoveList generateInitialRoads(int settlement, MoveList moves) {
+        moveGenerator.generateInitialRoads(board, settlement, moves);
+        return moves;
+    }
+
+    /**
+     * Plays a move generated by {@link #generateMoves(MoveList)} for the current player.
+     *
+     * @param moves the generated moves
+     * @param index the index of the move to play
+     * @return true if the move could be played
+     */
+    public boolean play(MoveList moves, int index) {
+        switch (moves.getType(index)) {
+            case ROAD:
+                return buildRoad(moves.getEdge(index));
+            case SETTLEMENT:
+                return buildSettlement(moves.getCorner(index));
+            case CITY:
+                return buildCity(moves.getCorner(index));
+            case TRADE:
+                return tradeWithBankFourToOne(moves.getOffer(index), moves.getWant(index));
+            default:
+                throw new IllegalStateException("Internal error found - Move not implemented.");
+        }
     }
 
     public boolean checkTradeWithBankFourToOne(Resource offer, Resource want){
@@ -503,19 +742,24 @@ public class SiedlerGame {
     }
 
     /**
-     * Checks if a certain point is adjacent to a player's road by iterationg through their adjacent edge list
+     * Checks if a certain point is adjacent to a road of the current player by looking at the occupancy of the
+     * edges that connect to it
      *
      * @param position
      * @return true if the point is adjacent to a player's road
      */
     public boolean isAdjacentToOwnRoad(Point position) {
-        List<String> adjacentEdges = board.getAdjacentEdges(position);
-        for (String edge : adjacentEdges) {
-            if (edge.equals(players.get(currentPlayer).getFaction().toString().substring(1))) {
-                return true;
-            }
-        }
-        return false;
+        return isAdjacentToOwnRoad(Coordinates.of(position));
+    }
+
+    /**
+     * Works like {@link #isAdjacentToOwnRoad(Point)} for a packed corner (see {@link Coordinates}).
+     *
+     * @param position the packed corner
+     * @return true if the point is adjacent to a player's road
+     */
+    public boolean isAdjacentToOwnRoad(int position) {
+        return board.hasRoadAtCorner(position, getCurrentPlayer());
     }
 
     /**
@@ -562,6 +806,10 @@ public class SiedlerGame {
         return hasEnoughResources;
     }
 
+    int getBankStock(Resource resource) {
+        return bank.get(resource);
+    }
+
     /**
      * Checks if bank has enough of a certain resource in stock
      *
@@ -583,8 +831,8 @@ public class SiedlerGame {
      * @param amount
      */
     public void increaseResourcesAndUpdateBankResources(Resource resource, int amount) {
-        players.get(currentPlayer).setResourceAmount(resource, players.get(currentPlayer).getResourceAmount(resource) + amount);
-        bank.replace(resource, bank.get(resource) - amount);
+        transferWithBank(resource, amount);
+        endAction();
     }
 
     /**
@@ -594,8 +842,18 @@ public class SiedlerGame {
      * @param amount
      */
     public void decreaseResourcesAndUpdateBankResources(Resource resource, int amount) {
-        players.get(currentPlayer).setResourceAmount(resource, players.get(currentPlayer).getResourceAmount(resource) - amount);
-        bank.replace(resource, bank.get(resource) + amount);
+        transferWithBank(resource, -amount);
+        endAction();
+    }
+
+    /**
+     * Gives resources from the bank to the current player, or the other way round for a negative amount, without
+     * recording it in the journal.
+     */
+    private void transferWithBank(Resource resource, int amount) {
+        log(GameEventListener.Type.BANK_TRANSFER, getCurrentPlayer(), MoveJournal.resourceChange(resource, amount), false);
+        players.get(currentPlayer).setResourceAmount(resource, players.get(currentPlayer).getResourceAmount(resource) + amount);
+        bank.replace(resource, bank.get(resource) - amount);
     }
 
     /**
@@ -625,13 +883,543 @@ public class SiedlerGame {
      * @param resources A map containing players and a list of resources.
      */
     public void distributeResources(Map<Faction, List<Resource>> resources) {
+        journal.beginMove();
         for (Map.Entry<Faction, List<Resource>> entry : resources.entrySet()) {
             Player player = findByFaction(entry.getKey());
             for (Resource resource : entry.getValue()) {
-                player.setResourceAmount(resource, player.getResourceAmount(resource) + 1);
-                bank.put(resource, bank.get(resource) - 1);
+                transferResources(player, resource, 1, GameEventListener.Type.PAYOUT);
             }
         }
+        endAction();
+    }
+
+    /**
+     * This method distributes resources to players according to the provided matrix. For each resource that
+     * gets added to the player's stock the respective amount gets reduced at the bank.
+     *
+     * @param payout The amount of resources per faction and resource, indexed by their ordinals
+     */
+    public void distributeResources(int[][] payout) {
+        journal.beginMove();
+        for (Player player : players) {
+            int[] amounts = payout[player.getFaction().ordinal()];
+            for (Resource resource : RESOURCES) {
+                int amount = amounts[resource.ordinal()];
+                if (amount != 0) {
+                    transferResources(player, resource, amount, GameEventListener.Type.PAYOUT);
+                }
+            }
+        }
+        endAction();
+    }
+
+    /**
+     * Takes back the last move that was built, traded or paid out, as recorded in the journal. The dices and the
+     * random generator are not set back, and neither is the current player.
+     *
+     * @return true if there was a move to undo
+     */
+    public boolean undo() {
+        if (!journal.canUndo()) {
+            return false;
+        }
+        int end = journal.size();
+        int start = journal.undo();
+        for (int entry = end - 1; entry >= start; entry--) {
+            reverse(entry);
+        }
+        log(GameEventListener.Type.UNDO, getCurrentPlayer(), 0, false);
+        endAction();
+        return true;
+    }
+
+    /**
+     * Makes the last move that was undone again. Once a new move is made, the undone moves cannot be redone.
+     *
+     * @return true if there was a move to redo
+     */
+    public boolean redo() {
+        if (!journal.canRedo()) {
+            return false;
+        }
+        int start = journal.size();
+        int end = journal.redo();
+        for (int entry = start; entry < end; entry++) {
+            apply(entry);
+        }
+        log(GameEventListener.Type.REDO, getCurrentPlayer(), 0, false);
+        endAction();
+        return true;
+    }
+
+    /**
+     * Makes a change read from a {@link GameEventLog} again, see {@link GameReplay}. Changes recorded in the journal
+     * are recorded again, so they can be undone like in the game that wrote the log.
+     *
+     * @param type      the type of the event
+     * @param faction   the faction of the event
+     * @param value     the value of the event
+     * @param moveStart true if the event is the first entry of a move of the journal
+     */
+    void replay(GameEventListener.Type type, Faction faction, long value, boolean moveStart) {
+        switch (type) {
+            case ROAD:
+            case SETTLEMENT:
+            case CITY:
+            case PAYOUT:
+            case TRADE:
+            case DISCARD:
+            case LONGEST_ROAD:
+                if (moveStart) {
+                    journal.beginMove();
+                }
+                journal.add(type.toJournalType(), faction, value);
+                apply(journal.size() - 1);
+                break;
+            case BANK_TRANSFER:
+                changeResources(getPlayer(faction), MoveJournal.getResource(value), MoveJournal.getAmount(value));
+                break;
+            case INITIAL_SETTLEMENT:
+                applyInitialSettlement(faction, (int) value);
+                break;
+            case INITIAL_ROAD:
+                applyInitialRoad(faction, value);
+                break;
+            case DICE:
+                lastDiceSum = (int) value;
+                break;
+            case TURN:
+                currentPlayer = faction.ordinal();
+                break;
+            case UNDO:
+                undo();
+                break;
+            case REDO:
+                redo();
+                break;
+            default:
+                throw new IllegalArgumentException("Not an event that can be replayed: " + type);
+        }
+    }
+
+    private void apply(int entry) {
+        Faction faction = journal.getFaction(entry);
+        long value = journal.getValue(entry);
+        switch (journal.getType(entry)) {
+            case ROAD:
+                applyRoad(faction, value);
+                break;
+            case SETTLEMENT:
+                applySettlement(faction, (int) value);
+                break;
+            case CITY:
+                applyCity(faction, (int) value);
+                break;
+            case RESOURCES:
+                changeResources(getPlayer(faction), MoveJournal.getResource(value), MoveJournal.getAmount(value));
+                break;
+            case LONGEST_ROAD:
+                // the longest roads are searched again when the road or settlement is built
+                break;
+            default:
+                throw new IllegalStateException("Internal error found - Journal entry not implemented.");
+        }
+    }
+
+    private void reverse(int entry) {
+        Faction faction = journal.getFaction(entry);
+        Player player = getPlayer(faction);
+        long value = journal.getValue(entry);
+        switch (journal.getType(entry)) {
+            case ROAD:
+                board.removeRoad(value);
+                roadNetwork.removeRoad(value, faction);
+                player.deleteRoadAndPutBackToStock(Coordinates.toPoint(Coordinates.edgeStart(value)),
+                        Coordinates.toPoint(Coordinates.edgeEnd(value)));
+                refundCosts(player, Structure.ROAD);
+                break;
+            case SETTLEMENT:
+                board.removeStructure((int) value);
+                payoutTable.vacateCorner(Coordinates.toPoint((int) value));
+                player.deleteSettlementAndPutBackToStock(Coordinates.toPoint((int) value));
+                refundCosts(player, Structure.SETTLEMENT);
+                break;
+            case CITY:
+                board.putSettlement((int) value, faction);
+                payoutTable.occupyCorner(Coordinates.toPoint((int) value), faction, 1);
+                player.deleteCityAndPutBackToStock(Coordinates.toPoint((int) value));
+                player.saveSettlement(Coordinates.toPoint((int) value));
+                refundCosts(player, Structure.CITY);
+                break;
+            case RESOURCES:
+                changeResources(player, MoveJournal.getResource(value), -MoveJournal.getAmount(value));
+                break;
+            case LONGEST_ROAD:
+                roadNetwork.setLengths(value);
+                updateLongestRoad();
+                break;
+            default:
+                throw new IllegalStateException("Internal error found - Journal entry not implemented.");
+        }
+    }
+
+    private void applyRoad(Faction faction, long edge) {
+        Player player = getPlayer(faction);
+        board.putRoad(edge, faction);
+        roadNetwork.addRoad(edge, faction);
+        updateLongestRoad();
+        player.saveRoad(Coordinates.toPoint(Coordinates.edgeStart(edge)),
+                Coordinates.toPoint(Coordinates.edgeEnd(edge)));
+        payCosts(player, Structure.ROAD);
+    }
+
+    private void applySettlement(Faction faction, int position) {
+        Player player = getPlayer(faction);
+        Point point = Coordinates.toPoint(position);
+        board.putSettlement(position, faction);
+        roadNetwork.addSettlement(position, faction);
+        updateLongestRoad();
+        payoutTable.occupyCorner(point, faction, 1);
+        player.saveSettlement(point);
+        payCosts(player, Structure.SETTLEMENT);
+    }
+
+    private void applyCity(Faction faction, int position) {
+        Player player = getPlayer(faction);
+        Point point = Coordinates.toPoint(position);
+        board.putCity(position, faction);
+        payoutTable.occupyCorner(point, faction, 2);
+        player.deleteSettlementAndPutBackToStock(point);
+        player.saveCity(point);
+        payCosts(player, Structure.CITY);
+    }
+
+    private void payCosts(Player player, Structure structure) {
+        for (Resource resource : structure.getCosts()) {
+            changeResources(player, resource, -1);
+        }
+    }
+
+    private void refundCosts(Player player, Structure structure) {
+        for (Resource resource : structure.getCosts()) {
+            changeResources(player, resource, 1);
+        }
+    }
+
+    /**
+     * Gives resources to a player and takes them from the bank, or the other way round for a negative amount, and
+     * records the change in the journal.
+     */
+    private void transferResources(Player player, Resource resource, int amount, GameEventListener.Type type) {
+        record(type, player.getFaction(), MoveJournal.resourceChange(resource, amount));
+        changeResources(player, resource, amount);
+    }
+
+    /**
+     * Records an entry in the journal and tells the event listeners about it.
+     */
+    private void record(GameEventListener.Type type, Faction faction, long value) {
+        boolean moveStart = journal.add(type.toJournalType(), faction, value);
+        log(type, faction, value, moveStart);
+    }
+
+    private void log(GameEventListener.Type type, Faction faction, long value, boolean moveStart) {
+        for (int i = 0; i < eventListeners.size(); i++) {
+            eventListeners.get(i).onEvent(type, faction, value, moveStart);
+        }
+    }
+
+    /**
+     * Tells the event listeners that an action is complete, so it can handle all events of the action at once.
+     */
+    private void endAction() {
+        for (int i = 0; i < eventListeners.size(); i++) {
+            eventListeners.get(i).onActionEnd(this);
+        }
+    }
+
+    private void changeResources(Player player, Resource resource, int amount) {
+        player.setResourceAmount(resource, player.getResourceAmount(resource) + amount);
+        bank.put(resource, bank.get(resource) - amount);
+    }
+
+    /**
+     * The players are created in the order of the factions, so the player of a faction is found by its ordinal.
+     */
+    private Player getPlayer(Faction faction) {
+        return players.get(faction.ordinal());
+    }
+
+    /**
+     * Takes a snapshot of the board, all players, the bank and the current player. Taking a snapshot does not copy
+     * the state of the game; the game copies a part of its state when it changes it for the first time after the
+     * snapshot. Taking a snapshot does not change the game, not even its random generator, so a restore of the
+     * snapshot continues with the dice of the game it is restored to.
+     * <p>
+     * Restoring a snapshot clears the journal, so the moves made before cannot be undone anymore.
+     *
+     * @return the snapshot
+     */
+    public Snapshot snapshot() {
+        return snapshot(false, 0);
+    }
+
+    /**
+     * Works like {@link #snapshot()}, but every restore of the snapshot starts a new random generator with the given
+     * seed, so the same dice are thrown after every restore. The state of a {@link SplittableRandom} cannot be read,
+     * so the caller draws the seed, e.g. from its own generator.
+     *
+     * @param seed the seed of the random generator a restore starts
+     * @return the snapshot
+     */
+    public Snapshot snapshot(long seed) {
+        return snapshot(true, seed);
+    }
+
+    private Snapshot snapshot(boolean seeded, long seed) {
+        Player[] playerSnapshots = new Player[players.size()];
+        for (int i = 0; i < playerSnapshots.length; i++) {
+            playerSnapshots[i] = players.get(i).snapshot();
+        }
+        return new Snapshot(layout, board.snapshot(), payoutTable.snapshot(), roadNetwork.snapshot(), playerSnapshots,
+                bank, currentPlayer, lastDiceSum, getPlayerWithlongestRoad(), seeded, seed);
+    }
+
+    /**
+     * Sets the game back to the state of a snapshot. A snapshot can be restored any number of times. If it was
+     * taken with a seed, the game continues with a new random generator with that seed, otherwise with its own.
+     * <p>
+     * The snapshot can also be restored to another game with the same layout and number of players, e.g. to search
+     * a copy of the game in another thread. Snapshots share their state with the games, but never change it.
+     *
+     * @param snapshot a snapshot taken with {@link #snapshot()}
+     * @throws IllegalArgumentException if the snapshot was taken from a game with another layout or number of
+     *                                  players
+     */
+    public void restore(Snapshot snapshot) {
+        restore(snapshot, snapshot.seeded ? new SplittableRandom(snapshot.seed) : random);
+    }
+
+    /**
+     * Works like {@link #restore(Snapshot)}, but the game continues with the given random generator, e.g. to play
+     * the same state with other dices.
+     *
+     * @param snapshot a snapshot taken with {@link #snapshot()}
+     * @param random   the random generator the game continues with
+     * @throws IllegalArgumentException if the snapshot was taken from a game with another layout or number of
+     *                                  players
+     */
+    public void restore(Snapshot snapshot, SplittableRandom random) {
+        if (snapshot.layout != layout || snapshot.players.length != players.size()) {
+            throw new IllegalArgumentException("The snapshot was taken from a game with another layout.");
+        }
+        board.restore(snapshot.board);
+        payoutTable.restore(snapshot.payoutTable);
+        roadNetwork.restore(snapshot.roadNetwork);
+        for (int i = 0; i < snapshot.players.length; i++) {
+            players.get(i).restore(snapshot.players[i]);
+        }
+        bank.putAll(snapshot.bank);
+        currentPlayer = snapshot.currentPlayer;
+        lastDiceSum = snapshot.lastDiceSum;
+        playerWithlongestRoad = snapshot.playerWithLongestRoad == null
+                ? null : findByFaction(snapshot.playerWithLongestRoad);
+        this.random = random;
+        dice = new Dice(random);
+        journal.clear();
+        for (int i = 0; i < eventListeners.size(); i++) {
+            eventListeners.get(i).onStateReplaced(this);
+        }
+    }
+
+    /**
+     * Continues the game with a new random generator seeded from the current one, e.g. before the game is saved, so
+     * a game read back throws the same dice as this one.
+     *
+     * @return the seed of the new random generator
+     */
+    long reseed() {
+        long seed = random.nextLong();
+        reseed(seed);
+        return seed;
+    }
+
+    private void reseed(long seed) {
+        random = new SplittableRandom(seed);
+        dice = new Dice(random);
+    }
+
+    /**
+     * The state of a game at the time the snapshot was taken (see {@link SiedlerGame#snapshot()}). A snapshot
+     * cannot be changed and can only be restored to games with the same layout and number of players.
+     */
+    public static final class Snapshot {
+        private final GameLayout layout;
+        private final HexBoard.Snapshot<Config.Land, String, String> board;
+        private final PayoutTable payoutTable;
+        private final RoadNetwork roadNetwork;
+        private final Player[] players;
+        private final Map<Resource, Integer> bank;
+        private final int currentPlayer;
+        private final int lastDiceSum;
+        private final Faction playerWithLongestRoad;
+        private final boolean seeded;
+        private final long seed;
+
+        private Snapshot(GameLayout layout, HexBoard.Snapshot<Config.Land, String, String> board,
+                         PayoutTable payoutTable, RoadNetwork roadNetwork, Player[] players,
+                         Map<Resource, Integer> bank, int currentPlayer, int lastDiceSum,
+                         Faction playerWithLongestRoad, boolean seeded, long seed) {
+            this.layout = layout;
+            this.board = board;
+            this.payoutTable = payoutTable;
+            this.roadNetwork = roadNetwork;
+            this.players = players;
+            this.bank = new EnumMap<>(bank);
+            this.currentPlayer = currentPlayer;
+            this.lastDiceSum = lastDiceSum;
+            this.playerWithLongestRoad = playerWithLongestRoad;
+            this.seeded = seeded;
+            this.seed = seed;
+        }
+
+        HexBoard.Snapshot<Config.Land, String, String> getBoard() {
+            return board;
+        }
+
+        Player getPlayer(Faction faction) {
+            return players[faction.ordinal()];
+        }
+
+        int getNumberOfPlayers() {
+            return players.length;
+        }
+
+        int getBankStock(Resource resource) {
+            return bank.get(resource);
+        }
+
+        Faction getCurrentPlayer() {
+            return Faction.values()[currentPlayer];
+        }
+
+        int getLastDiceSum() {
+            return lastDiceSum;
+        }
+
+        Faction getPlayerWithLongestRoad() {
+            return playerWithLongestRoad;
+        }
+    }
+
+    /**
+     * Writes the state of the game: the seed of the random generator a game read back gets, the current player, the
+     * last dice sum, the longest roads, the bank and the resources, settlements, cities and roads of every player. The
+     * stocks of structures are not written, they follow from the structures that were built. Writing the state does
+     * not change the game; to let a game read back throw the same dice, the game is reseeded first (see
+     * {@link #reseed()}).
+     *
+     * @param buffer the buffer to write to, see {@link SaveGame} for the size it needs
+     * @param seed   the seed of the random generator a game read back gets
+     */
+    void writeState(ByteBuffer buffer, long seed) {
+        buffer.putLong(seed);
+        buffer.put((byte) currentPlayer);
+        buffer.put((byte) lastDiceSum);
+        buffer.putLong(roadNetwork.getLengths());
+        for (Resource resource : RESOURCES) {
+            buffer.putShort(bank.get(resource).shortValue());
+        }
+        for (Player player : players) {
+            for (Resource resource : RESOURCES) {
+                buffer.putShort((short) player.getResourceAmount(resource));
+            }
+            writeCorners(buffer, player.getSettlements());
+            writeCorners(buffer, player.getCities());
+            buffer.put((byte) player.getRoads().size());
+            for (List<Point> road : player.getRoads()) {
+                writeCorner(buffer, road.get(0));
+                writeCorner(buffer, road.get(1));
+            }
+        }
+    }
+
+    /**
+     * Reads a state written by {@link #writeState(ByteBuffer, long)} into a game that was just created. The
+     * structures are built again without paying for them, then the resources and the bank are set to the values that
+     * were read.
+     *
+     * @param buffer the buffer to read from
+     * @throws IllegalArgumentException if the state does not fit the layout and the number of players of the game
+     * @throws java.nio.BufferUnderflowException if the buffer ends before the state
+     */
+    void readState(ByteBuffer buffer) {
+        reseed(buffer.getLong());
+        currentPlayer = buffer.get();
+        if (currentPlayer < 0 || currentPlayer >= players.size()) {
+            throw new IllegalArgumentException("Not a valid current player: " + currentPlayer);
+        }
+        lastDiceSum = buffer.get();
+        long lengths = buffer.getLong();
+        // the bank is set at the end, rebuilding the structures pays for them
+        int[] bankStock = new int[AMOUNTRESOURCE];
+        for (int i = 0; i < AMOUNTRESOURCE; i++) {
+            bankStock[i] = buffer.getShort();
+        }
+        for (Player player : players) {
+            Faction faction = player.getFaction();
+            int[] resources = new int[AMOUNTRESOURCE];
+            for (int i = 0; i < AMOUNTRESOURCE; i++) {
+                resources[i] = buffer.getShort();
+            }
+            for (int i = buffer.get() & 0xFF; i > 0; i--) {
+                applySettlement(faction, readCorner(buffer));
+            }
+            for (int i = buffer.get() & 0xFF; i > 0; i--) {
+                int position = readCorner(buffer);
+                applySettlement(faction, position);
+                applyCity(faction, position);
+            }
+            for (int i = buffer.get() & 0xFF; i > 0; i--) {
+                long edge = Coordinates.edge(readCorner(buffer), readCorner(buffer));
+                if (!board.hasEdge(edge)) {
+                    throw new IllegalArgumentException("Not a valid edge: " + Coordinates.toString(
+                            Coordinates.edgeStart(edge)) + " - " + Coordinates.toString(Coordinates.edgeEnd(edge)));
+                }
+                applyRoad(faction, edge);
+            }
+            for (Resource resource : RESOURCES) {
+                player.setResourceAmount(resource, resources[resource.ordinal()]);
+            }
+        }
+        for (Resource resource : RESOURCES) {
+            bank.put(resource, bankStock[resource.ordinal()]);
+        }
+        roadNetwork.setLengths(lengths);
+        updateLongestRoad();
+        journal.clear();
+    }
+
+    private static void writeCorners(ByteBuffer buffer, List<Point> corners) {
+        buffer.put((byte) corners.size());
+        for (Point corner : corners) {
+            writeCorner(buffer, corner);
+        }
+    }
+
+    private static void writeCorner(ByteBuffer buffer, Point corner) {
+        buffer.put((byte) corner.x);
+        buffer.put((byte) corner.y);
+    }
+
+    private int readCorner(ByteBuffer buffer) {
+        int x = buffer.get() & 0xFF;
+        int y = buffer.get() & 0xFF;
+        int position = Coordinates.of(x, y);
+        if (!board.hasCorner(position)) {
+            throw new IllegalArgumentException("Not a valid corner: " + Coordinates.toString(position));
+        }
+        return position;
     }
 
     Player findByFaction(Faction faction) {
@@ -0,0 +1,293 @@
+package ch.zhaw.catan;
+
+import ch.zhaw.catan.Config.Faction;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The class Simulation plays complete games without a user and without a view, e.g. to compare strategies.
+ * <p>
+ * All games share one {@link GameLayout}. Every player is driven by a {@link PlayerStrategy}: the initial placement
+ * follows the same order as in {@link GameLauncher}, then every turn the dice are thrown and the strategy plays
+ * moves until it ends its turn. A game ends when a player has won or when the maximum number of turns is reached.
+ * <p>
+ * The games can be played on the calling thread or spread over the threads of a {@link ForkJoinPool}. Either way
+ * the games are split into halves until a batch is small enough, and the {@link SplittableRandom} of a batch is
+ * split the same way. Every game of a batch then gets a generator split off from the batch's one, so every game
+ * gets the same random generator for the same seed, no matter how many threads play the games.
+ * <p>
+ * The statistics of every game can also be stored in a {@link GameArchive} to analyse them later.
+ *
+ * @version 12-05-2019
+ */
+public class Simulation {
+    private static final int DEFAULT_GAMES = 10000;
+    private static final int DEFAULT_MAX_TURNS = 500;
+    private static final int MAX_MOVES_PER_TURN = 32;
+    private static final int NUMBER_OF_DICES = 2;
+    private static final int GAMES_PER_BATCH = 64;
+    private static final long WATCH_MILLIS_PER_TURN = 200;
+
+    private final GameLayout layout;
+    private final int winPoints;
+    private final int maxTurns;
+    private final List<PlayerStrategy> strategies;
+
+    /**
+     * Creates a simulation. The first strategy plays the first faction, the second one the second faction and so on.
+     *
+     * @param layout     The layout of all games
+     * @param winPoints  The amount of points needed for winning a game
+     * @param maxTurns   The maximum number of turns after which a game ends without a winner
+     * @param strategies The strategies of the players
+     */
+    public Simulation(GameLayout layout, int winPoints, int maxTurns, List<PlayerStrategy> strategies) {
+        if (strategies.size() < Config.MIN_NUMBER_OF_PLAYERS || strategies.size() > Faction.values().length) {
+            throw new IllegalArgumentException("Not a valid number of players: " + strategies.size());
+        }
+        this.layout = layout;
+        this.winPoints = winPoints;
+        this.maxTurns = maxTurns;
+        this.strategies = new ArrayList<>(strategies);
+    }
+
+    /**
+     * Plays a number of games one after the other on the calling thread.
+     *
+     * @param games The number of games
+     * @param seed  The seed of the random generators of the games
+     * @return the statistics of the games
+     */
+    public SimulationResult run(int games, long seed) {
+        return run(games, seed, null);
+    }
+
+    /**
+     * Works like {@link #run(int, long)} and records every game in an archive.
+     *
+     * @param games   The number of games
+     * @param seed    The seed of the random generators of the games
+     * @param archive The archive or null if the games should not be recorded
+     * @return the statistics of the games
+     * @throws UncheckedIOException if the archive cannot be written
+     */
+    public SimulationResult run(int games, long seed, GameArchive archive) {
+        SimulationResult result = new SimulationResult();
+        long start = System.nanoTime();
+        new Batch(this, 0, games, new SplittableRandom(seed), result, archive).compute();
+        result.addNanos(System.nanoTime() - start);
+        return result;
+    }
+
+    /**
+     * Plays a number of games in parallel on the threads of a pool. The strategies are shared by all threads.
+     *
+     * @param games The number of games
+     * @param seed  The seed of the random generators of the games
+     * @param pool  The pool that plays the games
+     * @return the statistics of the games, the same as {@link #run(int, long)} returns for the same seed
+     */
+    public SimulationResult runParallel(int games, long seed, ForkJoinPool pool) {
+        return runParallel(games, seed, pool, null);
+    }
+
+    /**
+     * Works like {@link #runParallel(int, long, ForkJoinPool)} and records every game in an archive. The games are
+     * recorded in the order they end, not in the order they were started.
+     *
+     * @param games   The number of games
+     * @param seed    The seed of the random generators of the games
+     * @param pool    The pool that plays the games
+     * @param archive The archive or null if the games should not be recorded
+     * @return the statistics of the games
+     * @throws UncheckedIOException if the archive cannot be written
+     */
+    public SimulationResult runParallel(int games, long seed, ForkJoinPool pool, GameArchive archive) {
+        SimulationResult result = new SimulationResult();
+        long start = System.nanoTime();
+        pool.invoke(new Batch(this, 0, games, new SplittableRandom(seed), result, archive));
+        result.addNanos(System.nanoTime() - start);
+        return result;
+    }
+
+    /**
+     * Plays one game and shows it on an ANSI terminal while it is played (see {@link Spectator}).
+     *
+     * @param seed          The seed of the random generator of the game
+     * @param out           The terminal
+     * @param millisPerTurn The time to wait after every turn in milliseconds
+     * @return the game after it ended
+     */
+    public SiedlerGame watch(long seed, Appendable out, long millisPerTurn) {
+        SiedlerGame game = new SiedlerGame(winPoints, strategies.size(), layout, true,
+                new SplittableRandom(seed));
+        GameEventBus bus = new GameEventBus();
+        bus.subscribe(new Spectator(game, out, millisPerTurn));
+        game.addEventListener(bus);
+        play(game, new MoveList(), new SimulationResult());
+        return game;
+    }
+
+    /**
+     * Plays a new game until it has a winner or the maximum number of turns is reached.
+     *
+     * @param game   A game that was just created
+     * @param moves  The list to generate the moves into
+     * @param result The statistics to record the turn times in
+     * @return the number of turns that were played
+     */
+    int play(SiedlerGame game, MoveList moves, SimulationResult result) {
+        int players = strategies.size();
+        for (int i = 0; i < players; i++) {
+            placeInitialStructures(game, moves, false);
+            game.switchToNextPlayer();
+        }
+        game.switchToPreviousPlayer();
+        for (int i = 0; i < players; i++) {
+            placeInitialStructures(game, moves, true);
+            game.switchToPreviousPlayer();
+        }
+        game.switchToNextPlayer();
+
+        int turns = 0;
+        while (game.getWinner() == null && turns < maxTurns) {
+            long start = System.nanoTime();
+            game.distributeResources(game.throwDiceForPayout(NUMBER_OF_DICES));
+            PlayerStrategy strategy = strategies.get(game.getCurrentPlayer().ordinal());
+            for (int i = 0; i < MAX_MOVES_PER_TURN && game.getWinner() == null; i++) {
+                int move = strategy.chooseMove(game, game.generateMoves(moves));
+                if (move == PlayerStrategy.END_TURN || !game.play(moves, move)) {
+                    break;
+                }
+            }
+            turns++;
+            game.switchToNextPlayer();
+            result.recordTurnTime(System.nanoTime() - start);
+        }
+        return turns;
+    }
+
+    private void placeInitialStructures(SiedlerGame game, MoveList moves, boolean payout) {
+        PlayerStrategy strategy = strategies.get(game.getCurrentPlayer().ordinal());
+        int settlement = moves.getCorner(strategy.chooseMove(game, game.generateInitialSettlements(moves)));
+        game.placeInitialSettlement(settlement, payout);
+        game.generateInitialRoads(settlement, moves);
+        if (moves.size() > 0) {
+            game.placeInitialRoad(moves.getEdge(strategy.chooseMove(game, moves)));
+        }
+    }
+
+    /**
+     * A batch of games. Large batches are split into two halves, each with its own part of the random generator.
+     */
+    private static final class Batch extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Simulation simulation;
+        private final int from;
+        private final int to;
+        private final transient SplittableRandom random;
+        private final transient SimulationResult result;
+        private final transient GameArchive archive;
+
+        Batch(Simulation simulation, int from, int to, SplittableRandom random, SimulationResult result,
+              GameArchive archive) {
+            this.simulation = simulation;
+            this.from = from;
+            this.to = to;
+            this.random = random;
+            this.result = result;
+            this.archive = archive;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= GAMES_PER_BATCH) {
+                MoveList moves = new MoveList();
+                for (int i = from; i < to; i++) {
+                    SiedlerGame game = new SiedlerGame(simulation.winPoints, simulation.strategies.size(),
+                            simulation.layout, false, random.split());
+                    GameArchive.Recorder recorder = archive == null ? null : archive.newRecorder();
+                    if (recorder != null) {
+                        game.addEventListener(recorder);
+                    }
+                    int turns = simulation.play(game, moves, result);
+                    result.record(game.getWinner(), turns);
+                    if (recorder != null) {
+                        finish(recorder, game);
+                    }
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            Batch first = new Batch(simulation, from, middle, random.split(), result, archive);
+            Batch second = new Batch(simulation, middle, to, random, result, archive);
+            if (getPool() == null) {
+                first.compute();
+                second.compute();
+            } else {
+                invokeAll(first, second);
+            }
+        }
+
+        private void finish(GameArchive.Recorder recorder, SiedlerGame game) {
+            try {
+                recorder.finish(game);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Runs a simulation of random players on the standard layout on all cores and prints the statistics.
+     * <p>
+     * If a time budget is given, the first player is an {@link MctsStrategy} with this budget per decision. Its
+     * search uses all cores, so the games are then played one after the other, and the play-outs per second of the
+     * search are printed as well.
+     *
+     * <p>
+     * If the first argument is {@code watch}, a single game is shown on the terminal while it is played instead.
+     *
+     * @param args The number of games, the number of players, the seed and the time budget of the first player in
+     *             milliseconds (all optional)
+     */
+    public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("watch")) {
+            int players = args.length > 1 ? Integer.parseInt(args[1]) : Faction.values().length;
+            long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+            List<PlayerStrategy> strategies = new ArrayList<>();
+            for (int i = 0; i < players; i++) {
+                strategies.add(new RandomStrategy());
+            }
+            SiedlerGame game = new Simulation(GameLayout.standard(), Config.WIN_POINTS, DEFAULT_MAX_TURNS,
+                    strategies).watch(seed, System.out, WATCH_MILLIS_PER_TURN);
+            System.out.println();
+            System.out.println("Winner: " + game.getWinner());
+            return;
+        }
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_GAMES;
+        int players = args.length > 1 ? Integer.parseInt(args[1]) : Faction.values().length;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+        MctsStrategy mcts = args.length > 3 ? new MctsStrategy(Long.parseLong(args[3])) : null;
+        List<PlayerStrategy> strategies = new ArrayList<>();
+        for (int i = 0; i < players; i++) {
+            strategies.add(i == 0 && mcts != null ? mcts : new RandomStrategy());
+        }
+        Simulation simulation = new Simulation(GameLayout.standard(), Config.WIN_POINTS, DEFAULT_MAX_TURNS,
+                strategies);
+        if (mcts == null) {
+            System.out.println(simulation.runParallel(games, seed, ForkJoinPool.commonPool()));
+        } else {
+            System.out.println(simulation.run(games, seed));
+            System.out.printf("MCTS: %d play-outs, %.0f play-outs/s%n", mcts.getPlayouts(),
+                    mcts.getPlayoutsPerSecond());
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package ch.zhaw.catan;
+
+import ch.zhaw.catan.Config.Faction;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The class SimulationResult collects the statistics of the games played by a {@link Simulation}.
+ * <p>
+ * All counters are {@link LongAdder}s, so games running in parallel can record their outcome without locking.
+ * The time of every turn is counted in a histogram with one bucket per power of two nanoseconds.
+ *
+ * @version 12-05-2019
+ */
+public class SimulationResult {
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final int HISTOGRAM_BUCKETS = Long.SIZE;
+
+    private final LongAdder[] wins = new LongAdder[Faction.values().length];
+    private final LongAdder draws = new LongAdder();
+    private final LongAdder games = new LongAdder();
+    private final LongAdder turns = new LongAdder();
+    private final LongAdder[] turnTimes = new LongAdder[HISTOGRAM_BUCKETS];
+    private final LongAdder nanos = new LongAdder();
+
+    SimulationResult() {
+        for (int i = 0; i < wins.length; i++) {
+            wins[i] = new LongAdder();
+        }
+        for (int i = 0; i < turnTimes.length; i++) {
+            turnTimes[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records the outcome of a game.
+     *
+     * @param winner The winner or null if the game had no winner
+     * @param turns  The number of turns of the game
+     */
+    void record(Faction winner, int turns) {
+        if (winner == null) {
+            draws.increment();
+        } else {
+            wins[winner.ordinal()].increment();
+        }
+        games.increment();
+        this.turns.add(turns);
+    }
+
+    /**
+     * Records the time a turn took.
+     *
+     * @param nanos The duration of the turn in nanoseconds
+     */
+    void recordTurnTime(long nanos) {
+        turnTimes[getBucket(nanos)].increment();
+    }
+
+    void addNanos(long nanos) {
+        this.nanos.add(nanos);
+    }
+
+    public long getGames() {
+        return games.sum();
+    }
+
+    public long getWins(Faction faction) {
+        return wins[faction.ordinal()].sum();
+    }
+
+    /**
+     * Returns the share of the games a faction has won.
+     *
+     * @param faction The faction
+     * @return the win rate between 0 and 1
+     */
+    public double getWinRate(Faction faction) {
+        long played = getGames();
+        return played == 0 ? 0 : (double) getWins(faction) / played;
+    }
+
+    /**
+     * Returns the number of games that ended without a winner because the maximum number of turns was reached.
+     *
+     * @return the number of games without a winner
+     */
+    public long getDraws() {
+        return draws.sum();
+    }
+
+    public double getAverageTurns() {
+        long played = getGames();
+        return played == 0 ? 0 : (double) turns.sum() / played;
+    }
+
+    /**
+     * Returns the histogram of the turn times. Bucket i counts the turns that took at least 2^i and less than
+     * 2^(i+1) nanoseconds, bucket 0 also counts the turns that took no measurable time.
+     *
+     * @return the number of turns per bucket
+     */
+    public long[] getTurnTimeHistogram() {
+        long[] histogram = new long[turnTimes.length];
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] = turnTimes[i].sum();
+        }
+        return histogram;
+    }
+
+    /**
+     * Returns the number of games played per second of wall clock time.
+     *
+     * @return games per second
+     */
+    public double getGamesPerSecond() {
+        long elapsed = nanos.sum();
+        return elapsed == 0 ? 0 : getGames() * NANOS_PER_SECOND / elapsed;
+    }
+
+    static int getBucket(long nanos) {
+        return nanos <= 1 ? 0 : Long.SIZE - 1 - Long.numberOfLeadingZeros(nanos);
+    }
+
+    @Override
+    public String toString() {
+        long played = getGames();
+        StringBuilder result = new StringBuilder();
+        result.append(String.format("Games: %d, %.0f games/s, %.1f turns per game%n", played, getGamesPerSecond(),
+                getAverageTurns()));
+        for (Faction faction : Faction.values()) {
+            if (getWins(faction) > 0) {
+                result.append(String.format("%s: %d wins (%.1f%%)%n", faction, getWins(faction),
+                        100 * getWinRate(faction)));
+            }
+        }
+        result.append(String.format("No winner: %d%n", getDraws()));
+        result.append(String.format("Turn times:%n"));
+        long[] histogram = getTurnTimeHistogram();
+        for (int i = 0; i < histogram.length; i++) {
+            if (histogram[i] > 0) {
+                result.append(String.format("  >= %,d ns: %d%n", 1L << i, histogram[i]));
+            }
+        }
+        return result.toString();
+    }
+}
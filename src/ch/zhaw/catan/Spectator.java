@@ -0,0 +1,116 @@
+package ch.zhaw.catan;
+
+import ch.zhaw.catan.Config.Faction;
+import ch.zhaw.hexboard.HexBoardAnsiView;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * The class Spectator shows a game live on an ANSI terminal, e.g. to watch a {@link Simulation} or to stream a game
+ * to a remote terminal.
+ * <p>
+ * At first the whole board is written with its coordinates. After every action that built a structure, undid or
+ * made a move again or started a turn, only the labels that changed are written (see {@link HexBoardAnsiView}),
+ * followed by a status line with the current player, the last dice sum and the points of all players. The events
+ * come in one batch per action from a {@link GameEventBus}, so the board is written once per action, however many
+ * labels it changed. The output is flushed after every update if it is {@link Flushable}.
+ *
+ * @version 12-05-2019
+ */
+public final class Spectator implements GameEventBus.Subscriber {
+    private static final String CLEAR_LINE = "\u001b[K";
+
+    private final SiedlerGame game;
+    private final HexBoardAnsiView view;
+    private final Appendable out;
+    private final long millisPerTurn;
+
+    /**
+     * Creates a spectator of a game. It shows the game once it subscribes to a {@link GameEventBus} that is attached
+     * to the game.
+     *
+     * @param game The game, it must have a view
+     * @param out  The terminal
+     */
+    public Spectator(SiedlerGame game, Appendable out) {
+        this(game, out, 0);
+    }
+
+    /**
+     * Creates a spectator of a game that waits after every turn, so a game played by a computer can be followed.
+     *
+     * @param game          The game, it must have a view
+     * @param out           The terminal
+     * @param millisPerTurn The time to wait after every turn in milliseconds
+     */
+    public Spectator(SiedlerGame game, Appendable out, long millisPerTurn) {
+        if (game.getView() == null) {
+            throw new IllegalArgumentException("The game has no view.");
+        }
+        this.game = game;
+        this.view = game.getView().newAnsiView();
+        this.out = out;
+        this.millisPerTurn = millisPerTurn;
+    }
+
+    @Override
+    public void onEvents(SiedlerGame game, GameEventBus.Batch events) {
+        boolean turn = false;
+        boolean changed = false;
+        for (int i = 0; i < events.size(); i++) {
+            switch (events.getType(i)) {
+                case TURN:
+                    turn = true;
+                    break;
+                case ROAD:
+                case SETTLEMENT:
+                case CITY:
+                case INITIAL_SETTLEMENT:
+                case INITIAL_ROAD:
+                case UNDO:
+                case REDO:
+                    changed = true;
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (changed || turn) {
+            update();
+        }
+        if (turn && millisPerTurn > 0) {
+            try {
+                Thread.sleep(millisPerTurn);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public void onStateReplaced(SiedlerGame game) {
+        view.reset();
+        update();
+    }
+
+    private void update() {
+        try {
+            view.render(out);
+            out.append(CLEAR_LINE).append("Current player: ").append(game.getCurrentPlayer().toString())
+                    .append("  Dice: ").append(Integer.toString(game.getLastDiceSum()));
+            for (int i = 0; i < game.getNumberOfPlayers(); i++) {
+                Faction faction = Faction.values()[i];
+                out.append("  ").append(faction.toString()).append(": ")
+                        .append(Integer.toString(game.findByFaction(faction).getPoints()));
+            }
+            out.append('\r');
+            if (out instanceof Flushable) {
+                ((Flushable) out).flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package ch.zhaw.hexboard;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Stores the board data in flat arrays that cover the coordinate grid of the
+ * board.
+ * <p>
+ * Fields and corners at (x, y) are stored at index {@code y * width + x}.
+ * Edges are stored at the sum of the coordinates of their two corners, i.e.
+ * {@code (y1 + y2) * 2 * width + (x1 + x2)}, which is unique for every edge on
+ * the grid defined by {@link HexBoard}. The tags of the corners and edges are
+ * kept in byte arrays of the same layout. For every corner, a bit mask
+ * records which of its (at most three) connecting edges exist. The arrays
+ * grow whenever data is stored outside of the current bounds, which usually
+ * only happens while the fields are added. Only non-negative coordinates can
+ * be stored.
+ * </p>
+ * <p>
+ * A snapshot shares the arrays with the storage it was taken from. The arrays
+ * of the fields, corners and edges (each with their tags) are copied
+ * separately the first time they are changed after a snapshot was taken or
+ * restored, so taking a snapshot does not copy anything.
+ * </p>
+ *
+ * @param <F> Data type for the field data objects
+ * @param <C> Data type for the corner data objects
+ * @param <E> Data type for the edge data objects
+ */
+final class ArrayStorage<F, C, E> implements HexBoardStorage<F, C, E> {
+  private int width = 0;
+  private int height = 0;
+  private boolean[] fieldExists = new boolean[0];
+  private Object[] field = new Object[0];
+  private boolean[] cornerExists = new boolean[0];
+  private Object[] corner = new Object[0];
+  private byte[] cornerTag = new byte[0];
+  private boolean[] edgeExists = new boolean[0];
+  private Object[] edge = new Object[0];
+  private byte[] edgeTag = new byte[0];
+  private byte[] edgesOfCorner = new byte[0];
+  private boolean fieldsShared = false;
+  private boolean cornersShared = false;
+  private boolean edgesShared = false;
+
+  private boolean isInside(int x, int y) {
+    return x >= 0 && y >= 0 && x < width && y < height;
+  }
+
+  private int index(int x, int y) {
+    return y * width + x;
+  }
+
+  private int edgeIndex(int x1, int y1, int x2, int y2) {
+    return (y1 + y2) * 2 * width + x1 + x2;
+  }
+
+  private void ensureInside(int x, int y) {
+    if (x < 0 || y < 0) {
+      throw new IllegalArgumentException(
+          "Negative coordinates are not supported by the array storage: (" + x + ", " + y + ")");
+    }
+    if (isInside(x, y)) {
+      return;
+    }
+    int newWidth = Math.max(width, x + 1);
+    int newHeight = Math.max(height, y + 1);
+    boolean[] newFieldExists = new boolean[newWidth * newHeight];
+    Object[] newField = new Object[newWidth * newHeight];
+    boolean[] newCornerExists = new boolean[newWidth * newHeight];
+    Object[] newCorner = new Object[newWidth * newHeight];
+    byte[] newCornerTag = new byte[newWidth * newHeight];
+    byte[] newEdgesOfCorner = new byte[newWidth * newHeight];
+    for (int row = 0; row < height; row++) {
+      System.arraycopy(fieldExists, row * width, newFieldExists, row * newWidth, width);
+      System.arraycopy(field, row * width, newField, row * newWidth, width);
+      System.arraycopy(cornerExists, row * width, newCornerExists, row * newWidth, width);
+      System.arraycopy(corner, row * width, newCorner, row * newWidth, width);
+      System.arraycopy(cornerTag, row * width, newCornerTag, row * newWidth, width);
+      System.arraycopy(edgesOfCorner, row * width, newEdgesOfCorner, row * newWidth, width);
+    }
+    boolean[] newEdgeExists = new boolean[4 * newWidth * newHeight];
+    Object[] newEdge = new Object[4 * newWidth * newHeight];
+    byte[] newEdgeTag = new byte[4 * newWidth * newHeight];
+    for (int row = 0; row < 2 * height; row++) {
+      System.arraycopy(edgeExists, row * 2 * width, newEdgeExists, row * 2 * newWidth, 2 * width);
+      System.arraycopy(edge, row * 2 * width, newEdge, row * 2 * newWidth, 2 * width);
+      System.arraycopy(edgeTag, row * 2 * width, newEdgeTag, row * 2 * newWidth, 2 * width);
+    }
+    width = newWidth;
+    height = newHeight;
+    fieldExists = newFieldExists;
+    field = newField;
+    cornerExists = newCornerExists;
+    corner = newCorner;
+    cornerTag = newCornerTag;
+    edgesOfCorner = newEdgesOfCorner;
+    edgeExists = newEdgeExists;
+    edge = newEdge;
+    edgeTag = newEdgeTag;
+    fieldsShared = false;
+    cornersShared = false;
+    edgesShared = false;
+  }
+
+  private void unshareFields() {
+    if (fieldsShared) {
+      fieldExists = fieldExists.clone();
+      field = field.clone();
+      fieldsShared = false;
+    }
+  }
+
+  private void unshareCorners() {
+    if (cornersShared) {
+      cornerExists = cornerExists.clone();
+      corner = corner.clone();
+      cornerTag = cornerTag.clone();
+      cornersShared = false;
+    }
+  }
+
+  private void unshareEdges() {
+    if (edgesShared) {
+      edgeExists = edgeExists.clone();
+      edge = edge.clone();
+      edgeTag = edgeTag.clone();
+      edgesOfCorner = edgesOfCorner.clone();
+      edgesShared = false;
+    }
+  }
+
+  @Override
+  public boolean hasField(int x, int y) {
+    return isInside(x, y) && fieldExists[index(x, y)];
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public F getField(int x, int y) {
+    return isInside(x, y) ? (F) field[index(x, y)] : null;
+  }
+
+  @Override
+  public void putField(int x, int y, F data) {
+    ensureInside(x, y);
+    unshareFields();
+    fieldExists[index(x, y)] = true;
+    field[index(x, y)] = data;
+  }
+
+  @Override
+  public List<Point> getFieldCoordinates() {
+    List<Point> result = new ArrayList<>();
+    for (int i = 0; i < fieldExists.length; i++) {
+      if (fieldExists[i]) {
+        result.add(new Point(i % width, i / width));
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public boolean hasCorner(int x, int y) {
+    return isInside(x, y) && cornerExists[index(x, y)];
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public C getCorner(int x, int y) {
+    return isInside(x, y) ? (C) corner[index(x, y)] : null;
+  }
+
+  @Override
+  public void putCorner(int x, int y, C data) {
+    ensureInside(x, y);
+    unshareCorners();
+    cornerExists[index(x, y)] = true;
+    corner[index(x, y)] = data;
+  }
+
+  @Override
+  public byte getCornerTag(int x, int y) {
+    return isInside(x, y) ? cornerTag[index(x, y)] : 0;
+  }
+
+  @Override
+  public void putCornerTag(int x, int y, byte tag) {
+    unshareCorners();
+    cornerTag[index(x, y)] = tag;
+  }
+
+  @Override
+  public Set<Point> getCornerCoordinates() {
+    Set<Point> result = new HashSet<>();
+    for (int i = 0; i < cornerExists.length; i++) {
+      if (cornerExists[i]) {
+        result.add(new Point(i % width, i / width));
+      }
+    }
+    return Collections.unmodifiableSet(result);
+  }
+
+  @Override
+  public boolean hasEdge(int x1, int y1, int x2, int y2) {
+    return isInside(x1, y1) && isInside(x2, y2) && edgeExists[edgeIndex(x1, y1, x2, y2)];
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public E getEdge(int x1, int y1, int x2, int y2) {
+    return isInside(x1, y1) && isInside(x2, y2) ? (E) edge[edgeIndex(x1, y1, x2, y2)] : null;
+  }
+
+  @Override
+  public void putEdge(int x1, int y1, int x2, int y2, E data) {
+    ensureInside(x1, y1);
+    ensureInside(x2, y2);
+    unshareEdges();
+    if (!edgeExists[edgeIndex(x1, y1, x2, y2)]) {
+      edgesOfCorner[index(x1, y1)] |= directionBit(x2 - x1);
+      edgesOfCorner[index(x2, y2)] |= directionBit(x1 - x2);
+    }
+    edgeExists[edgeIndex(x1, y1, x2, y2)] = true;
+    edge[edgeIndex(x1, y1, x2, y2)] = data;
+  }
+
+  @Override
+  public byte getEdgeTag(int x1, int y1, int x2, int y2) {
+    return isInside(x1, y1) && isInside(x2, y2) ? edgeTag[edgeIndex(x1, y1, x2, y2)] : 0;
+  }
+
+  @Override
+  public void putEdgeTag(int x1, int y1, int x2, int y2, byte tag) {
+    unshareEdges();
+    edgeTag[edgeIndex(x1, y1, x2, y2)] = tag;
+  }
+
+  /**
+   * Returns the bit that denotes the edge in the given x direction. A corner has
+   * at most one vertical (dx == 0) and two diagonal edges (dx == 1, dx == -1).
+   */
+  private static byte directionBit(int dx) {
+    return (byte) (1 << (dx + 1));
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public List<E> getEdgesOfCorner(int x, int y) {
+    List<E> result = new ArrayList<>(3);
+    if (!isInside(x, y)) {
+      return result;
+    }
+    int mask = edgesOfCorner[index(x, y)];
+    // corners with y % 3 == 0 connect upwards vertically and downwards diagonally
+    int verticalY = y % 3 == 0 ? y - 2 : y + 2;
+    int diagonalY = y % 3 == 0 ? y + 1 : y - 1;
+    for (int dx = -1; dx <= 1; dx++) {
+      if ((mask & directionBit(dx)) != 0) {
+        int otherY = dx == 0 ? verticalY : diagonalY;
+        result.add((E) edge[edgeIndex(x, y, x + dx, otherY)]);
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public HexBoardStorage<F, C, E> snapshot() {
+    ArrayStorage<F, C, E> snapshot = new ArrayStorage<>();
+    snapshot.restore(this);
+    fieldsShared = true;
+    cornersShared = true;
+    edgesShared = true;
+    return snapshot;
+  }
+
+  @Override
+  public void restore(HexBoardStorage<F, C, E> snapshot) {
+    if (!(snapshot instanceof ArrayStorage)) {
+      throw new IllegalArgumentException("Not a snapshot of an array storage: " + snapshot);
+    }
+    ArrayStorage<F, C, E> other = (ArrayStorage<F, C, E>) snapshot;
+    width = other.width;
+    height = other.height;
+    fieldExists = other.fieldExists;
+    field = other.field;
+    cornerExists = other.cornerExists;
+    corner = other.corner;
+    cornerTag = other.cornerTag;
+    edgeExists = other.edgeExists;
+    edge = other.edge;
+    edgeTag = other.edgeTag;
+    edgesOfCorner = other.edgesOfCorner;
+    fieldsShared = true;
+    cornersShared = true;
+    edgesShared = true;
+  }
+}
@@ -0,0 +1,108 @@
+package ch.zhaw.hexboard;
+
+import java.awt.Point;
+
+/**
+ * This class packs coordinates of the grid defined by
+ * {@link ch.zhaw.hexboard.HexBoard} into primitive values.
+ * <p>
+ * A coordinate is packed into an int with x in the upper and y in the lower 16
+ * bits. Both are stored as signed 16 bit values. An edge is packed into a long
+ * holding the two packed corners, ordered the same way as {@link Edge} orders
+ * them (smaller x first, then smaller y), so both directions of an edge result
+ * in the same value.
+ * </p>
+ * <p>
+ * The packed values can be used with the corresponding methods of
+ * {@link ch.zhaw.hexboard.HexBoard} to work with the board without creating
+ * {@link Point} objects.
+ * </p>
+ */
+public final class Coordinates {
+
+  private Coordinates() {
+  }
+
+  /**
+   * Packs a coordinate.
+   * 
+   * @param x the x coordinate
+   * @param y the y coordinate
+   * @return the packed coordinate
+   * @throws IllegalArgumentException if x or y does not fit into a signed 16
+   *                                  bit value
+   */
+  public static int of(int x, int y) {
+    if (x != (short) x || y != (short) y) {
+      throw new IllegalArgumentException(
+          "Coordinates out of the 16 bit range: (" + x + ", " + y + ")");
+    }
+    return x << 16 | (y & 0xFFFF);
+  }
+
+  /**
+   * Packs a point.
+   * 
+   * @param p the point
+   * @return the packed coordinate
+   */
+  public static int of(Point p) {
+    return of(p.x, p.y);
+  }
+
+  public static int x(int coordinate) {
+    return coordinate >> 16;
+  }
+
+  public static int y(int coordinate) {
+    return (short) coordinate;
+  }
+
+  public static Point toPoint(int coordinate) {
+    return new Point(x(coordinate), y(coordinate));
+  }
+
+  /**
+   * Packs the edge between two coordinates. The order of the coordinates does
+   * not matter.
+   * 
+   * @param c1 first packed coordinate
+   * @param c2 second packed coordinate
+   * @return the packed edge
+   */
+  public static long edge(int c1, int c2) {
+    if (x(c1) > x(c2) || (x(c1) == x(c2) && y(c1) > y(c2))) {
+      return (long) c2 << 32 | (c1 & 0xFFFFFFFFL);
+    }
+    return (long) c1 << 32 | (c2 & 0xFFFFFFFFL);
+  }
+
+  /**
+   * Packs the edge between two points. The order of the points does not matter.
+   * 
+   * @param p1 first point
+   * @param p2 second point
+   * @return the packed edge
+   */
+  public static long edge(Point p1, Point p2) {
+    return edge(of(p1), of(p2));
+  }
+
+  public static int edgeStart(long edge) {
+    return (int) (edge >> 32);
+  }
+
+  public static int edgeEnd(long edge) {
+    return (int) edge;
+  }
+
+  /**
+   * Returns a readable representation of a packed coordinate.
+   * 
+   * @param coordinate the packed coordinate
+   * @return the coordinate as "(x, y)"
+   */
+  public static String toString(int coordinate) {
+    return "(" + x(coordinate) + ", " + y(coordinate) + ")";
+  }
+}
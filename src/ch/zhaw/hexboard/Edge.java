@@ -40,11 +40,14 @@ final class Edge {
   }
 
   static boolean isEdge(Point p1, Point p2) {
+    return p1 != null && p2 != null && isEdge(p1.x, p1.y, p2.x, p2.y);
+  }
+
+  static boolean isEdge(int x1, int y1, int x2, int y2) {
     boolean isEdge = false;
-    if (p1 != null && p2 != null && HexBoard.isCornerCoordinate(p1)
-        && HexBoard.isCornerCoordinate(p2)) {
-      int xdistance = Math.abs(p1.x - p2.x);
-      int ydistance = Math.abs(p1.y - p2.y);
+    if (HexBoard.isCornerCoordinate(x1, y1) && HexBoard.isCornerCoordinate(x2, y2)) {
+      int xdistance = Math.abs(x1 - x2);
+      int ydistance = Math.abs(y1 - y2);
       boolean isVerticalEdge = xdistance == 0 && ydistance == 2;
       boolean isDiagonalEdge = xdistance == 1 && ydistance == 1;
       isEdge = isVerticalEdge || isDiagonalEdge;
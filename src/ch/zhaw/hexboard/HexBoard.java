@@ -1,13 +1,13 @@
 package ch.zhaw.hexboard;
 
 import java.awt.Point;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
 
 /***
@@ -81,6 +81,19 @@ import java.util.Set;
  *       NW (C) NE
  * </pre>
  * 
+ * <p>
+ * How the data of fields, corners and edges is stored can be chosen when
+ * creating the board (see {@link StorageType}).
+ * </p>
+ * 
+ * <p>
+ * The data of the fields, corners and edges can be saved with
+ * {@link #snapshot()} and set back with {@link #restore(Snapshot)}. With the
+ * array storage a snapshot shares the data with the board until the board is
+ * changed. Annotations are not part of a snapshot, the tags of the corners and
+ * edges (see {@link #getCornerTag(int)}) are.
+ * </p>
+ * 
  * @param <F> Data type for the field data objects
  * @param <C> Data type for the corner data objects
  * @param <E> Data type for the edge data objects
@@ -92,19 +105,73 @@ import java.util.Set;
 public class HexBoard<F, C, E, A> {
   private int maxCoordinateX = 0;
   private int maxCoordinateY = 0;
-  private final Map<Point, F> field;
-  private final Map<Point, C> corner;
-  private final Map<Edge, E> edge;
+  private final HexBoardStorage<F, C, E> storage;
   private final Map<FieldAnnotationPosition, A> annotation;
+  private final Map<Point, List<A>> annotationsOfField;
+  private final Map<Point, List<A>> annotationsOfCorner;
+  private final List<ChangeListener> listeners = new ArrayList<>(1);
+
+  /**
+   * The available storage backends for the fields, corners and edges of a board.
+   */
+  public enum StorageType {
+    /**
+     * Stores the data in hash maps. Works for any coordinates.
+     */
+    MAP,
+    /**
+     * Stores the data in flat arrays indexed by the coordinates. Lookups do not
+     * need any hashing, but only non-negative coordinates are supported.
+     */
+    ARRAY
+  }
+
+  /**
+   * Is told about changes of the board, e.g. by a {@link HexBoardTextView} to
+   * only render again what changed.
+   */
+  interface ChangeListener {
+    /**
+     * Called after the data of a corner was set.
+     * 
+     * @param corner the packed coordinate of the corner
+     */
+    void cornerChanged(int corner);
+
+    /**
+     * Called after the data of an edge was set.
+     * 
+     * @param edge the packed edge
+     */
+    void edgeChanged(long edge);
+
+    /**
+     * Called after fields or annotations were added or a snapshot was restored.
+     */
+    void boardChanged();
+  }
 
   /**
-   * Constructs an empty hexagonal board.
+   * Constructs an empty hexagonal board that uses {@link StorageType#MAP}.
    */
   public HexBoard() {
-    field = new HashMap<>();
-    corner = new HashMap<>();
-    edge = new HashMap<>();
+    this(StorageType.MAP);
+  }
+
+  /**
+   * Constructs an empty hexagonal board with the specified storage backend.
+   * 
+   * @param storageType the storage backend for fields, corners and edges
+   */
+  public HexBoard(StorageType storageType) {
+    if (storageType == StorageType.ARRAY) {
+      storage = new ArrayStorage<>();
+    } else {
+      storage = new MapStorage<>();
+    }
     annotation = new HashMap<FieldAnnotationPosition, A>();
+    annotationsOfField = new HashMap<>();
+    annotationsOfCorner = new HashMap<>();
   }
 
   /**
@@ -119,22 +186,23 @@ public class HexBoard<F, C, E, A> {
    *                                  field already exists or data is null
    */
   public void addField(Point center, F element) {
-    if (isFieldCoordinate(center) && !field.containsKey(center)) {
-      field.put(center, element);
+    if (isFieldCoordinate(center) && !storage.hasField(center.x, center.y)) {
+      storage.putField(center.x, center.y, element);
       maxCoordinateX = Math.max(center.x + 1, maxCoordinateX);
       maxCoordinateY = Math.max(center.y + 2, maxCoordinateY);
       // add (empty) edge, if they do not yet exist
-      for (Edge e : constructEdgesOfField(center)) {
-        if (!edge.containsKey(e)) {
-          edge.put(e, null);
+      for (Point[] e : constructEdgesOfField(center)) {
+        if (!storage.hasEdge(e[0].x, e[0].y, e[1].x, e[1].y)) {
+          storage.putEdge(e[0].x, e[0].y, e[1].x, e[1].y, null);
         }
       }
       // add (empty) corners, if they do not yet exist
       for (Point p : getCornerCoordinatesOfField(center)) {
-        if (!corner.containsKey(p)) {
-          corner.put(p, null);
+        if (!storage.hasCorner(p.x, p.y)) {
+          storage.putCorner(p.x, p.y, null);
         }
       }
+      fireBoardChanged();
     } else {
       throw new IllegalArgumentException(
           "Coordinates are not the center of a field, the field already exists or data is null - ("
@@ -155,6 +223,11 @@ public class HexBoard<F, C, E, A> {
     FieldAnnotationPosition annotationPosition = new FieldAnnotationPosition(center, corner);
     if (!annotation.containsKey(annotationPosition)) {
       annotation.put(annotationPosition, data);
+      if (data != null) {
+        annotationsOfField.computeIfAbsent(new Point(center), p -> new ArrayList<>()).add(data);
+        annotationsOfCorner.computeIfAbsent(new Point(corner), p -> new ArrayList<>()).add(data);
+      }
+      fireBoardChanged();
     } else {
       throw new IllegalArgumentException("Annotation: " + annotation + " already exists for field "
           + center + " and position " + corner);
@@ -178,34 +251,22 @@ public class HexBoard<F, C, E, A> {
    * Get field annotation whose position information includes the specified corner.
    *  
    * @param corner the corner
-   * @return a list with the annotations that are not null
-   * @throws IllegalArgumentException if corner is not a corner
+   * @return an unmodifiable list with the annotations that are not null
    */
   public List<A> getFieldAnnotationsForCorner(Point corner) {
-    List<A> list = new LinkedList<>();
-    for (Entry<FieldAnnotationPosition, A> entry : annotation.entrySet()) {
-      if (entry.getKey().isCorner(corner) && entry.getValue() != null) {
-        list.add(entry.getValue());
-      }
-    }
-    return list;
+    List<A> list = annotationsOfCorner.get(corner);
+    return list == null ? Collections.emptyList() : Collections.unmodifiableList(list);
   }
 
   /**
    * Get all field annotation of the specified field.
    * 
    * @param center the field
-   * @return a list with the annotations that are not null
-   * @throws IllegalArgumentException if center is not a field
+   * @return an unmodifiable list with the annotations that are not null
    */
   public List<A> getFieldAnnotationsForField(Point center) {
-    List<A> list = new LinkedList<>();
-    for (Entry<FieldAnnotationPosition, A> entry : annotation.entrySet()) {
-      if (entry.getKey().isField(center) && entry.getValue() != null) {
-        list.add(entry.getValue());
-      }
-    }
-    return list;
+    List<A> list = annotationsOfField.get(center);
+    return list == null ? Collections.emptyList() : Collections.unmodifiableList(list);
   }
 
   /**
@@ -215,59 +276,80 @@ public class HexBoard<F, C, E, A> {
    * @return true, if the field exists
    */
   public boolean hasField(Point center) {
-    if (!HexBoard.isFieldCoordinate(center)) {
-      throw new IllegalArgumentException("Coordinates are not coordinates of a field: " + center);
+    return hasField(Coordinates.of(center));
+  }
+
+  /**
+   * Determines whether the field at the specified position exists.
+   * 
+   * @param center the packed coordinate of the field (see {@link Coordinates})
+   * @return true, if the field exists
+   */
+  public boolean hasField(int center) {
+    int x = Coordinates.x(center);
+    int y = Coordinates.y(center);
+    if (!HexBoard.isFieldCoordinate(x, y)) {
+      throw new IllegalArgumentException(
+          "Coordinates are not coordinates of a field: " + Coordinates.toString(center));
     }
-    return field.containsKey(center);
+    return storage.hasField(x, y);
   }
 
   static boolean isFieldCoordinate(Point position) {
-    boolean isYFieldCoordinateEven = (position.y - 2) % 6 == 0;
-    boolean isYFieldCoordinateOdd = (position.y - 5) % 6 == 0;
-    boolean isXFieldCoordinateEven = position.x % 2 == 0;
-    boolean isXFieldCoordinateOdd = (position.x - 1) % 2 == 0;
+    return isFieldCoordinate(position.x, position.y);
+  }
+
+  static boolean isFieldCoordinate(int x, int y) {
+    boolean isYFieldCoordinateEven = (y - 2) % 6 == 0;
+    boolean isYFieldCoordinateOdd = (y - 5) % 6 == 0;
+    boolean isXFieldCoordinateEven = x % 2 == 0;
+    boolean isXFieldCoordinateOdd = (x - 1) % 2 == 0;
 
-    return (position.y >= 2 && position.x >= 1)
+    return (y >= 2 && x >= 1)
         && (isYFieldCoordinateEven && isXFieldCoordinateEven)
         || (isYFieldCoordinateOdd && isXFieldCoordinateOdd);
   }
 
   static boolean isCornerCoordinate(Point p) {
+    return isCornerCoordinate(p.x, p.y);
+  }
+
+  static boolean isCornerCoordinate(int x, int y) {
     // On the horizontal center lines, no edge points exist
-    boolean isOnFieldCenterLineHorizontal = (p.y - 2) % 3 == 0;
+    boolean isOnFieldCenterLineHorizontal = (y - 2) % 3 == 0;
 
     // On the vertical center lines, edge points exist
-    boolean isOnFieldCenterLineVerticalOdd = (p.x - 1) % 3 == 0 && p.x % 2 == 0;
-    boolean isOnFieldCenterLineVerticalEven = (p.x - 1) % 3 == 0 && (p.x - 1) % 2 == 0;
+    boolean isOnFieldCenterLineVerticalOdd = (x - 1) % 3 == 0 && x % 2 == 0;
+    boolean isOnFieldCenterLineVerticalEven = (x - 1) % 3 == 0 && (x - 1) % 2 == 0;
     boolean isNotAnEdgePointOnFieldCentralVerticalLine = isOnFieldCenterLineVerticalOdd
-        && !(p.y % 6 == 0 || (p.y + 2) % 6 == 0)
-        || isOnFieldCenterLineVerticalEven && !((p.y + 5) % 6 == 0 || (p.y + 3) % 6 == 0);
+        && !(y % 6 == 0 || (y + 2) % 6 == 0)
+        || isOnFieldCenterLineVerticalEven && !((y + 5) % 6 == 0 || (y + 3) % 6 == 0);
 
     return !(isOnFieldCenterLineHorizontal || isNotAnEdgePointOnFieldCentralVerticalLine);
   }
 
-  private List<Edge> constructEdgesOfField(Point position) {
-    Edge[] e = new Edge[6];
-    e[0] = new Edge(new Point(position.x, position.y - 2),
-        new Point(position.x + 1, position.y - 1));
-    e[1] = new Edge(new Point(position.x + 1, position.y - 1),
-        new Point(position.x + 1, position.y + 1));
+  private List<Point[]> constructEdgesOfField(Point position) {
+    Point[][] e = new Point[6][];
+    e[0] = new Point[] {new Point(position.x, position.y - 2),
+        new Point(position.x + 1, position.y - 1)};
+    e[1] = new Point[] {new Point(position.x + 1, position.y - 1),
+        new Point(position.x + 1, position.y + 1)};
     // TODO: UNCOMENT following line and delete subesquent line for DEPLOY to
     // STUDENTS
     // e[2] = new Edge(new Point(position.x+1, position.y-1), new
     // Point(position.x+1, position.y+1));
-    e[2] = new Edge(new Point(position.x + 1, position.y + 1),
-        new Point(position.x, position.y + 2));
-    e[3] = new Edge(new Point(position.x, position.y + 2),
-        new Point(position.x - 1, position.y + 1));
-    e[4] = new Edge(new Point(position.x - 1, position.y + 1),
-        new Point(position.x - 1, position.y - 1));
-    e[5] = new Edge(new Point(position.x - 1, position.y - 1),
-        new Point(position.x, position.y - 2));
+    e[2] = new Point[] {new Point(position.x + 1, position.y + 1),
+        new Point(position.x, position.y + 2)};
+    e[3] = new Point[] {new Point(position.x, position.y + 2),
+        new Point(position.x - 1, position.y + 1)};
+    e[4] = new Point[] {new Point(position.x - 1, position.y + 1),
+        new Point(position.x - 1, position.y - 1)};
+    e[5] = new Point[] {new Point(position.x - 1, position.y - 1),
+        new Point(position.x, position.y - 2)};
     return Arrays.asList(e);
   }
 
-  private static List<Point> getCornerCoordinatesOfField(Point position) {
+  protected static List<Point> getCornerCoordinatesOfField(Point position) {
     Point[] corner = new Point[6];
     corner[0] = new Point(position.x, position.y - 2);
     corner[1] = new Point(position.x + 1, position.y - 1);
@@ -299,7 +381,8 @@ public class HexBoard<F, C, E, A> {
    */
   public List<C> getCorners() {
     List<C> result = new LinkedList<>();
-    for (C c : this.corner.values()) {
+    for (Point p : storage.getCornerCoordinates()) {
+      C c = storage.getCorner(p.x, p.y);
       if (c != null) {
         result.add(c);
       }
@@ -308,7 +391,7 @@ public class HexBoard<F, C, E, A> {
   }
 
   protected Set<Point> getCornerCoordinates() {
-    return Collections.unmodifiableSet(this.corner.keySet());
+    return storage.getCornerCoordinates();
   }
 
   private static List<Point> getAdjacentFields(Point corner) {
@@ -333,10 +416,24 @@ public class HexBoard<F, C, E, A> {
    * @throws IllegalArgumentException if the requested field does not exist
    */
   public F getField(Point center) {
-    if (field.containsKey(center)) {
-      return field.get(center);
+    return getField(Coordinates.of(center));
+  }
+
+  /**
+   * Returns the data for the field denoted by the packed coordinate.
+   * 
+   * @param center the packed coordinate of the field (see {@link Coordinates})
+   * @return the stored data (or null)
+   * @throws IllegalArgumentException if the requested field does not exist
+   */
+  public F getField(int center) {
+    int x = Coordinates.x(center);
+    int y = Coordinates.y(center);
+    if (storage.hasField(x, y)) {
+      return storage.getField(x, y);
     } else {
-      throw new IllegalArgumentException("No field exists at these coordinates: " + center);
+      throw new IllegalArgumentException(
+          "No field exists at these coordinates: " + Coordinates.toString(center));
     }
   }
 
@@ -347,9 +444,9 @@ public class HexBoard<F, C, E, A> {
    */
   public List<Point> getFields() {
     List<Point> result = new LinkedList<>();
-    for (Entry<Point, F> e : field.entrySet()) {
-      if (e.getValue() != null) {
-        result.add(e.getKey());
+    for (Point p : storage.getFieldCoordinates()) {
+      if (storage.getField(p.x, p.y) != null) {
+        result.add(p);
       }
     }
     return Collections.unmodifiableList(result);
@@ -368,8 +465,9 @@ public class HexBoard<F, C, E, A> {
     List<F> result = new LinkedList<>();
     if (isCornerCoordinate(corner)) {
       for (Point f : getAdjacentFields(corner)) {
-        if (field.get(f) != null) {
-          result.add(field.get(f));
+        F data = storage.getField(f.x, f.y);
+        if (data != null) {
+          result.add(data);
         }
       }
     }
@@ -385,9 +483,33 @@ public class HexBoard<F, C, E, A> {
    * @throws IllegalArgumentException if the requested edge does not exist
    */
   public E getEdge(Point p1, Point p2) {
-    Edge e = new Edge(p1, p2);
-    if (edge.containsKey(e)) {
-      return edge.get(e);
+    if (!Edge.isEdge(p1, p2)) {
+      throw new IllegalArgumentException(
+          "Coordinates " + p1 + " and " + p2 + " are not coordinates of an edge.");
+    }
+    return getEdge(Coordinates.edge(p1, p2));
+  }
+
+  /**
+   * Returns the data for the edge denoted by the packed edge.
+   * 
+   * @param edge the packed edge (see {@link Coordinates})
+   * @return the stored data (or null)
+   * @throws IllegalArgumentException if the requested edge does not exist
+   */
+  public E getEdge(long edge) {
+    int start = Coordinates.edgeStart(edge);
+    int end = Coordinates.edgeEnd(edge);
+    int x1 = Coordinates.x(start);
+    int y1 = Coordinates.y(start);
+    int x2 = Coordinates.x(end);
+    int y2 = Coordinates.y(end);
+    if (!Edge.isEdge(x1, y1, x2, y2)) {
+      throw new IllegalArgumentException("Coordinates " + Coordinates.toString(start) + " and "
+          + Coordinates.toString(end) + " are not coordinates of an edge.");
+    }
+    if (storage.hasEdge(x1, y1, x2, y2)) {
+      return storage.getEdge(x1, y1, x2, y2);
     } else {
       // TODO: Bug to be found. Violation of the "contract" in the javadoc
       return null;
@@ -405,11 +527,37 @@ public class HexBoard<F, C, E, A> {
    *                                  EXISTING edge of the field
    */
   public void setEdge(Point p1, Point p2, E data) {
-    Edge e = new Edge(p1, p2);
-    if (edge.containsKey(e)) {
-      edge.put(e, data);
+    if (Edge.isEdge(p1, p2)) {
+      setEdge(Coordinates.edge(p1, p2), data);
     } else {
-      throw new IllegalArgumentException("Edge does not exist => no data can be stored: " + e);
+      throw new IllegalArgumentException(
+          "Edge does not exist => no data can be stored: " + new Edge(p1, p2));
+    }
+  }
+
+  /**
+   * Stores the data for the edge denoted by the packed edge.
+   * 
+   * @param edge the packed edge (see {@link Coordinates})
+   * @param data the data to be stored
+   * @throws IllegalArgumentException if the packed edge does not identify an
+   *                                  EXISTING edge of the field
+   */
+  public void setEdge(long edge, E data) {
+    int start = Coordinates.edgeStart(edge);
+    int end = Coordinates.edgeEnd(edge);
+    int x1 = Coordinates.x(start);
+    int y1 = Coordinates.y(start);
+    int x2 = Coordinates.x(end);
+    int y2 = Coordinates.y(end);
+    if (Edge.isEdge(x1, y1, x2, y2) && storage.hasEdge(x1, y1, x2, y2)) {
+      storage.putEdge(x1, y1, x2, y2, data);
+      for (int i = 0; i < listeners.size(); i++) {
+        listeners.get(i).edgeChanged(edge);
+      }
+    } else {
+      throw new IllegalArgumentException("Edge does not exist => no data can be stored: "
+          + Coordinates.toString(start) + " - " + Coordinates.toString(end));
     }
   }
 
@@ -421,10 +569,24 @@ public class HexBoard<F, C, E, A> {
    * @throws IllegalArgumentException if the requested corner does not exist
    */
   public C getCorner(Point location) {
-    if (corner.containsKey(location)) {
-      return corner.get(location);
+    return getCorner(Coordinates.of(location));
+  }
+
+  /**
+   * Returns the data for the corner denoted by the packed coordinate.
+   * 
+   * @param location the packed coordinate of the corner (see {@link Coordinates})
+   * @return the data stored for this node (or null)
+   * @throws IllegalArgumentException if the requested corner does not exist
+   */
+  public C getCorner(int location) {
+    int x = Coordinates.x(location);
+    int y = Coordinates.y(location);
+    if (storage.hasCorner(x, y)) {
+      return storage.getCorner(x, y);
     } else {
-      throw new IllegalArgumentException("No corner exists at the coordinates: " + location);
+      throw new IllegalArgumentException(
+          "No corner exists at the coordinates: " + Coordinates.toString(location));
     }
   }
 
@@ -437,14 +599,135 @@ public class HexBoard<F, C, E, A> {
    * @throws IllegalArgumentException if there is no corner at this location
    */
   public C setCorner(Point location, C data) {
-    C old = corner.get(location);
-    if (corner.containsKey(location)) {
-      corner.put(location, data);
+    return setCorner(Coordinates.of(location), data);
+  }
+
+  /**
+   * Stores the data for the corner denoted by the packed coordinate.
+   * 
+   * @param location the packed coordinate of the corner (see {@link Coordinates})
+   * @param data     the data to be stored
+   * @return the old data entry (or null)
+   * @throws IllegalArgumentException if there is no corner at this location
+   */
+  public C setCorner(int location, C data) {
+    int x = Coordinates.x(location);
+    int y = Coordinates.y(location);
+    if (storage.hasCorner(x, y)) {
+      C old = storage.getCorner(x, y);
+      storage.putCorner(x, y, data);
+      for (int i = 0; i < listeners.size(); i++) {
+        listeners.get(i).cornerChanged(location);
+      }
       return old;
     } else {
       throw new IllegalArgumentException(
-          "Corner does not exist => no data can be stored: " + location);
+          "Corner does not exist => no data can be stored: " + Coordinates.toString(location));
+    }
+  }
+
+  /**
+   * Returns the tag of the corner denoted by the point. A tag is a byte that is
+   * stored beside the data of every corner and edge, e.g. for state that
+   * subclasses check often and keep without objects. Tags are part of a
+   * snapshot, but they are not shown by the views.
+   *
+   * @param location the location of the corner
+   * @return the tag, or 0 if no tag was stored or there is no such corner
+   */
+  protected byte getCornerTag(Point location) {
+    return getCornerTag(Coordinates.of(location));
+  }
+
+  /**
+   * Returns the tag of the corner denoted by the packed coordinate, like
+   * {@link #getCornerTag(Point)}.
+   *
+   * @param location the packed coordinate of the corner (see {@link Coordinates})
+   * @return the tag, or 0 if no tag was stored or there is no such corner
+   */
+  protected byte getCornerTag(int location) {
+    // tags are only stored for existing corners
+    return storage.getCornerTag(Coordinates.x(location), Coordinates.y(location));
+  }
+
+  /**
+   * Stores the tag of the corner denoted by the point.
+   *
+   * @param location the location of the corner
+   * @param tag      the tag
+   * @throws IllegalArgumentException if there is no corner at this location
+   */
+  protected void setCornerTag(Point location, byte tag) {
+    setCornerTag(Coordinates.of(location), tag);
+  }
+
+  /**
+   * Stores the tag of the corner denoted by the packed coordinate.
+   *
+   * @param location the packed coordinate of the corner (see {@link Coordinates})
+   * @param tag      the tag
+   * @throws IllegalArgumentException if there is no corner at this location
+   */
+  protected void setCornerTag(int location, byte tag) {
+    if (!hasCorner(location)) {
+      throw new IllegalArgumentException(
+          "Corner does not exist => no tag can be stored: " + Coordinates.toString(location));
+    }
+    storage.putCornerTag(Coordinates.x(location), Coordinates.y(location), tag);
+  }
+
+  /**
+   * Returns the tag of the edge denoted by the two points, like
+   * {@link #getCornerTag(Point)}.
+   *
+   * @param p1 first point
+   * @param p2 second point
+   * @return the tag, or 0 if no tag was stored or there is no such edge
+   */
+  protected byte getEdgeTag(Point p1, Point p2) {
+    return getEdgeTag(Coordinates.edge(p1, p2));
+  }
+
+  /**
+   * Returns the tag of the edge, like {@link #getCornerTag(int)}.
+   *
+   * @param edge the packed edge (see {@link Coordinates})
+   * @return the tag, or 0 if no tag was stored or there is no such edge
+   */
+  protected byte getEdgeTag(long edge) {
+    return getEdgeTag(storage, edge);
+  }
+
+  /**
+   * Stores the tag of the edge denoted by the two points.
+   *
+   * @param p1  first point
+   * @param p2  second point
+   * @param tag the tag
+   * @throws IllegalArgumentException if the two points do not identify an
+   *                                  EXISTING edge of the field
+   */
+  protected void setEdgeTag(Point p1, Point p2, byte tag) {
+    setEdgeTag(Coordinates.edge(p1, p2), tag);
+  }
+
+  /**
+   * Stores the tag of the edge.
+   *
+   * @param edge the packed edge (see {@link Coordinates})
+   * @param tag  the tag
+   * @throws IllegalArgumentException if there is no such edge
+   */
+  protected void setEdgeTag(long edge, byte tag) {
+    int start = Coordinates.edgeStart(edge);
+    int end = Coordinates.edgeEnd(edge);
+    if (!hasEdge(edge)) {
+      throw new IllegalArgumentException("Edge does not exist => no tag can be stored: "
+          + Coordinates.toString(start) + " - " + Coordinates.toString(end));
     }
+    storage.putEdgeTag(Coordinates.x(start), Coordinates.y(start), Coordinates.x(end),
+        Coordinates.y(end), tag);
   }
 
   /**
@@ -461,7 +744,7 @@ public class HexBoard<F, C, E, A> {
   public List<C> getNeighboursOfCorner(Point center) {
     List<C> result = new LinkedList<>();
     for (Point c : HexBoard.getAdjacentCorners(center)) {
-      C temp = corner.get(c);
+      C temp = storage.getCorner(c.x, c.y);
       if (temp != null) {
         result.add(temp);
       }
@@ -482,12 +765,9 @@ public class HexBoard<F, C, E, A> {
    */
   public List<E> getAdjacentEdges(Point corner) {
     List<E> result = new LinkedList<>();
-    for (Edge e : this.edge.keySet()) {
-      if (e.isEdgePoint(corner)) {
-        E temp = edge.get(e);
-        if (temp != null) {
-          result.add(temp);
-        }
+    for (E temp : storage.getEdgesOfCorner(corner.x, corner.y)) {
+      if (temp != null) {
+        result.add(temp);
       }
     }
     return result;
@@ -510,6 +790,94 @@ public class HexBoard<F, C, E, A> {
     return result;
   }
 
+  /**
+   * The data of the fields, corners and edges of a board at the time the
+   * snapshot was taken. A snapshot cannot be changed. Subclasses of
+   * {@link HexBoard} that keep further data can extend it.
+   *
+   * @param <F> Data type for the field data objects
+   * @param <C> Data type for the corner data objects
+   * @param <E> Data type for the edge data objects
+   */
+  public static class Snapshot<F, C, E> {
+    private final HexBoardStorage<F, C, E> storage;
+    private final int maxCoordinateX;
+    private final int maxCoordinateY;
+
+    private Snapshot(HexBoardStorage<F, C, E> storage, int maxCoordinateX, int maxCoordinateY) {
+      this.storage = storage;
+      this.maxCoordinateX = maxCoordinateX;
+      this.maxCoordinateY = maxCoordinateY;
+    }
+
+    /**
+     * Creates a snapshot that holds the same board data as the given one.
+     *
+     * @param snapshot the snapshot of the board data
+     */
+    protected Snapshot(Snapshot<F, C, E> snapshot) {
+      this(snapshot.storage, snapshot.maxCoordinateX, snapshot.maxCoordinateY);
+    }
+
+    /**
+     * Returns the tag of a corner at the time the snapshot was taken (see
+     * {@link HexBoard#getCornerTag(int)}). A snapshot is never changed, so this
+     * can be called by any thread while the board itself is changed.
+     *
+     * @param location the packed coordinate of the corner
+     * @return the tag, or 0 if no tag was stored or there is no such corner
+     */
+    public byte getCornerTag(int location) {
+      return storage.getCornerTag(Coordinates.x(location), Coordinates.y(location));
+    }
+
+    /**
+     * Returns the tag of an edge at the time the snapshot was taken, like
+     * {@link #getCornerTag(int)}.
+     *
+     * @param edge the packed edge
+     * @return the tag, or 0 if no tag was stored or there is no such edge
+     */
+    public byte getEdgeTag(long edge) {
+      return HexBoard.getEdgeTag(storage, edge);
+    }
+  }
+
+  /**
+   * Takes a snapshot of the data of all fields, corners and edges. Later
+   * changes to the board do not change the snapshot.
+   *
+   * @return the snapshot
+   */
+  public Snapshot<F, C, E> snapshot() {
+    return new Snapshot<>(storage.snapshot(), maxCoordinateX, maxCoordinateY);
+  }
+
+  /**
+   * Sets the data of all fields, corners and edges back to a snapshot. The
+   * snapshot can be restored any number of times.
+   *
+   * @param snapshot a snapshot taken from a board with the same storage type
+   * @throws IllegalArgumentException if the snapshot was taken from a board
+   *                                  with another storage type
+   */
+  public void restore(Snapshot<F, C, E> snapshot) {
+    storage.restore(snapshot.storage);
+    maxCoordinateX = snapshot.maxCoordinateX;
+    maxCoordinateY = snapshot.maxCoordinateY;
+    fireBoardChanged();
+  }
+
+  void addChangeListener(ChangeListener listener) {
+    listeners.add(listener);
+  }
+
+  private void fireBoardChanged() {
+    for (int i = 0; i < listeners.size(); i++) {
+      listeners.get(i).boardChanged();
+    }
+  }
+
   int getMaxCoordinateX() {
     return maxCoordinateX;
   }
@@ -524,10 +892,17 @@ public class HexBoard<F, C, E, A> {
    * @return true, if there is a corner at this location 
    */
   public boolean hasCorner(Point location) {
-    if (!HexBoard.isCornerCoordinate(location)) {
-      return false;
-    }
-    return corner.containsKey(location);
+    return hasCorner(Coordinates.of(location));
+  }
+
+  /**
+   * Checks whether there is a corner at that specified location.
+   * @param location the packed coordinate to check (see {@link Coordinates})
+   * @return true, if there is a corner at this location 
+   */
+  public boolean hasCorner(int location) {
+    // the storage only holds corners at corner coordinates
+    return storage.hasCorner(Coordinates.x(location), Coordinates.y(location));
   }
 
   /**
@@ -538,12 +913,50 @@ public class HexBoard<F, C, E, A> {
    */
   public boolean hasEdge(Point p1, Point p2) {
     if (Edge.isEdge(p1, p2)) {
-      return edge.containsKey(new Edge(p1, p2));
+      return hasEdge(Coordinates.edge(p1, p2));
     } else {
       return false;
     }
   }
 
+  /**
+   * Checks whether there is an edge at the packed edge.
+   * @param edge the packed edge (see {@link Coordinates})
+   * @return true, if there is such an edge
+   */
+  public boolean hasEdge(long edge) {
+    return hasEdge(storage, edge);
+  }
+
+  /**
+   * Checks the corners of an edge before the edge itself, since the array
+   * storage finds an edge by the sum of its corners, which is only unique for
+   * two existing corners that are direct neighbours on the grid.
+   */
+  private static boolean hasEdge(HexBoardStorage<?, ?, ?> storage, long edge) {
+    int start = Coordinates.edgeStart(edge);
+    int end = Coordinates.edgeEnd(edge);
+    int x1 = Coordinates.x(start);
+    int y1 = Coordinates.y(start);
+    int x2 = Coordinates.x(end);
+    int y2 = Coordinates.y(end);
+    int xDistance = Math.abs(x1 - x2);
+    int yDistance = Math.abs(y1 - y2);
+    return (xDistance == 0 && yDistance == 2 || xDistance == 1 && yDistance == 1)
+        && storage.hasCorner(x1, y1) && storage.hasCorner(x2, y2)
+        && storage.hasEdge(x1, y1, x2, y2);
+  }
+
+  private static byte getEdgeTag(HexBoardStorage<?, ?, ?> storage, long edge) {
+    if (!hasEdge(storage, edge)) {
+      return 0;
+    }
+    int start = Coordinates.edgeStart(edge);
+    int end = Coordinates.edgeEnd(edge);
+    return storage.getEdgeTag(Coordinates.x(start), Coordinates.y(start),
+        Coordinates.x(end), Coordinates.y(end));
+  }
+
   static boolean isCorner(Point field, Point corner) {
     return HexBoard.isFieldCoordinate(field)
         && HexBoard.getCornerCoordinatesOfField(field).contains(corner);
@@ -0,0 +1,158 @@
+package ch.zhaw.hexboard;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * This class writes the text of a {@link HexBoardTextView} to a terminal that
+ * understands ANSI escape sequences, e.g. for spectators of a game over a slow
+ * connection.
+ * <p>
+ * The first call of {@link #render(Appendable)} clears the screen and writes
+ * the whole text. The text is kept as the frame the terminal shows. Every
+ * further call compares the current text of the view with the frame and only
+ * writes the characters that changed, each run of them after a sequence that
+ * moves the cursor there. A changed label of a corner or an edge thus takes
+ * about a dozen bytes instead of the whole board. If the size of the text
+ * changed, e.g. because a field was added, the whole text is written again.
+ * </p>
+ * <p>
+ * Subclasses can write the whole text in another way, e.g. with coordinates
+ * around it, by overriding {@link #writeFrame(Appendable)}.
+ * </p>
+ */
+public class HexBoardAnsiView {
+  /**
+   * Moves the cursor to the top left corner and clears the screen.
+   */
+  public static final String CLEAR_SCREEN = "\u001b[H\u001b[2J";
+  private static final String CSI = "\u001b[";
+  // unchanged characters between two changes that are written again instead
+  // of moving the cursor, which takes up to eight characters
+  private static final int MAX_GAP = 6;
+
+  private final HexBoardTextView<?, ?, ?, ?> view;
+  private final int top;
+  private final int left;
+  private char[] frame;
+  private int[] frameLineStarts;
+
+  /**
+   * Creates an ANSI view for a text view.
+   *
+   * @param view the text view
+   * @param top  the row of the terminal the first line of the text is shown
+   *             in, starting with 1
+   * @param left the column of the terminal the text starts in, starting with 1
+   */
+  public HexBoardAnsiView(HexBoardTextView<?, ?, ?, ?> view, int top, int left) {
+    if (top < 1 || left < 1) {
+      throw new IllegalArgumentException("Rows and columns start with 1.");
+    }
+    this.view = view;
+    this.top = top;
+    this.left = left;
+  }
+
+  /**
+   * Writes what changed since the last call to the output. At the end, the
+   * cursor is on the first column of the row below the text.
+   *
+   * @param out where the escape sequences and the text are written to
+   * @throws IOException if the output cannot be written
+   */
+  public void render(Appendable out) throws IOException {
+    int lines = view.updateLines();
+    char[] text = view.getText();
+    if (frame == null || frame.length != text.length || frameLineStarts.length != lines + 1
+        || !hasSameLines(lines)) {
+      writeFrame(out);
+      frame = text.clone();
+      frameLineStarts = new int[lines + 1];
+      for (int line = 0; line <= lines; line++) {
+        frameLineStarts[line] = view.getLineStart(line);
+      }
+      return;
+    }
+
+    boolean changed = false;
+    for (int line = 0; line < lines; line++) {
+      int start = frameLineStarts[line];
+      int end = frameLineStarts[line + 1];
+      int i = start;
+      while (i < end) {
+        int mismatch = Arrays.mismatch(text, i, end, frame, i, end);
+        if (mismatch < 0) {
+          break;
+        }
+        int first = i + mismatch;
+        int last = first + 1;
+        while (last < end) {
+          int gap = Arrays.mismatch(text, last, end, frame, last, end);
+          if (gap < 0 || gap > MAX_GAP) {
+            break;
+          }
+          last += gap + 1;
+        }
+        moveCursor(out, top + line, left + first - start);
+        view.appendText(out, first, last - first);
+        System.arraycopy(text, first, frame, first, last - first);
+        changed = true;
+        i = last;
+      }
+    }
+    if (changed) {
+      moveCursor(out, top + lines, 1);
+    }
+  }
+
+  /**
+   * Writes the whole text again at the next call of {@link #render(Appendable)},
+   * e.g. because the screen of the terminal was cleared.
+   */
+  public void reset() {
+    frame = null;
+  }
+
+  /**
+   * Clears the screen and writes the whole text of the view, which is up to
+   * date. The text has to start at the row and column given at creation, and
+   * the cursor has to end on the first column of the row below the text.
+   *
+   * @param out where the text is written to
+   * @throws IOException if the output cannot be written
+   */
+  protected void writeFrame(Appendable out) throws IOException {
+    out.append(CLEAR_SCREEN);
+    int lines = view.updateLines();
+    for (int line = 0; line < lines; line++) {
+      moveCursor(out, top + line, left);
+      view.appendLine(out, line);
+    }
+    moveCursor(out, top + lines, 1);
+  }
+
+  private boolean hasSameLines(int lines) {
+    for (int line = 0; line <= lines; line++) {
+      if (frameLineStarts[line] != view.getLineStart(line)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static void moveCursor(Appendable out, int row, int column) throws IOException {
+    out.append(CSI);
+    appendNumber(out, row);
+    out.append(';');
+    appendNumber(out, column);
+    out.append('H');
+  }
+
+  private static void appendNumber(Appendable out, int number) throws IOException {
+    if (number >= 10) {
+      appendNumber(out, number / 10);
+    }
+    out.append((char) ('0' + number % 10));
+  }
+}
@@ -0,0 +1,105 @@
+package ch.zhaw.hexboard;
+
+import java.awt.Point;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * This interface abstracts how the data elements of the fields, corners and
+ * edges of a {@link HexBoard} are stored.
+ * <p>
+ * All positions are given as plain coordinates on the grid defined by
+ * {@link HexBoard}. Edges are identified by the coordinates of the two corners
+ * they connect, in any order. Implementations do not validate whether the
+ * coordinates are valid field, corner or edge coordinates; this is done by
+ * {@link HexBoard}.
+ * </p>
+ * <p>
+ * Besides its data element, every corner and edge has a tag of one byte, which
+ * is 0 until it is set. The tags are stored in the same way as the data
+ * elements and are part of a snapshot.
+ * </p>
+ * <p>
+ * Lookups of positions that do not exist return false, null or 0
+ * respectively.
+ * </p>
+ *
+ * @param <F> Data type for the field data objects
+ * @param <C> Data type for the corner data objects
+ * @param <E> Data type for the edge data objects
+ */
+interface HexBoardStorage<F, C, E> {
+
+  boolean hasField(int x, int y);
+
+  F getField(int x, int y);
+
+  /**
+   * Creates the field if it does not yet exist and stores the data element.
+   */
+  void putField(int x, int y, F data);
+
+  /**
+   * Returns the coordinates of all existing fields.
+   */
+  List<Point> getFieldCoordinates();
+
+  boolean hasCorner(int x, int y);
+
+  C getCorner(int x, int y);
+
+  /**
+   * Creates the corner if it does not yet exist and stores the data element.
+   */
+  void putCorner(int x, int y, C data);
+
+  /**
+   * Returns the coordinates of all existing corners.
+   */
+  Set<Point> getCornerCoordinates();
+
+  byte getCornerTag(int x, int y);
+
+  /**
+   * Stores the tag of an existing corner.
+   */
+  void putCornerTag(int x, int y, byte tag);
+
+  boolean hasEdge(int x1, int y1, int x2, int y2);
+
+  E getEdge(int x1, int y1, int x2, int y2);
+
+  /**
+   * Creates the edge if it does not yet exist and stores the data element.
+   */
+  void putEdge(int x1, int y1, int x2, int y2, E data);
+
+  byte getEdgeTag(int x1, int y1, int x2, int y2);
+
+  /**
+   * Stores the tag of an existing edge.
+   */
+  void putEdgeTag(int x1, int y1, int x2, int y2, byte tag);
+
+  /**
+   * Returns the data elements (including null) of the existing edges that
+   * connect to the specified corner. The edges of each corner are indexed when
+   * the edges are created, hence this does not need to look at other edges.
+   */
+  List<E> getEdgesOfCorner(int x, int y);
+
+  /**
+   * Returns a storage with the same data. Later changes to this storage do not
+   * change the returned storage and vice versa.
+   */
+  HexBoardStorage<F, C, E> snapshot();
+
+  /**
+   * Replaces all data of this storage by the data of a storage returned by
+   * {@link #snapshot()}. The snapshot is not changed and can be restored again.
+   *
+   * @throws IllegalArgumentException if the snapshot was taken from a storage
+   *                                  of another type
+   */
+  void restore(HexBoardStorage<F, C, E> snapshot);
+}
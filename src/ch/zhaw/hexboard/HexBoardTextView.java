@@ -1,6 +1,10 @@
 package ch.zhaw.hexboard;
 
 import java.awt.Point;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -87,6 +91,20 @@ import java.util.Map;
  *          (CL)
  * </pre>
  * </p>
+ * <p>
+ * The text is kept in a character grid between two calls of
+ * {@link #toString()}. The view is told by the board which corners and edges
+ * were set since, and only their labels are written again. Adding fields or
+ * annotations, restoring a snapshot of the board or setting a lower field label
+ * renders the whole board again.
+ * </p>
+ * <p>
+ * With {@link #render(Appendable)} the text is written from the grid straight
+ * to a {@link Writer}, a {@link CharBuffer}, a {@link StringBuilder} or any
+ * other {@link Appendable} without creating a string. Subclasses can decorate
+ * the lines, e.g. with coordinates, using {@link #updateLines()} and
+ * {@link #appendLine(Appendable, int)}.
+ * </p>
  * 
  * @param <F> See {@link ch.zhaw.hexboard.HexBoard}
  * @param <C> See {@link ch.zhaw.hexboard.HexBoard}
@@ -97,6 +115,9 @@ import java.util.Map;
  * @author tebe
  */
 public class HexBoardTextView<F, C, E, A> {
+  private static final String LINE_SEPARATOR = System.lineSeparator();
+  private static final int MAX_CHANGES = 256;
+  private static final int NONE = -1;
 
   private final HexBoard<F, C, E, A> board;
   private final Label emptyLabel = new Label(' ', ' ');
@@ -105,6 +126,21 @@ public class HexBoardTextView<F, C, E, A> {
   private final Label defaultVerticalEdgeLabel = new Label('|', '|');
   private Map<Point, Label> fixedLowerFieldLabels;
 
+  // the rendered board and where the labels of the corners and edges are in it
+  private char[] grid;
+  private int[] lineStarts;
+  private int lineCount;
+  private int gridWidth;
+  private int gridHeight;
+  private int[] cornerOffsets;
+  private int[] upperEdgeOffsets;
+  private int[] lowerEdgeOffsets;
+  private final int[] changedCorners = new int[MAX_CHANGES];
+  private final long[] changedEdges = new long[MAX_CHANGES];
+  private int changedCornerCount = 0;
+  private int changedEdgeCount = 0;
+  private boolean valid = false;
+
   /**
    * Creates a view for the specified board.
    * 
@@ -113,6 +149,34 @@ public class HexBoardTextView<F, C, E, A> {
   public HexBoardTextView(HexBoard<F, C, E, A> board) {
     this.fixedLowerFieldLabels = new HashMap<>();
     this.board = board;
+    board.addChangeListener(new HexBoard.ChangeListener() {
+      @Override
+      public void cornerChanged(int corner) {
+        if (valid) {
+          if (changedCornerCount < MAX_CHANGES) {
+            changedCorners[changedCornerCount++] = corner;
+          } else {
+            valid = false;
+          }
+        }
+      }
+
+      @Override
+      public void edgeChanged(long edge) {
+        if (valid) {
+          if (changedEdgeCount < MAX_CHANGES) {
+            changedEdges[changedEdgeCount++] = edge;
+          } else {
+            valid = false;
+          }
+        }
+      }
+
+      @Override
+      public void boardChanged() {
+        valid = false;
+      }
+    });
   }
 
   /**
@@ -128,6 +192,7 @@ public class HexBoardTextView<F, C, E, A> {
       throw new IllegalArgumentException("Argument(s) must not be null and field must exist.");
     }
     fixedLowerFieldLabels.put(field, label);
+    valid = false;
   }
 
   /**
@@ -189,9 +254,72 @@ public class HexBoardTextView<F, C, E, A> {
     return label;
   }
 
+  private Label getAnnotationLabel(A annotation) {
+    if (annotation == null) {
+      return emptyLabel;
+    } else {
+      return deriveLabelFromToStringRepresentation(annotation);
+    }
+  }
+
+  private Label getCornerLabel(int corner) {
+    C data = board.getCorner(corner);
+    return data != null ? getCornerLabel(data) : emptyLabel;
+  }
+
+  private Label getEdgeLabel(int x1, int y1, int x2, int y2) {
+    long edge = Coordinates.edge(Coordinates.of(x1, y1), Coordinates.of(x2, y2));
+    if (!board.hasEdge(edge)) {
+      return emptyLabel;
+    }
+    E data = board.getEdge(edge);
+    if (data != null) {
+      return getEdgeLabel(data);
+    } else if (x1 == x2) {
+      return defaultVerticalEdgeLabel;
+    } else if ((x2 - x1) * (y2 - y1) > 0) {
+      return defaultDiagonalEdgeDownLabel;
+    } else {
+      return defaultDiagonalEdgeUpLabel;
+    }
+  }
+
+  private static void append(StringBuilder sb, Label label) {
+    sb.append(label.getFirst()).append(label.getSecond());
+  }
+
+  private static void appendSpaces(StringBuilder sb, int count) {
+    for (int i = 0; i < count; i++) {
+      sb.append(' ');
+    }
+  }
+
+  private int cornerIndex(int x, int y) {
+    if (x < 0 || y < 0 || x >= gridWidth || y >= gridHeight) {
+      return NONE;
+    }
+    return y * gridWidth + x;
+  }
+
+  /**
+   * Returns the index of an edge, an edge is identified by its left (or for
+   * vertical edges upper) corner and its direction from there.
+   */
+  private int edgeIndex(int x1, int y1, int x2, int y2) {
+    if (x2 < x1 || x2 == x1 && y2 < y1) {
+      return edgeIndex(x2, y2, x1, y1);
+    }
+    int corner = cornerIndex(x1, y1);
+    if (corner == NONE) {
+      return NONE;
+    }
+    int direction = x1 == x2 ? 2 : y2 > y1 ? 1 : 0;
+    return corner * 3 + direction;
+  }
+
   /**
    * <p>
-   * This method returns a single-line string with all corners and field
+   * This method appends a single-line string with all corners and field
    * annotations for a given y-coordinate. It produces the string by iterating
    * over corner positions and appending per corner:
    * </p>
@@ -202,143 +330,242 @@ public class HexBoardTextView<F, C, E, A> {
    * Corners/labels that do not exist are replaced by spaces.
    * </p>
    */
-  private String printCornerLine(int y) {
-    String cornerLine = "";
+  private void appendCornerLine(StringBuilder sb, int y) {
     int offset = 0;
     if (y % 2 != 0) {
-      cornerLine += "         ";
+      appendSpaces(sb, 9);
       offset = 1;
     }
     for (int x = offset; x <= board.getMaxCoordinateX(); x = x + 2) {
-      Point p = new Point(x, y);
-      Label cornerLabel = emptyLabel;
-
       // handle corner labels for corners other than north and south corners
       Point center;
-      Label first = null;
-      Label second = null;
+      Label first;
+      Label second;
       switch (y % 3) {
         case 0:
           center = new Point(x + 1, y - 1);
-          first = this.getAnnotationLabel(
-              board.getFieldAnnotation(center, new Point(center.x - 1, center.y + 1)));
-          second = this.getAnnotationLabel(
-              board.getFieldAnnotation(center, new Point(center.x + 1, center.y + 1)));
           break;
         case 1:
           center = new Point(x + 1, y + 1);
-          first = this.getAnnotationLabel(
-              board.getFieldAnnotation(center, new Point(center.x - 1, center.y - 1)));
-          second = this.getAnnotationLabel(
-              board.getFieldAnnotation(center, new Point(center.x + 1, center.y - 1)));
           break;
         default:
-          throw new IllegalArgumentException("Not a corner line"); 
+          throw new IllegalArgumentException("Not a corner line");
       }
+      first = getAnnotationLabel(board.getFieldAnnotation(center, new Point(x, y)));
+      second = getAnnotationLabel(board.getFieldAnnotation(center, new Point(x + 2, y)));
 
-      if (board.hasCorner(p)) {
-        cornerLabel = board.getCorner(p) != null ? getCornerLabel(board.getCorner(p)) : emptyLabel;
-        cornerLine += "(" + cornerLabel.getFirst() + cornerLabel.getSecond() + ")";
+      int corner = Coordinates.of(x, y);
+      if (board.hasCorner(corner)) {
+        sb.append('(');
+        cornerOffsets[cornerIndex(x, y)] = sb.length();
+        append(sb, getCornerLabel(corner));
+        sb.append(')');
       } else {
-        cornerLine += "    ";
+        appendSpaces(sb, 4);
       }
-      cornerLine += " " + first.getFirst() + first.getSecond() + "        " + second.getFirst()
-          + second.getSecond() + " ";
+      sb.append(' ');
+      append(sb, first);
+      appendSpaces(sb, 8);
+      append(sb, second);
+      sb.append(' ');
     }
-    return cornerLine;
+    sb.append(LINE_SEPARATOR);
   }
 
-  private Label getAnnotationLabel(A annotation) {
-    if (annotation == null) {
-      return emptyLabel;
-    } else {
-      return deriveLabelFromToStringRepresentation(annotation);
-    }
-  }
-
-  private String printMiddlePartOfField(int y) {
+  private void appendMiddlePartOfField(StringBuilder sb, int y) {
     boolean isOffsetRow = (y - 2) % 6 == 0;
-    String lower = isOffsetRow ? "         " : "";
-    String upper = lower;
     int xstart = isOffsetRow ? 2 : 1;
+    for (int line = 0; line < 2; line++) {
+      int[] edgeOffsets = line == 0 ? upperEdgeOffsets : lowerEdgeOffsets;
+      if (isOffsetRow) {
+        appendSpaces(sb, 9);
+      }
+      for (int x = xstart; x <= board.getMaxCoordinateX() + 1; x = x + 2) {
+        sb.append(' ');
+        int edge = edgeIndex(x - 1, y - 1, x - 1, y + 1);
+        if (edge != NONE) {
+          edgeOffsets[edge] = sb.length();
+        }
+        append(sb, getEdgeLabel(x - 1, y - 1, x - 1, y + 1));
+        appendSpaces(sb, 7);
+        Point center = new Point(x, y);
+        if (board.hasField(center) && board.getField(center) != null) {
+          append(sb, line == 0 ? getFieldLabelUpper(board.getField(center))
+              : getFieldLabelLower(center));
+        } else {
+          append(sb, emptyLabel);
+        }
+        appendSpaces(sb, 6);
+      }
+      sb.append(LINE_SEPARATOR);
+    }
+  }
 
-    for (int x = xstart; x <= board.getMaxCoordinateX() + 1; x = x + 2) {
-      Point edgeStart = new Point(x - 1, y - 1);
-      Point edgeEnd = new Point(x - 1, y + 1);
-      Label l = this.emptyLabel;
-      if (board.hasEdge(edgeStart, edgeEnd)) {
-        E edge = board.getEdge(edgeStart, edgeEnd);
-        if (edge != null) {
-          l = this.getEdgeLabel(edge);
+  private void appendDiagonalEdges(StringBuilder sb, int y) {
+    for (int line = 0; line < 2; line++) {
+      int[] edgeOffsets = line == 0 ? upperEdgeOffsets : lowerEdgeOffsets;
+      boolean isDown = y % 6 == 0;
+      sb.append("   ");
+      for (int x = 0; x <= board.getMaxCoordinateX(); x = x + 1) {
+        int x1 = x;
+        int y1 = isDown ? y : y + 1;
+        int x2 = x + 1;
+        int y2 = isDown ? y + 1 : y;
+        A annotation;
+        if (isDown) {
+          annotation = board.getFieldAnnotation(new Point(x + 1, y - 1), new Point(x + 1, y + 1));
         } else {
-          l = this.defaultVerticalEdgeLabel;
+          annotation = board.getFieldAnnotation(new Point(x + 1, y + 2), new Point(x + 1, y));
+        }
+        Label annotationLabel = getAnnotationLabel(annotation);
+        appendSpaces(sb, isDown == (line == 0) ? 1 : 4);
+        int edge = edgeIndex(x1, y1, x2, y2);
+        if (edge != NONE) {
+          edgeOffsets[edge] = sb.length();
         }
+        append(sb, getEdgeLabel(x1, y1, x2, y2));
+        appendSpaces(sb, isDown == (line == 0) ? 5 : 2);
+        sb.append(line == 0 ? annotationLabel.getFirst() : annotationLabel.getSecond());
+        isDown = !isDown;
       }
-      Point center = new Point(x, y);
-      boolean hasFieldWithData = board.hasField(center) && board.getField(center) != null;
-      Label lowerFieldLabel = hasFieldWithData ? getFieldLabelLower(center) : emptyLabel;
-      Label upperFieldLabel = hasFieldWithData ? getFieldLabelUpper(board.getField(center))
-          : emptyLabel;
-      lower += " " + l.getFirst() + l.getSecond() + "       " + lowerFieldLabel.getFirst()
-          + lowerFieldLabel.getSecond() + "      ";
-      upper += " " + l.getFirst() + l.getSecond() + "       " + upperFieldLabel.getFirst()
-          + upperFieldLabel.getSecond() + "      ";
+      sb.append(LINE_SEPARATOR);
     }
-    return upper + System.lineSeparator() + lower;
   }
 
-  private void printDiagonalEdge(StringBuilder upper, StringBuilder lower, boolean down, Label l,
-      Label annotationLabel) {
-    if (down) {
-      upper.append(" " + l.getFirst() + l.getSecond() + "     " + annotationLabel.getFirst());
-      lower.append("    " + l.getFirst() + l.getSecond() + "  " + annotationLabel.getSecond());
-    } else {
-      upper.append("    " + l.getFirst() + l.getSecond() + "  " + annotationLabel.getFirst());
-      lower.append(" " + l.getFirst() + l.getSecond() + "     " + annotationLabel.getSecond());
+  private void render() {
+    gridWidth = board.getMaxCoordinateX() + 2;
+    gridHeight = board.getMaxCoordinateY() + 4;
+    cornerOffsets = new int[gridWidth * gridHeight];
+    upperEdgeOffsets = new int[cornerOffsets.length * 3];
+    lowerEdgeOffsets = new int[cornerOffsets.length * 3];
+    Arrays.fill(cornerOffsets, NONE);
+    Arrays.fill(upperEdgeOffsets, NONE);
+    Arrays.fill(lowerEdgeOffsets, NONE);
+
+    StringBuilder sb = new StringBuilder(grid != null ? grid.length : 0);
+    for (int y = 0; y <= board.getMaxCoordinateY(); y = y + 3) {
+      appendCornerLine(sb, y);
+      appendDiagonalEdges(sb, y);
+      appendCornerLine(sb, y + 1);
+      appendMiddlePartOfField(sb, y + 2);
     }
+    grid = new char[sb.length()];
+    sb.getChars(0, grid.length, grid, 0);
+
+    // every line ends with a line separator
+    lineStarts = new int[(board.getMaxCoordinateY() / 3 + 1) * 6 + 1];
+    lineCount = 0;
+    for (int start = 0; start < grid.length; lineCount++) {
+      lineStarts[lineCount] = start;
+      start = sb.indexOf(LINE_SEPARATOR, start) + LINE_SEPARATOR.length();
+    }
+    lineStarts[lineCount] = grid.length;
+    changedCornerCount = 0;
+    changedEdgeCount = 0;
+    valid = true;
   }
 
-  private String printDiagonalEdges(int y) {
-    StringBuilder sbUpper = new StringBuilder();
-    StringBuilder sbLower = new StringBuilder();
-    boolean isDown = false;
-    if (y % 6 == 0) {
-      isDown = true;
+  private void write(int offset, Label label) {
+    if (offset != NONE) {
+      grid[offset] = label.getFirst();
+      grid[offset + 1] = label.getSecond();
     }
+  }
 
-    Point edgeStart;
-    Point edgeEnd;
-    A annotation = null;
-    Label l;
-    sbUpper.append("   ");
-    sbLower.append("   ");
-    for (int x = 0; x <= board.getMaxCoordinateX(); x = x + 1) {
-      if (isDown) {
-        edgeStart = new Point(x, y);
-        edgeEnd = new Point(x + 1, y + 1);
-        annotation = board.getFieldAnnotation(new Point(x + 1, y - 1), new Point(x + 1, y + 1));
-      } else {
-        edgeStart = new Point(x, y + 1);
-        edgeEnd = new Point(x + 1, y);
-        annotation = board.getFieldAnnotation(new Point(x + 1, y + 2), new Point(x + 1, y));
+  private void renderChanges() {
+    for (int i = 0; i < changedCornerCount; i++) {
+      int corner = changedCorners[i];
+      int index = cornerIndex(Coordinates.x(corner), Coordinates.y(corner));
+      if (index != NONE) {
+        write(cornerOffsets[index], getCornerLabel(corner));
       }
-      // does the edge exist?
-      if (board.hasEdge(edgeStart, edgeEnd)) {
-        // does it have data associated with it?
-        if (board.getEdge(edgeStart, edgeEnd) != null) {
-          l = this.getEdgeLabel(board.getEdge(edgeStart, edgeEnd));
-        } else {
-          // default visualization
-          l = isDown ? this.defaultDiagonalEdgeDownLabel : this.defaultDiagonalEdgeUpLabel;
-        }
-      } else {
-        l = this.emptyLabel;
-
+    }
+    for (int i = 0; i < changedEdgeCount; i++) {
+      int start = Coordinates.edgeStart(changedEdges[i]);
+      int end = Coordinates.edgeEnd(changedEdges[i]);
+      int x1 = Coordinates.x(start);
+      int y1 = Coordinates.y(start);
+      int x2 = Coordinates.x(end);
+      int y2 = Coordinates.y(end);
+      int index = edgeIndex(x1, y1, x2, y2);
+      if (index != NONE) {
+        Label label = getEdgeLabel(x1, y1, x2, y2);
+        write(upperEdgeOffsets[index], label);
+        write(lowerEdgeOffsets[index], label);
       }
-      this.printDiagonalEdge(sbUpper, sbLower, isDown, l, this.getAnnotationLabel(annotation));
-      isDown = !isDown;
     }
-    return sbUpper.toString() + System.lineSeparator() + sbLower.toString();
+    changedCornerCount = 0;
+    changedEdgeCount = 0;
+  }
+
+  /**
+   * Brings the text up to date with the board.
+   * 
+   * @return the number of lines of the text
+   */
+  protected int updateLines() {
+    if (valid) {
+      renderChanges();
+    } else {
+      render();
+    }
+    return lineCount;
+  }
+
+  /**
+   * Appends a line of the text as it was at the last call of
+   * {@link #updateLines()}, without the line separator.
+   * 
+   * @param out  where the line is appended to
+   * @param line the index of the line
+   * @throws IOException if the line cannot be appended
+   */
+  protected void appendLine(Appendable out, int line) throws IOException {
+    if (line < 0 || line >= lineCount) {
+      throw new IndexOutOfBoundsException("Not a line of the board: " + line);
+    }
+    int start = lineStarts[line];
+    appendText(out, start, lineStarts[line + 1] - LINE_SEPARATOR.length() - start);
+  }
+
+  /**
+   * Writes the text to the specified output, like {@link #toString()} but
+   * without creating a string.
+   * 
+   * @param out where the text is written to
+   * @throws IOException if the text cannot be written
+   */
+  public void render(Appendable out) throws IOException {
+    updateLines();
+    appendText(out, 0, grid.length);
+  }
+
+  /**
+   * Returns the text as it was at the last call of {@link #updateLines()}. The
+   * array must not be changed.
+   */
+  char[] getText() {
+    return grid;
+  }
+
+  /**
+   * Returns the offset of a line in {@link #getText()}, the offset after the
+   * last line for the number of lines.
+   */
+  int getLineStart(int line) {
+    return lineStarts[line];
+  }
+
+  void appendText(Appendable out, int start, int length) throws IOException {
+    if (out instanceof Writer) {
+      ((Writer) out).write(grid, start, length);
+    } else if (out instanceof CharBuffer) {
+      ((CharBuffer) out).put(grid, start, length);
+    } else if (out instanceof StringBuilder) {
+      ((StringBuilder) out).append(grid, start, length);
+    } else {
+      out.append(CharBuffer.wrap(grid), start, start + length);
+    }
   }
 
   /*
@@ -348,19 +575,8 @@ public class HexBoardTextView<F, C, E, A> {
    */
   @Override
   public String toString() {
-    StringBuilder sb = new StringBuilder();
-    for (int y = 0; y <= board.getMaxCoordinateY(); y = y + 3) {
-      sb.append(printCornerLine(y));
-      sb.append(System.lineSeparator());
-      sb.append(printDiagonalEdges(y));
-      sb.append(System.lineSeparator());
-      sb.append(printCornerLine(y + 1));
-      sb.append(System.lineSeparator());
-      sb.append(printMiddlePartOfField(y + 2));
-      sb.append(System.lineSeparator());
-
-    }
-    return sb.toString();
+    updateLines();
+    return new String(grid);
   }
 
 }
@@ -0,0 +1,147 @@
+package ch.zhaw.hexboard;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Stores the board data in hash maps keyed by {@link Point} and {@link Edge}.
+ * <p>
+ * This storage does not need to know the size of the board in advance and is
+ * used by default. Snapshots copy all maps.
+ * </p>
+ *
+ * @param <F> Data type for the field data objects
+ * @param <C> Data type for the corner data objects
+ * @param <E> Data type for the edge data objects
+ */
+final class MapStorage<F, C, E> implements HexBoardStorage<F, C, E> {
+  private final Map<Point, F> field = new HashMap<>();
+  private final Map<Point, C> corner = new HashMap<>();
+  private final Map<Edge, E> edge = new HashMap<>();
+  private final Map<Point, Byte> cornerTag = new HashMap<>();
+  private final Map<Edge, Byte> edgeTag = new HashMap<>();
+  private final Map<Point, List<Edge>> edgesOfCorner = new HashMap<>();
+
+  @Override
+  public boolean hasField(int x, int y) {
+    return field.containsKey(new Point(x, y));
+  }
+
+  @Override
+  public F getField(int x, int y) {
+    return field.get(new Point(x, y));
+  }
+
+  @Override
+  public void putField(int x, int y, F data) {
+    field.put(new Point(x, y), data);
+  }
+
+  @Override
+  public List<Point> getFieldCoordinates() {
+    return new ArrayList<>(field.keySet());
+  }
+
+  @Override
+  public boolean hasCorner(int x, int y) {
+    return corner.containsKey(new Point(x, y));
+  }
+
+  @Override
+  public C getCorner(int x, int y) {
+    return corner.get(new Point(x, y));
+  }
+
+  @Override
+  public void putCorner(int x, int y, C data) {
+    corner.put(new Point(x, y), data);
+  }
+
+  @Override
+  public byte getCornerTag(int x, int y) {
+    return cornerTag.getOrDefault(new Point(x, y), (byte) 0);
+  }
+
+  @Override
+  public void putCornerTag(int x, int y, byte tag) {
+    cornerTag.put(new Point(x, y), tag);
+  }
+
+  @Override
+  public Set<Point> getCornerCoordinates() {
+    return Collections.unmodifiableSet(corner.keySet());
+  }
+
+  @Override
+  public boolean hasEdge(int x1, int y1, int x2, int y2) {
+    return edge.containsKey(new Edge(new Point(x1, y1), new Point(x2, y2)));
+  }
+
+  @Override
+  public E getEdge(int x1, int y1, int x2, int y2) {
+    return edge.get(new Edge(new Point(x1, y1), new Point(x2, y2)));
+  }
+
+  @Override
+  public void putEdge(int x1, int y1, int x2, int y2, E data) {
+    Edge e = new Edge(new Point(x1, y1), new Point(x2, y2));
+    if (!edge.containsKey(e)) {
+      edgesOfCorner.computeIfAbsent(new Point(x1, y1), p -> new ArrayList<>(3)).add(e);
+      edgesOfCorner.computeIfAbsent(new Point(x2, y2), p -> new ArrayList<>(3)).add(e);
+    }
+    edge.put(e, data);
+  }
+
+  @Override
+  public byte getEdgeTag(int x1, int y1, int x2, int y2) {
+    return edgeTag.getOrDefault(new Edge(new Point(x1, y1), new Point(x2, y2)), (byte) 0);
+  }
+
+  @Override
+  public void putEdgeTag(int x1, int y1, int x2, int y2, byte tag) {
+    edgeTag.put(new Edge(new Point(x1, y1), new Point(x2, y2)), tag);
+  }
+
+  @Override
+  public List<E> getEdgesOfCorner(int x, int y) {
+    List<E> result = new ArrayList<>(3);
+    for (Edge e : edgesOfCorner.getOrDefault(new Point(x, y), Collections.emptyList())) {
+      result.add(edge.get(e));
+    }
+    return result;
+  }
+
+  @Override
+  public HexBoardStorage<F, C, E> snapshot() {
+    MapStorage<F, C, E> snapshot = new MapStorage<>();
+    snapshot.restore(this);
+    return snapshot;
+  }
+
+  @Override
+  public void restore(HexBoardStorage<F, C, E> snapshot) {
+    if (!(snapshot instanceof MapStorage)) {
+      throw new IllegalArgumentException("Not a snapshot of a map storage: " + snapshot);
+    }
+    MapStorage<F, C, E> other = (MapStorage<F, C, E>) snapshot;
+    field.clear();
+    field.putAll(other.field);
+    corner.clear();
+    corner.putAll(other.corner);
+    edge.clear();
+    edge.putAll(other.edge);
+    cornerTag.clear();
+    cornerTag.putAll(other.cornerTag);
+    edgeTag.clear();
+    edgeTag.putAll(other.edgeTag);
+    edgesOfCorner.clear();
+    for (Map.Entry<Point, List<Edge>> entry : other.edgesOfCorner.entrySet()) {
+      edgesOfCorner.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+    }
+  }
+}
@@ -0,0 +1,100 @@
+package ch.zhaw.catan;
+
+import ch.zhaw.catan.Config.Resource;
+import ch.zhaw.catan.GameLauncher.Action;
+import ch.zhaw.hexboard.Coordinates;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class CommandParserTest {
+
+    @Test
+    void testCommandsAreParsed() {
+        CommandParser parser = new CommandParser();
+        assertTrue(parser.parse("road 5 7\t6 8 "));
+        assertEquals(Action.ROAD, parser.getAction());
+        assertEquals(Coordinates.edge(Coordinates.of(5, 7), Coordinates.of(6, 8)), parser.getEdge());
+        assertEquals("ROAD 5 7 6 8", parser.appendTo(new StringBuilder()).toString());
+
+        assertTrue(parser.parse("xx CITY 7 7\r", 3, 12));
+        assertEquals(Action.CITY, parser.getAction());
+        assertEquals(Coordinates.of(7, 7), parser.getCorner());
+
+        assertTrue(parser.parse("TRADE wd GR"));
+        assertEquals(Resource.WOOD, parser.getOffer());
+        assertEquals(Resource.GRAIN, parser.getWant());
+        assertTrue(parser.parse("Done"));
+        assertEquals(Action.DONE, parser.getAction());
+
+        assertTrue(parser.parse("   "));
+        assertNull(parser.getAction());
+        assertTrue(parser.parse("# SETTLEMENT 7 7"));
+        assertNull(parser.getAction());
+    }
+
+    @Test
+    void testInvalidCommandsAreRejected() {
+        CommandParser parser = new CommandParser();
+        assertFalse(parser.parse("BUILD 7 7"));
+        assertEquals("Unknown command", parser.getError());
+        assertFalse(parser.parse("SETTLEMENT 7"));
+        assertEquals("Coordinates are missing", parser.getError());
+        assertFalse(parser.parse("SETTLEMENT 7 -7"));
+        assertEquals("Not a coordinate", parser.getError());
+        assertFalse(parser.parse("SETTLEMENT 7 99"));
+        assertEquals("Coordinates are outside of the board", parser.getError());
+        assertFalse(parser.parse("TRADE WD GOLD"));
+        assertNull(parser.getAction());
+        assertFalse(parser.parse("DONE now"));
+        assertEquals("Too many arguments", parser.getError());
+        assertTrue(parser.parse("SHOW"));
+        assertNull(parser.getError());
+    }
+
+    @Test
+    void testScriptIsPlayed() throws Exception {
+        // place like a second game, which knows the valid places
+        SiedlerGame mirror = new SiedlerGame(Config.WIN_POINTS, 2, GameLayout.standard(), false);
+        MoveList moves = new MoveList();
+        StringBuilder text = new StringBuilder("# initial placement\n");
+        for (int placement = 0; placement < 4; placement++) {
+            int corner = mirror.generateInitialSettlements(moves).getCorner(0);
+            mirror.placeInitialSettlement(corner, placement >= 2);
+            text.append("SETTLEMENT ").append(Coordinates.x(corner)).append(' ').append(Coordinates.y(corner))
+                    .append('\n');
+            long edge = mirror.generateInitialRoads(corner, moves).getEdge(0);
+            mirror.placeInitialRoad(edge);
+            int start = Coordinates.edgeStart(edge);
+            int end = Coordinates.edgeEnd(edge);
+            text.append("ROAD ").append(Coordinates.x(start)).append(' ').append(Coordinates.y(start)).append(' ')
+                    .append(Coordinates.x(end)).append(' ').append(Coordinates.y(end)).append("\r\n");
+            if (placement == 0) {
+                mirror.switchToNextPlayer();
+            } else if (placement == 2) {
+                mirror.switchToPreviousPlayer();
+            }
+        }
+        text.append("UNDO\nDONE\nDONE\nSHOW\nQUIT\nDONE");
+
+        GameScript script = new GameScript(new SiedlerGame(Config.WIN_POINTS, 2, GameLayout.standard(), true,
+                new SplittableRandom(1)));
+        StringWriter out = new StringWriter();
+        script.run(new StringReader(text.toString()), out);
+        assertTrue(script.isFinished());
+        assertEquals(14, script.getLines());
+        assertEquals(13, script.getCommands());
+        assertEquals(1, script.getErrors());
+        assertEquals(3, script.getTurns());
+        assertTrue(out.toString().startsWith("line 10: ERROR There is no move of this turn to take back"));
+        assertTrue(out.toString().endsWith(script.getGame().getView().toStringWithCoordinates()));
+    }
+}
@@ -2,6 +2,9 @@ package ch.zhaw.catan;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class DiceTest {
@@ -34,4 +37,12 @@ class DiceTest {
         assertTrue(sum <= 6);
     }
 
-}
\ No newline at end of file
+    @Test
+    void testSameSeedRollsSameDices() {
+        Dice first = new Dice(new SplittableRandom(42));
+        Dice second = new Dice(new SplittableRandom(42));
+        for (int i = 0; i < 100; i++) {
+            assertEquals(first.rollTheDice(2), second.rollTheDice(2));
+        }
+    }
+}
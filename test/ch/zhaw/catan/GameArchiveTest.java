@@ -0,0 +1,119 @@
+package ch.zhaw.catan;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Point;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import ch.zhaw.catan.Config.Faction;
+import ch.zhaw.catan.Config.Resource;
+
+
+public class GameArchiveTest {
+    private static final List<PlayerStrategy> PLAYERS = List.of(new RandomStrategy(), new RandomStrategy(),
+            new RandomStrategy());
+
+    @Test
+    void testSimulationIsArchived() throws IOException {
+        Path directory = Files.createTempDirectory("archive");
+        try {
+            Simulation simulation = new Simulation(GameLayout.standard(), Config.WIN_POINTS, 300, PLAYERS);
+            SimulationResult result;
+            try (GameArchive archive = GameArchive.create(directory)) {
+                result = simulation.run(100, 5, archive);
+            }
+            try (GameArchive archive = GameArchive.open(directory)) {
+                assertEquals(100, archive.getGames());
+                assertEquals(Math.round(100 * result.getAverageTurns()), archive.getTurns());
+                assertTrue(archive.getTurns() > ColumnFile.BLOCK_ROWS);
+
+                long[] dices = archive.getDiceHistogram();
+                assertEquals(0, dices[0] + dices[1]);
+                assertEquals(archive.getTurns(), Arrays.stream(dices).sum());
+
+                for (Faction faction : List.of(Faction.RED, Faction.BLUE, Faction.GREEN)) {
+                    long wins = 0;
+                    for (long game = 0; game < archive.getGames(); game++) {
+                        wins += archive.getGameValue(GameArchive.GAME_WINNER, game) == faction.ordinal() ? 1 : 0;
+                    }
+                    assertEquals(result.getWins(faction), wins);
+                }
+                assertEquals(0.0, archive.getAveragePayout(Faction.YELLOW, Resource.WOOD));
+                assertTrue(archive.getAveragePayout(Faction.RED, Resource.WOOD) > 0);
+
+                Map<Point, Double> winRates = archive.getWinRateByInitialSettlement();
+                assertFalse(winRates.isEmpty());
+                for (double winRate : winRates.values()) {
+                    assertTrue(winRate >= 0 && winRate <= 1);
+                }
+            }
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    void testRecorderMatchesGame() throws IOException {
+        Path directory = Files.createTempDirectory("archive");
+        try {
+            SiedlerGame game = new SiedlerGame(Config.WIN_POINTS, 3, GameLayout.standard(), false,
+                    new SplittableRandom(9));
+            Simulation simulation = new Simulation(GameLayout.standard(), Config.WIN_POINTS, 150, PLAYERS);
+            try (GameArchive archive = GameArchive.create(directory)) {
+                GameArchive.Recorder recorder = archive.newRecorder();
+                game.addEventListener(recorder);
+                int turns = simulation.play(game, new MoveList(), new SimulationResult());
+                recorder.finish(game);
+
+                assertEquals(1, archive.getGames());
+                assertEquals(turns, archive.getTurns());
+                assertEquals(turns, archive.getGameValue(GameArchive.GAME_TURNS, 0));
+                int[] roads = new int[3];
+                for (long row = 0; row < archive.getTurns(); row++) {
+                    assertEquals(row, archive.getTurnValue(GameArchive.TURN_NUMBER, row));
+                    roads[(int) archive.getTurnValue(GameArchive.TURN_PLAYER, row)]
+                            += (int) archive.getTurnValue(GameArchive.TURN_ROADS, row);
+                }
+                for (Faction faction : List.of(Faction.RED, Faction.BLUE, Faction.GREEN)) {
+                    Player player = game.findByFaction(faction);
+                    assertEquals(player.getRoads().size(), 2 + roads[faction.ordinal()]);
+                    assertEquals(player.getPoints(),
+                            archive.getTurnValue(GameArchive.TURN_POINTS + faction.ordinal(), turns - 1));
+                    int firstSettlement = (int) archive.getGameValue(
+                            GameArchive.GAME_INITIAL_SETTLEMENT + 2 * faction.ordinal(), 0);
+                    assertTrue(game.getBoard().hasCorner(firstSettlement));
+                }
+            }
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    void testOtherFileIsRejected() throws IOException {
+        Path directory = Files.createTempDirectory("archive");
+        try {
+            GameArchive.create(directory).close();
+            Files.write(directory.resolve(GameArchive.TURNS_FILE), new byte[]{1, 2, 3});
+            assertThrows(IOException.class, () -> GameArchive.open(directory));
+        } finally {
+            delete(directory);
+        }
+    }
+
+    private static void delete(Path directory) throws IOException {
+        Files.deleteIfExists(directory.resolve(GameArchive.GAMES_FILE));
+        Files.deleteIfExists(directory.resolve(GameArchive.TURNS_FILE));
+        Files.delete(directory);
+    }
+}
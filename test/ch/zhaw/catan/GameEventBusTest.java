@@ -0,0 +1,95 @@
+package ch.zhaw.catan;
+
+import ch.zhaw.catan.Config.Faction;
+import ch.zhaw.catan.GameEventListener.Type;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class GameEventBusTest {
+
+    /**
+     * Keeps the types of every batch.
+     */
+    private static final class Recorder implements GameEventBus.Subscriber {
+        private final List<List<Type>> batches = new ArrayList<>();
+        private final List<Faction> factions = new ArrayList<>();
+        private int stateReplaced = 0;
+
+        @Override
+        public void onEvents(SiedlerGame game, GameEventBus.Batch events) {
+            List<Type> types = new ArrayList<>();
+            for (int i = 0; i < events.size(); i++) {
+                types.add(events.getType(i));
+                factions.add(events.getFaction(i));
+            }
+            batches.add(types);
+        }
+
+        @Override
+        public void onStateReplaced(SiedlerGame game) {
+            stateReplaced++;
+        }
+    }
+
+    @Test
+    void testEventsAreDeliveredPerAction() {
+        SiedlerGame game = new SiedlerGame(2, 2, GameLayout.standard(), false);
+        GameEventBus bus = new GameEventBus();
+        Recorder recorder = new Recorder();
+        bus.subscribe(recorder);
+        game.addEventListener(bus);
+        assertEquals(1, recorder.stateReplaced);
+
+        MoveList moves = new MoveList();
+        int corner = game.generateInitialSettlements(moves).getCorner(0);
+        assertTrue(game.placeInitialSettlement(corner, true));
+        assertEquals(Type.INITIAL_SETTLEMENT, recorder.batches.get(0).get(0));
+        assertTrue(recorder.batches.get(0).size() > 1);
+        for (Type type : recorder.batches.get(0).subList(1, recorder.batches.get(0).size())) {
+            assertEquals(Type.BANK_TRANSFER, type);
+        }
+        assertTrue(!game.placeInitialSettlement(corner, false));
+        assertEquals(1, recorder.batches.size());
+
+        game.switchToNextPlayer();
+        assertEquals(List.of(Type.TURN), recorder.batches.get(1));
+        game.throwDiceForPayout(2);
+        assertEquals(Type.DICE, recorder.batches.get(2).get(0));
+
+        // the second settlement gives the second point, which wins a game for two points
+        game.switchToPreviousPlayer();
+        corner = game.generateInitialSettlements(moves).getCorner(0);
+        assertTrue(game.placeInitialSettlement(corner, false));
+        List<Type> last = recorder.batches.get(recorder.batches.size() - 1);
+        assertEquals(List.of(Type.INITIAL_SETTLEMENT, Type.WINNER), last);
+        assertEquals(Faction.RED, recorder.factions.get(recorder.factions.size() - 1));
+    }
+
+    @Test
+    void testLargeActionsAreSplit() {
+        SiedlerGame game = new SiedlerGame(Config.WIN_POINTS, 2, GameLayout.standard(), false);
+        GameEventBus bus = new GameEventBus(3);
+        Recorder recorder = new Recorder();
+        game.addEventListener(bus);
+        bus.subscribe(recorder);
+        assertEquals(1, recorder.stateReplaced);
+
+        int[][] payout = new int[Faction.values().length][Config.Resource.values().length];
+        for (int i = 0; i < payout[0].length; i++) {
+            payout[0][i] = 1;
+        }
+        game.distributeResources(payout);
+        assertEquals(2, recorder.batches.size());
+        assertEquals(4, recorder.batches.get(0).size());
+        assertEquals(1, recorder.batches.get(1).size());
+        bus.unsubscribe(recorder);
+        game.distributeResources(payout);
+        assertEquals(2, recorder.batches.size());
+    }
+}
@@ -0,0 +1,100 @@
+package ch.zhaw.catan;
+
+import ch.zhaw.catan.Config.Faction;
+import ch.zhaw.catan.Config.Resource;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class GameHostTest {
+
+    @Test
+    void testViewShowsTheStateOfItsVersion() throws Exception {
+        SiedlerGame game = new SiedlerGame(Config.WIN_POINTS, 2, GameLayout.standard(), false);
+        GameHost host = new GameHost(game, ForkJoinPool.commonPool());
+        GameView empty = host.getView();
+        assertEquals(0, empty.getVersion());
+
+        MoveList moves = new MoveList();
+        int corner = host.submit(g -> g.generateInitialSettlements(moves).getCorner(0)).get();
+        assertTrue(host.submit(g -> g.placeInitialSettlement(corner, true)).get());
+        GameView placed = host.getView();
+        assertEquals(2, placed.getVersion());
+        assertEquals(Occupancy.of(Faction.RED, Config.Structure.SETTLEMENT), placed.getCornerOccupancy(corner));
+        assertEquals(Occupancy.EMPTY, empty.getCornerOccupancy(corner));
+        assertEquals(1, placed.getPoints(Faction.RED));
+        assertEquals(0, empty.getPoints(Faction.RED));
+
+        host.submit(g -> {
+            g.switchToNextPlayer();
+            return null;
+        }).get();
+        assertEquals(Faction.BLUE, host.getView().getCurrentPlayer());
+        assertEquals(Faction.RED, placed.getCurrentPlayer());
+        assertNull(placed.getWinner());
+
+        // a reader restores the view to a game of its own
+        SiedlerGame copy = new SiedlerGame(Config.WIN_POINTS, 2, GameLayout.standard(), true);
+        placed.restoreTo(copy, new SplittableRandom(1));
+        assertEquals(Occupancy.of(Faction.RED, Config.Structure.SETTLEMENT),
+                copy.getBoard().getCornerOccupancy(corner));
+
+        CompletableFuture<Object> failed = host.submit(g -> {
+            throw new IllegalStateException("failed");
+        });
+        ExecutionException e = assertThrows(ExecutionException.class, failed::get);
+        assertEquals("failed", e.getCause().getMessage());
+    }
+
+    @Test
+    void testReadersSeeConsistentViewsWhileTheGameIsChanged() throws Exception {
+        SiedlerGame game = new SiedlerGame(Config.WIN_POINTS, 2, GameLayout.standard(), false);
+        GameHost host = new GameHost(game, ForkJoinPool.commonPool());
+        int changes = 2000;
+        AtomicReference<String> problem = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            long version = 0;
+            while (version < changes) {
+                GameView view = host.getView();
+                if (view.getVersion() < version) {
+                    problem.set("The version went back");
+                }
+                version = view.getVersion();
+                // the commands only move wool between the bank and the players
+                int stock = view.getResourceStock(Faction.RED, Resource.WOOL)
+                        + view.getResourceStock(Faction.BLUE, Resource.WOOL) + view.getBankStock(Resource.WOOL);
+                if (stock != 19) {
+                    problem.set("The view is not consistent: " + stock + " wool in version " + version);
+                }
+            }
+        });
+        reader.start();
+        CompletableFuture<?> last = null;
+        for (int i = 0; i < changes; i++) {
+            last = host.submit(g -> {
+                if (g.bankHasEnoughResource(Resource.WOOL)) {
+                    g.increaseResourcesAndUpdateBankResources(Resource.WOOL, 1);
+                } else {
+                    g.decreaseResourcesAndUpdateBankResources(Resource.WOOL,
+                            g.getCurrentPlayerResourceStock(Resource.WOOL));
+                }
+                g.switchToNextPlayer();
+                return null;
+            });
+        }
+        last.get();
+        reader.join(10000);
+        assertNull(problem.get());
+        assertEquals(changes, host.getView().getVersion());
+    }
+}
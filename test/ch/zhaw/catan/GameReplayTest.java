@@ -0,0 +1,164 @@
+package ch.zhaw.catan;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class GameReplayTest {
+    private static final int PLAYERS = 3;
+
+    @Test
+    void testReplayReachesEveryTurn() throws IOException {
+        Path path = Files.createTempFile("game", ".log");
+        try {
+            List<String> states = playLoggedGame(path, 7);
+            GameReplay replay = new GameReplay(path);
+            assertEquals(states.size() - 1, replay.getTurns());
+            assertTrue(replay.getSnapshotCount() > states.size() / 10);
+            for (int turn = 0; turn < states.size(); turn++) {
+                if (states.get(turn) != null) {
+                    assertEquals(states.get(turn), SaveGameTest.describe(replay.seek(turn, true)), "Turn " + turn);
+                }
+            }
+            assertThrows(IllegalArgumentException.class, () -> replay.seek(states.size(), false));
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    void testIncompleteLogIsReadToLastEvent() throws IOException {
+        Path path = Files.createTempFile("game", ".log");
+        try {
+            List<String> states = playLoggedGame(path, 8);
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.truncate(channel.size() - 3);
+            }
+            GameReplay replay = new GameReplay(path);
+            int turns = replay.getTurns();
+            assertTrue(turns >= states.size() - 2);
+            SiedlerGame last = replay.seek(turns, true);
+            assertEquals(states.get(turns), SaveGameTest.describe(last));
+            // the bank holds what the players do not, rebuilt structures must not pay into it twice
+            for (Config.Resource resource : Config.Resource.values()) {
+                int stock = last.getBankStock(resource);
+                for (int i = 0; i < PLAYERS; i++) {
+                    stock += last.findByFaction(Config.Faction.values()[i]).getResourceAmount(resource);
+                }
+                assertEquals(19, stock, resource.toString());
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    void testLoggingKeepsDices() throws IOException {
+        Path path = Files.createTempFile("game", ".log");
+        try (GameEventLog log = new GameEventLog(path, 1)) {
+            SiedlerGame logged = new SiedlerGame(Config.WIN_POINTS, 2, GameLayout.standard(), false,
+                    new SplittableRandom(3));
+            SiedlerGame unlogged = new SiedlerGame(Config.WIN_POINTS, 2, GameLayout.standard(), false,
+                    new SplittableRandom(3));
+            logged.addEventListener(log);
+            for (int i = 0; i < 20; i++) {
+                logged.switchToNextPlayer();
+                assertEquals(unlogged.throwDice(2), logged.throwDice(2));
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    void testGameIsLoggedAndSpectated() throws IOException {
+        Path path = Files.createTempFile("game", ".log");
+        try {
+            SiedlerGame game = new SiedlerGame(Config.WIN_POINTS, PLAYERS, GameLayout.standard(), true,
+                    new SplittableRandom(9));
+            StringBuilder out = new StringBuilder();
+            List<String> states = new ArrayList<>();
+            GameEventBus bus = new GameEventBus();
+            bus.subscribe(new Spectator(game, out));
+            bus.subscribe((spectated, events) -> {
+                if (events.contains(GameEventListener.Type.TURN)) {
+                    states.add(SaveGameTest.describe(spectated));
+                }
+            });
+            List<PlayerStrategy> strategies = new ArrayList<>();
+            for (int i = 0; i < PLAYERS; i++) {
+                strategies.add(new RandomStrategy());
+            }
+            Simulation simulation = new Simulation(GameLayout.standard(), Config.WIN_POINTS, 60, strategies);
+            try (GameEventLog log = new GameEventLog(path, 10)) {
+                game.addEventListener(log);
+                game.addEventListener(bus);
+                simulation.play(game, new MoveList(), new SimulationResult());
+            }
+
+            GameReplay replay = new GameReplay(path);
+            assertEquals(states.size(), replay.getTurns());
+            assertEquals(states.get(states.size() - 1), SaveGameTest.describe(replay.seek(replay.getTurns(), true)));
+            String status = out.substring(out.lastIndexOf("Current player: "));
+            for (int i = 0; i < PLAYERS; i++) {
+                Config.Faction faction = Config.Faction.values()[i];
+                assertTrue(status.contains(faction + ": " + game.findByFaction(faction).getPoints()), status);
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    /**
+     * Plays a game with random moves and a few undone moves and returns the state at the start of every turn, or
+     * null for the turns of the initial placement.
+     */
+    private static List<String> playLoggedGame(Path path, long seed) throws IOException {
+        List<String> states = new ArrayList<>();
+        SiedlerGame game = new SiedlerGame(Config.WIN_POINTS, PLAYERS, GameLayout.standard(), true,
+                new SplittableRandom(seed));
+        List<PlayerStrategy> strategies = new ArrayList<>();
+        for (int i = 0; i < PLAYERS; i++) {
+            strategies.add(new RandomStrategy());
+        }
+        Simulation simulation = new Simulation(GameLayout.standard(), Config.WIN_POINTS, 0, strategies);
+        try (GameEventLog log = new GameEventLog(path, 10)) {
+            game.addEventListener(log);
+            states.add(SaveGameTest.describe(game));
+            MoveList moves = new MoveList();
+            simulation.play(game, moves, new SimulationResult());
+            for (int turn = 1; turn < 2 * PLAYERS + 2; turn++) {
+                states.add(null);
+            }
+            states.add(SaveGameTest.describe(game));
+            PlayerStrategy strategy = new RandomStrategy();
+            for (int turn = 0; turn < 80 && game.getWinner() == null; turn++) {
+                game.distributeResources(game.throwDiceForPayout(2));
+                for (int i = 0; i < 10; i++) {
+                    int move = strategy.chooseMove(game, game.generateMoves(moves));
+                    if (move == PlayerStrategy.END_TURN || !game.play(moves, move)) {
+                        break;
+                    }
+                    if (i % 3 == 1) {
+                        game.undo();
+                    }
+                }
+                game.switchToNextPlayer();
+                states.add(SaveGameTest.describe(game));
+            }
+        }
+        return states;
+    }
+}
@@ -0,0 +1,104 @@
+package ch.zhaw.catan;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+
+/**
+ * This class is used for test purpose only. It starts a {@link GameServer}, seats two loopback clients at each of
+ * many tables and lets every client send SHOW and an invalid move in a number of rounds. It prints the heap used per
+ * table, including the clients, and the latency of the requests.
+ *
+ * @version 12-05-2019
+ */
+public class GameServerLoad {
+    private static final int CLIENT_THREADS = 32;
+
+    public static void main(String[] args) throws Exception {
+        int tables = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        try (GameServer server = new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))) {
+            long heapBefore = usedHeap();
+            GameServerTest.Client[][] clients = new GameServerTest.Client[tables][2];
+            for (int table = 0; table < tables; table++) {
+                for (int seat = 0; seat < 2; seat++) {
+                    GameServerTest.Client client = new GameServerTest.Client(server.getPort());
+                    client.send("JOIN table" + table + " 2");
+                    clients[table][seat] = client;
+                }
+            }
+            for (GameServerTest.Client[] table : clients) {
+                for (GameServerTest.Client client : table) {
+                    client.readUntil("PLACE");
+                }
+            }
+            long heapAfter = usedHeap();
+            System.out.printf("%d tables, %d KB heap per table and its two clients%n", server.getTableCount(),
+                    (heapAfter - heapBefore) / 1024 / tables);
+
+            ExecutorService executor = Executors.newFixedThreadPool(CLIENT_THREADS);
+            long start = System.nanoTime();
+            List<Future<long[]>> results = new ArrayList<>();
+            for (GameServerTest.Client[] table : clients) {
+                results.add(executor.submit(() -> playRounds(table, rounds)));
+            }
+            long[] latencies = new long[tables * rounds * 4];
+            int count = 0;
+            for (Future<long[]> result : results) {
+                long[] tableLatencies = result.get();
+                System.arraycopy(tableLatencies, 0, latencies, count, tableLatencies.length);
+                count += tableLatencies.length;
+            }
+            long nanos = System.nanoTime() - start;
+            executor.shutdown();
+            Arrays.sort(latencies);
+            System.out.printf("%d requests in %.2f s, %.0f requests/s%n", count, nanos / 1e9, count / (nanos / 1e9));
+            System.out.printf("latency p50 %.2f ms, p99 %.2f ms, max %.2f ms%n", latencies[count / 2] / 1e6,
+                    latencies[count * 99 / 100] / 1e6, latencies[count - 1] / 1e6);
+            for (GameServerTest.Client[] table : clients) {
+                for (GameServerTest.Client client : table) {
+                    client.close();
+                }
+            }
+        }
+    }
+
+    private static long[] playRounds(GameServerTest.Client[] table, int rounds) throws IOException {
+        long[] latencies = new long[rounds * 4];
+        int count = 0;
+        for (int round = 0; round < rounds; round++) {
+            for (GameServerTest.Client client : table) {
+                long start = System.nanoTime();
+                client.send("SHOW");
+                int lines = Integer.parseInt(client.readUntil("BOARD").substring("BOARD ".length()));
+                for (int i = 0; i < lines; i++) {
+                    client.read();
+                }
+                latencies[count++] = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                client.send("CITY 7 7");
+                client.readUntil("ERROR");
+                latencies[count++] = System.nanoTime() - start;
+            }
+        }
+        return latencies;
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,154 @@
+package ch.zhaw.catan;
+
+import ch.zhaw.hexboard.Coordinates;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class GameServerTest {
+
+    /**
+     * A client that talks to the server over the loopback interface.
+     */
+    static final class Client implements AutoCloseable {
+        private final Socket socket;
+        private final BufferedReader in;
+        private final PrintWriter out;
+
+        Client(int port) throws IOException {
+            socket = new Socket(InetAddress.getLoopbackAddress(), port);
+            socket.setSoTimeout(5000);
+            socket.setTcpNoDelay(true);
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+        }
+
+        void send(String line) {
+            out.print(line + "\n");
+            out.flush();
+        }
+
+        String read() throws IOException {
+            return in.readLine();
+        }
+
+        /**
+         * Reads lines until one starts with the prefix.
+         */
+        String readUntil(String prefix) throws IOException {
+            String line = in.readLine();
+            while (line != null && !line.startsWith(prefix)) {
+                line = in.readLine();
+            }
+            return line;
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    @Test
+    void testTableIsPlayedOverLoopback() throws Exception {
+        try (GameServer server = new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 2);
+             Client red = new Client(server.getPort());
+             Client blue = new Client(server.getPort())) {
+            assertEquals("WELCOME", red.read());
+            red.send("SHOW");
+            assertTrue(red.read().startsWith("ERROR"));
+            red.send("JOIN table 2");
+            assertEquals("JOINED table rr", red.read());
+            blue.send("JOIN table 2");
+            assertEquals("JOINED table bb", blue.readUntil("JOINED"));
+            assertEquals("START 2", red.read());
+            assertEquals("PLACE rr SETTLEMENT", red.read());
+            assertEquals("START 2", blue.read());
+            assertEquals("PLACE rr SETTLEMENT", blue.read());
+
+            blue.send("SHOW");
+            int lines = Integer.parseInt(blue.read().substring("BOARD ".length()));
+            for (int i = 0; i < lines; i++) {
+                blue.read();
+            }
+            blue.send("SETTLEMENT 7 7");
+            assertEquals("ERROR It is the turn of rr", blue.read());
+
+            // place like a second game on this side, which knows the valid places
+            SiedlerGame mirror = new SiedlerGame(Config.WIN_POINTS, 2, GameLayout.standard(), false);
+            MoveList moves = new MoveList();
+            for (int placement = 0; placement < 4; placement++) {
+                Client current = mirror.getCurrentPlayer() == Config.Faction.RED ? red : blue;
+                int corner = mirror.generateInitialSettlements(moves).getCorner(0);
+                mirror.placeInitialSettlement(corner, placement >= 2);
+                current.send("SETTLEMENT " + Coordinates.x(corner) + " " + Coordinates.y(corner));
+                assertEquals("OK", current.readUntil("OK"));
+                long edge = mirror.generateInitialRoads(corner, moves).getEdge(0);
+                mirror.placeInitialRoad(edge);
+                int start = Coordinates.edgeStart(edge);
+                int end = Coordinates.edgeEnd(edge);
+                current.send("ROAD " + Coordinates.x(start) + " " + Coordinates.y(start) + " "
+                        + Coordinates.x(end) + " " + Coordinates.y(end));
+                assertEquals("OK", current.readUntil("OK"));
+                if (placement == 0) {
+                    mirror.switchToNextPlayer();
+                } else if (placement == 2) {
+                    mirror.switchToPreviousPlayer();
+                }
+            }
+            assertTrue(red.readUntil("TURN").startsWith("TURN rr "));
+            assertTrue(red.read().startsWith("STOCK"));
+            assertTrue(blue.readUntil("TURN").startsWith("TURN rr "));
+
+            red.send("DONE");
+            assertEquals("OK", red.read());
+            assertTrue(red.read().startsWith("TURN bb "));
+            assertTrue(blue.read().startsWith("TURN bb "));
+            assertTrue(blue.read().startsWith("STOCK"));
+            blue.send("UNDO");
+            assertTrue(blue.read().startsWith("ERROR"));
+
+            red.send("QUIT");
+            assertEquals("BYE", red.read());
+            assertEquals("LEFT rr", blue.read());
+            assertEquals("CLOSED", blue.read());
+            blue.send("DONE");
+            assertTrue(blue.read().startsWith("ERROR Join a table first"));
+            assertEquals(0, server.getTableCount());
+        }
+    }
+
+    @Test
+    void testFullTableIsRejected() throws Exception {
+        try (GameServer server = new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 2);
+             Client first = new Client(server.getPort());
+             Client second = new Client(server.getPort());
+             Client third = new Client(server.getPort())) {
+            first.send("JOIN full 2");
+            assertEquals("JOINED full rr", first.readUntil("JOINED"));
+            third.send("JOIN full 3");
+            assertEquals("ERROR The table is for 2 players", third.readUntil("ERROR"));
+            second.send("JOIN full 2");
+            assertEquals("JOINED full bb", second.readUntil("JOINED"));
+            third.send("JOIN full 2");
+            assertEquals("ERROR The table is full", third.readUntil("ERROR"));
+            third.send("JOIN other 5");
+            assertTrue(third.readUntil("ERROR").startsWith("ERROR Usage"));
+
+            second.socket.close();
+            assertEquals("LEFT bb", first.readUntil("LEFT"));
+            assertEquals("CLOSED", first.read());
+        }
+    }
+}
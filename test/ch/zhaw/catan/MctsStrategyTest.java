@@ -0,0 +1,98 @@
+package ch.zhaw.catan;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import ch.zhaw.catan.Config.Faction;
+
+
+public class MctsStrategyTest {
+    private static final int PLAYOUTS = 200;
+
+    @Test
+    void testChoosesInitialSettlement() {
+        SiedlerGame game = new SiedlerGame(Config.WIN_POINTS, 3, GameLayout.standard(), false, new SplittableRandom(3));
+        ForkJoinPool pool = new ForkJoinPool(1);
+        try {
+            MctsStrategy strategy = new MctsStrategy(60_000, PLAYOUTS, 2, pool);
+            MoveList moves = game.generateInitialSettlements(new MoveList());
+            int move = strategy.chooseMove(game, moves);
+            assertTrue(move >= 0 && move < moves.size());
+            assertEquals(PLAYOUTS, strategy.getPlayouts());
+            assertTrue(game.placeInitialSettlement(moves.getCorner(move), false));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void testChoosesMoveOrEndsTurn() {
+        SiedlerGame game = new SiedlerGame(Config.WIN_POINTS, 2, GameLayout.standard(), false, new SplittableRandom(5));
+        new Simulation(GameLayout.standard(), Config.WIN_POINTS, 0,
+                List.of(new RandomStrategy(), new RandomStrategy())).play(game, new MoveList(),
+                new SimulationResult());
+        assertEquals(Faction.values()[0], game.getCurrentPlayer());
+        game.distributeResources(game.throwDiceForPayout(2));
+        ForkJoinPool pool = new ForkJoinPool(1);
+        try {
+            MctsStrategy strategy = new MctsStrategy(60_000, PLAYOUTS, 1, pool);
+            MoveList moves = new MoveList();
+            for (int i = 0; i < 10; i++) {
+                int move = strategy.chooseMove(game, game.generateMoves(moves));
+                assertTrue(move == PlayerStrategy.END_TURN || move >= 0 && move < moves.size());
+                if (move == PlayerStrategy.END_TURN) {
+                    break;
+                }
+                assertTrue(game.play(moves, move));
+            }
+            assertEquals(Faction.values()[0], game.getCurrentPlayer());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void testSearchKeepsDiceOfGame() {
+        SiedlerGame game = new SiedlerGame(Config.WIN_POINTS, 3, GameLayout.standard(), false, new SplittableRandom(3));
+        SiedlerGame other = new SiedlerGame(Config.WIN_POINTS, 3, GameLayout.standard(), false,
+                new SplittableRandom(3));
+        ForkJoinPool pool = new ForkJoinPool(1);
+        try {
+            MctsStrategy first = new MctsStrategy(60_000, PLAYOUTS, 1, pool, 17);
+            MctsStrategy second = new MctsStrategy(60_000, PLAYOUTS, 1, pool, 17);
+            MoveList moves = game.generateInitialSettlements(new MoveList());
+            assertEquals(first.chooseMove(game, moves), second.chooseMove(game, moves));
+            for (int i = 0; i < 20; i++) {
+                game.throwDiceForPayout(2);
+                other.throwDiceForPayout(2);
+                assertEquals(other.getLastDiceSum(), game.getLastDiceSum());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void testInterruptedSearchEndsTurn() {
+        SiedlerGame game = new SiedlerGame(Config.WIN_POINTS, 2, GameLayout.standard(), false, new SplittableRandom(5));
+        new Simulation(GameLayout.standard(), Config.WIN_POINTS, 0,
+                List.of(new RandomStrategy(), new RandomStrategy())).play(game, new MoveList(),
+                new SimulationResult());
+        game.distributeResources(game.throwDiceForPayout(2));
+        ForkJoinPool pool = new ForkJoinPool(1);
+        try {
+            MctsStrategy strategy = new MctsStrategy(60_000, PLAYOUTS, 2, pool);
+            Thread.currentThread().interrupt();
+            int move = strategy.chooseMove(game, game.generateMoves(new MoveList()));
+            assertTrue(Thread.interrupted());
+            assertEquals(PlayerStrategy.END_TURN, move);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package ch.zhaw.catan;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import ch.zhaw.catan.Config.Faction;
+import ch.zhaw.catan.Config.Resource;
+
+
+public class MoveJournalTest {
+
+    @Test
+    void testEmptyMoveIsNotRecorded() {
+        MoveJournal journal = new MoveJournal();
+        journal.beginMove();
+        assertFalse(journal.canUndo());
+        journal.add(MoveJournal.Type.ROAD, Faction.RED, 7);
+        journal.beginMove();
+        journal.beginMove();
+        journal.add(MoveJournal.Type.CITY, Faction.BLUE, 9);
+        assertEquals(2, journal.size());
+        assertEquals(1, journal.undo());
+        assertEquals(0, journal.undo());
+        assertFalse(journal.canUndo());
+    }
+
+    @Test
+    void testUndoAndRedoMoves() {
+        MoveJournal journal = new MoveJournal();
+        for (int move = 0; move < 100; move++) {
+            journal.beginMove();
+            journal.add(MoveJournal.Type.LONGEST_ROAD, Faction.RED, move);
+            journal.add(MoveJournal.Type.ROAD, Faction.RED, move);
+        }
+        assertEquals(198, journal.undo());
+        assertEquals(196, journal.undo());
+        assertTrue(journal.canRedo());
+        assertEquals(198, journal.redo());
+        assertEquals(MoveJournal.Type.ROAD, journal.getType(197));
+        assertEquals(98, journal.getValue(197));
+        journal.beginMove();
+        journal.add(MoveJournal.Type.CITY, Faction.BLUE, 1);
+        assertFalse(journal.canRedo());
+        assertEquals(Faction.BLUE, journal.getFaction(198));
+        journal.clear();
+        assertFalse(journal.canUndo());
+    }
+
+    @Test
+    void testResourceChange() {
+        long value = MoveJournal.resourceChange(Resource.STONE, -4);
+        assertEquals(Resource.STONE, MoveJournal.getResource(value));
+        assertEquals(-4, MoveJournal.getAmount(value));
+    }
+}
@@ -3,9 +3,11 @@ package ch.zhaw.catan;
 import org.junit.jupiter.api.Test;
 
 import java.awt.Point;
+import java.util.SplittableRandom;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import ch.zhaw.catan.Config.Faction;
 import ch.zhaw.catan.Config.Resource;
 import ch.zhaw.catan.Config.Structure;
@@ -96,5 +98,27 @@ public class PlayerTest {
         player.setStructureAmount(Structure.ROAD);
         assertNotEquals(oldAmount, player.getResourceAmount(Resource.GRAIN));
     }
-}
 
+    @Test
+    void testGetRandomResourceOnlyPicksOwnedResources() {
+        player.setResourceAmount(Resource.WOOL, 3);
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 0; i < 20; i++) {
+            assertEquals(Resource.WOOL, player.getRandomResource(random));
+        }
+    }
+
+    @Test
+    void testGetRandomResourceIsWeightedByAmount() {
+        player.setResourceAmount(Resource.WOOL, 9);
+        player.setResourceAmount(Resource.CLAY, 1);
+        SplittableRandom random = new SplittableRandom(1);
+        int wool = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (player.getRandomResource(random) == Resource.WOOL) {
+                wool++;
+            }
+        }
+        assertTrue(wool > 850 && wool < 950);
+    }
+}
@@ -0,0 +1,66 @@
+package ch.zhaw.catan;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import ch.zhaw.catan.Config.Faction;
+import ch.zhaw.hexboard.Coordinates;
+
+
+public class RoadNetworkTest {
+
+    SiedlerBoard board = new SiedlerGame(10, 2).getBoard();
+    RoadNetwork network = new RoadNetwork(board, 5);
+
+    /**
+     * Builds roads along a row of corners, starting at (x, y) and going to the right.
+     */
+    private void buildRow(int x, int y, int roads, Faction faction) {
+        int corner = Coordinates.of(x, y);
+        for (int i = 0; i < roads; i++) {
+            int next = SiedlerBoard.getAdjacentCorner(corner, 1);
+            network.addRoad(Coordinates.edge(corner, next), faction);
+            corner = next;
+        }
+    }
+
+    @Test
+    void testLongestRoadOfChain() {
+        buildRow(4, 10, 4, Faction.RED);
+        assertEquals(4, network.getLongestRoad(Faction.RED));
+        assertNull(network.getHolder());
+        buildRow(8, 10, 1, Faction.RED);
+        assertEquals(5, network.getLongestRoad(Faction.RED));
+        assertEquals(Faction.RED, network.getHolder());
+    }
+
+    @Test
+    void testBranchesAreNotCountedTwice() {
+        buildRow(4, 10, 3, Faction.RED);
+        network.addRoad(Coordinates.edge(Coordinates.of(5, 9), Coordinates.of(5, 7)), Faction.RED);
+        network.addRoad(Coordinates.edge(Coordinates.of(5, 7), Coordinates.of(6, 6)), Faction.RED);
+        assertEquals(4, network.getLongestRoad(Faction.RED));
+        assertNull(network.getHolder());
+    }
+
+    @Test
+    void testOpponentSettlementBreaksRoad() {
+        buildRow(4, 10, 6, Faction.RED);
+        assertEquals(Faction.RED, network.getHolder());
+        board.putSettlement(Coordinates.of(6, 10), Faction.BLUE);
+        network.addSettlement(Coordinates.of(6, 10), Faction.BLUE);
+        assertEquals(4, network.getLongestRoad(Faction.RED));
+        assertNull(network.getHolder());
+    }
+
+    @Test
+    void testHolderKeepsLongestRoadOnTie() {
+        buildRow(4, 10, 5, Faction.RED);
+        buildRow(4, 12, 5, Faction.BLUE);
+        assertEquals(Faction.RED, network.getHolder());
+        buildRow(9, 13, 1, Faction.BLUE);
+        assertEquals(6, network.getLongestRoad(Faction.BLUE));
+        assertEquals(Faction.BLUE, network.getHolder());
+    }
+}
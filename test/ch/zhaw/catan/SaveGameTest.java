@@ -0,0 +1,129 @@
+package ch.zhaw.catan;
+
+import ch.zhaw.hexboard.Coordinates;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Point;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import ch.zhaw.catan.Config.Faction;
+import ch.zhaw.catan.Config.Resource;
+
+
+public class SaveGameTest {
+
+    @Test
+    void testSavedGameIsReadBack() throws IOException {
+        SiedlerGame game = playedGame(4, 11, 60);
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        SaveGame.encode(game, buffer);
+        assertTrue(buffer.position() < 600, "A saved game takes " + buffer.position() + " bytes");
+        buffer.flip();
+        SiedlerGame loaded = SaveGame.decode(buffer, true);
+        assertEquals(0, buffer.remaining());
+        assertSame(GameLayout.standard(), loaded.getLayout());
+        assertEquals(describe(game), describe(loaded));
+        for (Resource resource : Resource.values()) {
+            assertEquals(game.getBankStock(resource), loaded.getBankStock(resource), resource.toString());
+        }
+
+        // both games continue with the same dices
+        for (int i = 0; i < 10; i++) {
+            assertEquals(game.throwDice(2), loaded.throwDice(2));
+        }
+    }
+
+    @Test
+    void testGamesAreReadInOrder() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        WritableByteChannel out = Channels.newChannel(bytes);
+        SiedlerGame first = playedGame(2, 1, 20);
+        SiedlerGame second = playedGame(3, 2, 30);
+        SaveGame.write(first, out);
+        SaveGame.write(second, out);
+
+        ReadableByteChannel in = Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(describe(first), describe(SaveGame.read(in, true)));
+        assertEquals(describe(second), describe(SaveGame.read(in, true)));
+        assertNull(SaveGame.read(in, true));
+    }
+
+    @Test
+    void testInvalidDataIsRejected() {
+        byte[] saved = encode(playedGame(2, 3, 10));
+        byte[] truncated = Arrays.copyOf(saved, saved.length - 1);
+        assertThrows(IOException.class, () -> SaveGame.read(
+                Channels.newChannel(new ByteArrayInputStream(truncated)), false));
+        byte[] wrongMagic = saved.clone();
+        wrongMagic[0] = 'X';
+        assertThrows(IOException.class, () -> SaveGame.decode(ByteBuffer.wrap(wrongMagic), false));
+        byte[] wrongVersion = saved.clone();
+        wrongVersion[5] = SaveGame.VERSION + 1;
+        assertThrows(IOException.class, () -> SaveGame.decode(ByteBuffer.wrap(wrongVersion), false));
+        byte[] wrongPlayers = saved.clone();
+        wrongPlayers[8] = 9;
+        assertThrows(IOException.class, () -> SaveGame.decode(ByteBuffer.wrap(wrongPlayers), false));
+    }
+
+    private static SiedlerGame playedGame(int players, long seed, int turns) {
+        SiedlerGame game = new SiedlerGame(Config.WIN_POINTS, players, GameLayout.standard(), true,
+                new SplittableRandom(seed));
+        List<PlayerStrategy> strategies = new ArrayList<>();
+        for (int i = 0; i < players; i++) {
+            strategies.add(new RandomStrategy());
+        }
+        new Simulation(GameLayout.standard(), Config.WIN_POINTS, turns, strategies)
+                .play(game, new MoveList(), new SimulationResult());
+        return game;
+    }
+
+    private static byte[] encode(SiedlerGame game) {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        SaveGame.encode(game, buffer);
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    static String describe(SiedlerGame game) {
+        StringBuilder result = new StringBuilder(game.getView().toString());
+        result.append(game.getCurrentPlayer()).append(game.getLastDiceSum()).append(game.getPlayerWithlongestRoad())
+                .append(game.getWinner());
+        for (int i = 0; i < game.getNumberOfPlayers(); i++) {
+            Faction faction = Faction.values()[i];
+            Player player = game.findByFaction(faction);
+            result.append(faction).append(player.getPoints());
+            for (List<Point> road : player.getRoads()) {
+                result.append(Coordinates.edge(road.get(0), road.get(1))).append(',');
+            }
+            result.append(player.getSettlements()).append(player.getCities())
+                    .append(game.getLongestRoadLength(faction));
+            for (Config.Structure structure : Config.Structure.values()) {
+                result.append(player.getStructureAmount(structure));
+            }
+            for (Resource resource : Resource.values()) {
+                result.append(player.getResourceAmount(resource)).append(',');
+            }
+        }
+        for (Resource resource : Resource.values()) {
+            result.append(resource).append(game.getBankStock(resource));
+        }
+        for (int diceSum = 2; diceSum <= 12; diceSum++) {
+            result.append(game.getResourceDistributionForThrow(diceSum));
+        }
+        return result.toString();
+    }
+}
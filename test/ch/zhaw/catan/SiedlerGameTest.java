@@ -1,12 +1,16 @@
 package ch.zhaw.catan;
 
+import ch.zhaw.hexboard.Coordinates;
 import org.junit.jupiter.api.Test;
 
 import java.awt.Point;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.SplittableRandom;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -201,6 +205,41 @@ class SiedlerGameTest {
         assertEquals(beforeGrain + 1, afterGrain, "Grain resource should have increased by one, but it wasn't.");
     }
 
+    @Test
+    void testPayoutAfterInitialSettlementNextToDesert() {
+        SiedlerGame game = new SiedlerGame(-1, 2);
+        assertTrue(game.placeInitialSettlement(new Point(7, 9), true));
+
+        assertEquals(1, game.getCurrentPlayerResourceStock(Config.Resource.STONE));
+        assertEquals(1, game.getCurrentPlayerResourceStock(Config.Resource.GRAIN));
+    }
+
+    @Test
+    void testStructureStockAfterBuilding() {
+        SiedlerGame game = new SiedlerGame(10, 2);
+        Player player = game.findByFaction(Config.Faction.RED);
+        game.placeInitialSettlement(new Point(6, 4), false);
+        game.placeInitialRoad(new Point(6, 4), new Point(6, 6));
+        assertEquals(Config.Structure.SETTLEMENT.getStockPerPlayer() - 1,
+                player.getStructureAmount(Config.Structure.SETTLEMENT));
+        assertEquals(Config.Structure.ROAD.getStockPerPlayer() - 1, player.getStructureAmount(Config.Structure.ROAD));
+
+        for (Config.Resource resource : Config.Resource.values()) {
+            game.increaseResourcesAndUpdateBankResources(resource, 5);
+        }
+        assertTrue(game.buildRoad(new Point(6, 6), new Point(7, 7)));
+        assertTrue(game.buildSettlement(new Point(7, 7)));
+        assertEquals(Config.Structure.ROAD.getStockPerPlayer() - 2, player.getStructureAmount(Config.Structure.ROAD));
+        assertEquals(Config.Structure.SETTLEMENT.getStockPerPlayer() - 2,
+                player.getStructureAmount(Config.Structure.SETTLEMENT));
+
+        // the settlement goes back to the stock when it is upgraded
+        assertTrue(game.buildCity(new Point(6, 4)));
+        assertEquals(Config.Structure.SETTLEMENT.getStockPerPlayer() - 1,
+                player.getStructureAmount(Config.Structure.SETTLEMENT));
+        assertEquals(Config.Structure.CITY.getStockPerPlayer() - 1, player.getStructureAmount(Config.Structure.CITY));
+    }
+
     @Test
     void positiveTestTradeWithBankFourToOne() {
         SiedlerGame game = new SiedlerGame(1, 2);
@@ -458,4 +497,264 @@ class SiedlerGameTest {
 
         assertFalse(result, "The road extension shouldn't have worked");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testResourceDistributionForCustomDiceNumbers() {
+        SiedlerGame game = new SiedlerGame(1, 2, Config.getStandardLandPlacement(), Map.of(new Point(5, 5), 4));
+        game.placeInitialSettlement(new Point(5, 3), false);
+
+        assertEquals(Map.of(Config.Faction.RED, List.of(Config.Resource.WOOD)), game.getResourceDistributionForThrow(4));
+        assertTrue(game.getResourceDistributionForThrow(6).isEmpty());
+        assertTrue(game.getResourceDistributionForThrow(13).isEmpty());
+    }
+
+    @Test
+    void testPayoutMatrixForSettlementAndCity() {
+        SiedlerGame game = new SiedlerGame(1, 2);
+        game.placeInitialSettlement(new Point(5, 3), false);
+        assertEquals(Map.of(Config.Faction.RED, List.of(Config.Resource.WOOD)), game.getResourceDistributionForThrow(6));
+
+        game.increaseResourcesAndUpdateBankResources(Config.Resource.STONE, 3);
+        game.increaseResourcesAndUpdateBankResources(Config.Resource.GRAIN, 2);
+        assertTrue(game.buildCity(new Point(5, 3)));
+        assertEquals(Map.of(Config.Faction.RED, List.of(Config.Resource.WOOD, Config.Resource.WOOD)),
+                game.getResourceDistributionForThrow(6));
+
+        int[][] payout = new int[Config.Faction.values().length][Config.Resource.values().length];
+        payout[Config.Faction.RED.ordinal()][Config.Resource.WOOD.ordinal()] = 2;
+        payout[Config.Faction.BLUE.ordinal()][Config.Resource.CLAY.ordinal()] = 1;
+        game.distributeResources(payout);
+        assertEquals(2, game.findByFaction(Config.Faction.RED).getResourceAmount(Config.Resource.WOOD));
+        assertEquals(1, game.findByFaction(Config.Faction.BLUE).getResourceAmount(Config.Resource.CLAY));
+    }
+
+    @Test
+    void testBoardOccupancyAfterBuilding() {
+        SiedlerGame game = new SiedlerGame(1, 2);
+        Point settlement = new Point(6, 4);
+        Point roadEnd = new Point(6, 6);
+        game.placeInitialSettlement(settlement, false);
+        game.placeInitialRoad(settlement, roadEnd);
+
+        SiedlerBoard board = game.getBoard();
+        assertEquals(Occupancy.of(Config.Faction.RED, Config.Structure.SETTLEMENT), board.getCornerOccupancy(settlement));
+        assertEquals(Config.Faction.RED, Occupancy.getOwner(board.getEdgeOccupancy(roadEnd, settlement)));
+        assertEquals(Config.Structure.ROAD, Occupancy.getStructure(board.getEdgeOccupancy(settlement, roadEnd)));
+        assertEquals(Occupancy.EMPTY, board.getCornerOccupancy(roadEnd));
+        assertTrue(game.isAdjacentToOwnRoad(roadEnd));
+
+        game.switchToNextPlayer();
+        assertFalse(game.isAdjacentToOwnRoad(roadEnd));
+        assertFalse(game.buildSettlement(new Point(2, 2)));
+    }
+
+    @Test
+    void testBuildWithPackedCoordinates() {
+        SiedlerGame game = new SiedlerGame(1, 2);
+        int settlement = Coordinates.of(6, 4);
+        long road = Coordinates.edge(Coordinates.of(6, 6), settlement);
+        assertTrue(game.placeInitialSettlement(settlement, false));
+        assertFalse(game.placeInitialSettlement(Coordinates.of(6, 6), false));
+        assertTrue(game.placeInitialRoad(road));
+        assertFalse(game.placeInitialRoad(road));
+
+        SiedlerBoard board = game.getBoard();
+        assertEquals(board.getCornerOccupancy(new Point(6, 4)), board.getCornerOccupancy(settlement));
+        assertEquals(Occupancy.of(Config.Faction.RED, Config.Structure.ROAD), board.getEdgeOccupancy(road));
+        assertTrue(game.isAdjacentToOwnRoad(Coordinates.of(6, 6)));
+        assertFalse(game.canBuildSettlement(Coordinates.of(6, 6)));
+        assertFalse(game.canBuildCity(settlement));
+    }
+
+    @Test
+    void testGeneratedMovesMatchBuildRules() {
+        SiedlerGame game = new SiedlerGame(10, 2);
+        game.placeInitialSettlement(new Point(6, 4), false);
+        game.placeInitialRoad(new Point(6, 4), new Point(6, 6));
+        for (Config.Resource resource : Config.Resource.values()) {
+            game.increaseResourcesAndUpdateBankResources(resource, 5);
+        }
+        assertTrue(game.buildRoad(new Point(6, 6), new Point(5, 7)));
+
+        MoveList moves = game.generateMoves(new MoveList());
+        int roads = 0;
+        int settlements = 0;
+        int cities = 0;
+        int trades = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            switch (moves.getType(i)) {
+                case ROAD:
+                    assertTrue(game.canBuildRoad(moves.getEdge(i)));
+                    roads++;
+                    break;
+                case SETTLEMENT:
+                    assertTrue(game.canBuildSettlement(moves.getCorner(i)));
+                    settlements++;
+                    break;
+                case CITY:
+                    assertTrue(game.canBuildCity(moves.getCorner(i)));
+                    cities++;
+                    break;
+                default:
+                    assertTrue(game.checkTradeWithBankFourToOne(moves.getOffer(i), moves.getWant(i)));
+                    trades++;
+            }
+        }
+
+        int expectedRoads = 0;
+        int expectedSettlements = 0;
+        for (int x = Config.X_MIN; x <= Config.X_MAX; x++) {
+            for (int y = Config.Y_MIN; y <= Config.Y_MAX; y++) {
+                int corner = Coordinates.of(x, y);
+                expectedSettlements += game.canBuildSettlement(corner) ? 1 : 0;
+                for (int i = 0; i < 3; i++) {
+                    int neighbour = SiedlerBoard.getAdjacentCorner(corner, i);
+                    if (corner < neighbour && game.canBuildRoad(Coordinates.edge(corner, neighbour))) {
+                        expectedRoads++;
+                    }
+                }
+            }
+        }
+        assertEquals(expectedRoads, roads);
+        assertEquals(expectedSettlements, settlements);
+        assertEquals(1, settlements);
+        assertEquals(1, cities);
+        assertEquals(5 * 4, trades);
+
+        game.switchToNextPlayer();
+        assertEquals(0, game.generateMoves(moves).size());
+    }
+
+    @Test
+    void testSameSeedThrowsSameDices() {
+        SiedlerGame first = new SiedlerGame(10, 2, GameLayout.standard(), false, new SplittableRandom(3));
+        SiedlerGame second = new SiedlerGame(10, 2, GameLayout.standard(), false, new SplittableRandom(3));
+        for (int i = 0; i < 50; i++) {
+            first.throwDiceForPayout(2);
+            second.throwDiceForPayout(2);
+            assertEquals(first.getLastDiceSum(), second.getLastDiceSum());
+        }
+    }
+
+    @Test
+    void testSnapshotKeepsDice() {
+        SiedlerGame first = new SiedlerGame(10, 2, GameLayout.standard(), false, new SplittableRandom(3));
+        SiedlerGame second = new SiedlerGame(10, 2, GameLayout.standard(), false, new SplittableRandom(3));
+        SiedlerGame.Snapshot snapshot = first.snapshot();
+        first.snapshot(11);
+        first.throwDiceForPayout(2);
+        first.restore(snapshot);
+        second.throwDiceForPayout(2);
+        for (int i = 0; i < 50; i++) {
+            first.throwDiceForPayout(2);
+            second.throwDiceForPayout(2);
+            assertEquals(first.getLastDiceSum(), second.getLastDiceSum());
+        }
+    }
+
+    @Test
+    void testRestoreSnapshot() {
+        SiedlerGame game = new SiedlerGame(10, 2, GameLayout.standard(), true, new SplittableRandom(5));
+        game.placeInitialSettlement(new Point(6, 4), false);
+        game.placeInitialRoad(new Point(6, 4), new Point(6, 6));
+        for (Config.Resource resource : Config.Resource.values()) {
+            game.increaseResourcesAndUpdateBankResources(resource, 5);
+        }
+        String board = game.getView().toString();
+        Map<Config.Faction, List<Config.Resource>> payout = game.getResourceDistributionForThrow(6);
+        SiedlerGame.Snapshot snapshot = game.snapshot(7);
+
+        assertTrue(game.buildRoad(new Point(6, 6), new Point(5, 7)));
+        assertTrue(game.buildSettlement(new Point(5, 7)));
+        assertTrue(game.buildCity(new Point(6, 4)));
+        assertTrue(game.tradeWithBankFourToOne(Config.Resource.WOOL, Config.Resource.STONE));
+        game.switchToNextPlayer();
+        game.restore(snapshot);
+        int[] dices = new int[10];
+        for (int i = 0; i < dices.length; i++) {
+            game.distributeResources(game.throwDiceForPayout(2));
+            dices[i] = game.getLastDiceSum();
+        }
+
+        for (int run = 0; run < 2; run++) {
+            game.restore(snapshot);
+            assertEquals(board, game.getView().toString());
+            assertEquals(Config.Faction.RED, game.getCurrentPlayer());
+            assertEquals(Occupancy.EMPTY, game.getBoard().getCornerOccupancy(new Point(5, 7)));
+            assertEquals(Occupancy.of(Config.Faction.RED, Config.Structure.SETTLEMENT),
+                    game.getBoard().getCornerOccupancy(new Point(6, 4)));
+            for (Config.Resource resource : Config.Resource.values()) {
+                assertEquals(5, game.getCurrentPlayerResourceStock(resource));
+                assertTrue(game.bankHasEnoughResource(resource));
+            }
+            assertEquals(1, game.findByFaction(Config.Faction.RED).getPoints());
+            assertEquals(1, game.findByFaction(Config.Faction.RED).getRoads().size());
+            assertEquals(1, game.getLongestRoadLength(Config.Faction.RED));
+            assertEquals(payout, game.getResourceDistributionForThrow(6));
+            for (int i = 0; i < dices.length; i++) {
+                game.distributeResources(game.throwDiceForPayout(2));
+                assertEquals(dices[i], game.getLastDiceSum());
+            }
+            assertTrue(game.buildRoad(new Point(6, 6), new Point(5, 7)));
+        }
+    }
+
+    @Test
+    void testUndoAndRedoMoves() {
+        SiedlerGame game = new SiedlerGame(10, 2);
+        game.placeInitialSettlement(new Point(6, 4), false);
+        game.placeInitialRoad(new Point(6, 4), new Point(6, 6));
+        for (Config.Resource resource : Config.Resource.values()) {
+            game.increaseResourcesAndUpdateBankResources(resource, 5);
+        }
+        assertFalse(game.undo());
+
+        List<String> states = new ArrayList<>();
+        states.add(describe(game));
+        assertTrue(game.buildRoad(new Point(6, 6), new Point(5, 7)));
+        states.add(describe(game));
+        assertTrue(game.buildSettlement(new Point(5, 7)));
+        states.add(describe(game));
+        assertTrue(game.buildCity(new Point(6, 4)));
+        states.add(describe(game));
+        assertTrue(game.tradeWithBankFourToOne(Config.Resource.WOOL, Config.Resource.STONE));
+        states.add(describe(game));
+        int[][] payout = new int[Config.Faction.values().length][Config.Resource.values().length];
+        payout[1][2] = 3;
+        game.distributeResources(payout);
+        states.add(describe(game));
+
+        for (int i = states.size() - 2; i >= 0; i--) {
+            assertTrue(game.undo());
+            assertEquals(states.get(i), describe(game));
+        }
+        assertFalse(game.undo());
+        for (int i = 1; i < states.size(); i++) {
+            assertTrue(game.redo());
+            assertEquals(states.get(i), describe(game));
+        }
+        assertFalse(game.redo());
+
+        game.undo();
+        game.undo();
+        assertTrue(game.buildRoad(new Point(5, 7), new Point(5, 9)));
+        assertFalse(game.redo());
+    }
+
+    private static String describe(SiedlerGame game) {
+        StringBuilder result = new StringBuilder(game.getView().toString());
+        for (Config.Faction faction : List.of(Config.Faction.RED, Config.Faction.BLUE)) {
+            Player player = game.findByFaction(faction);
+            result.append(faction).append(player.getPoints()).append(player.getRoads().size())
+                    .append(new HashSet<>(player.getSettlements())).append(player.getCities());
+            for (Config.Structure structure : Config.Structure.values()) {
+                result.append(player.getStructureAmount(structure));
+            }
+            for (Config.Resource resource : Config.Resource.values()) {
+                result.append(player.getResourceAmount(resource)).append(game.bankHasEnoughResource(resource));
+            }
+        }
+        result.append(game.getResourceDistributionForThrow(6)).append(game.getResourceDistributionForThrow(8));
+        return result.toString();
+    }
+}
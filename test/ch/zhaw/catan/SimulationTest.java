@@ -0,0 +1,88 @@
+package ch.zhaw.catan;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Point;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import ch.zhaw.catan.Config.Faction;
+
+
+public class SimulationTest {
+
+    @Test
+    void testSimulationPlaysAllGames() {
+        Simulation simulation = new Simulation(GameLayout.standard(), Config.WIN_POINTS, 1000,
+                List.of(new RandomStrategy(), new RandomStrategy(), new RandomStrategy()));
+        SimulationResult result = simulation.run(20, 42);
+        assertEquals(20, result.getGames());
+        long wins = 0;
+        for (Faction faction : Faction.values()) {
+            wins += result.getWins(faction);
+        }
+        assertEquals(20, wins + result.getDraws());
+        assertEquals(0, result.getWins(Faction.YELLOW));
+        assertTrue(result.getAverageTurns() > 0);
+        assertEquals(Math.round(20 * result.getAverageTurns()), Arrays.stream(result.getTurnTimeHistogram()).sum());
+    }
+
+    @Test
+    void testParallelSimulationIsReproducible() {
+        Simulation simulation = new Simulation(GameLayout.standard(), Config.WIN_POINTS, 300,
+                List.of(new RandomStrategy(), new RandomStrategy(), new RandomStrategy(), new RandomStrategy()));
+        SimulationResult sequential = simulation.run(300, 7);
+        SimulationResult parallel;
+        SimulationResult single;
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            parallel = simulation.runParallel(300, 7, pool);
+        } finally {
+            pool.shutdownNow();
+        }
+        ForkJoinPool singlePool = new ForkJoinPool(1);
+        try {
+            single = simulation.runParallel(300, 7, singlePool);
+        } finally {
+            singlePool.shutdownNow();
+        }
+        for (Faction faction : Faction.values()) {
+            assertEquals(sequential.getWins(faction), parallel.getWins(faction));
+            assertEquals(sequential.getWins(faction), single.getWins(faction));
+        }
+        assertEquals(sequential.getDraws(), parallel.getDraws());
+        assertEquals(sequential.getAverageTurns(), parallel.getAverageTurns());
+    }
+
+    @Test
+    void testTurnTimeBuckets() {
+        assertEquals(0, SimulationResult.getBucket(0));
+        assertEquals(0, SimulationResult.getBucket(1));
+        assertEquals(1, SimulationResult.getBucket(3));
+        assertEquals(10, SimulationResult.getBucket(1024));
+    }
+
+    @Test
+    void testGamesShareLayoutButNotState() {
+        GameLayout layout = GameLayout.standard();
+        SiedlerGame first = new SiedlerGame(Config.WIN_POINTS, 2, layout, false);
+        SiedlerGame second = new SiedlerGame(Config.WIN_POINTS, 2, layout, false);
+        assertNull(first.getView());
+        assertTrue(first.placeInitialSettlement(new Point(6, 4), false));
+        assertTrue(second.placeInitialSettlement(new Point(6, 4), false));
+        assertEquals(layout.getLandPlacement().get(new Point(7, 11)), first.getBoard().getField(new Point(7, 11)));
+        assertNotNull(new SiedlerGame(Config.WIN_POINTS, 2).getView());
+    }
+
+    @Test
+    void testLayoutCannotBeChanged() {
+        assertThrows(UnsupportedOperationException.class,
+                () -> GameLayout.standard().getLandPlacement().put(new Point(1, 1), Config.Land.WATER));
+    }
+}
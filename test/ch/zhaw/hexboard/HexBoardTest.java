@@ -1,11 +1,16 @@
 package ch.zhaw.hexboard;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.awt.Point;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.CharBuffer;
+import java.util.List;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -75,6 +80,35 @@ public class HexBoardTest {
         () -> board.getEdge(new Point(0, 2), new Point(3, 1)));
   }
 
+  @Test
+  public void adjacentEdgesTest() {
+    board.addField(new Point(9, 5), "11");
+    Point shared = new Point(8, 4);
+    assertTrue(board.getAdjacentEdges(shared).isEmpty());
+    board.setEdge(shared, new Point(7, 3), "a");
+    board.setEdge(shared, new Point(8, 6), "b");
+    board.setEdge(shared, new Point(9, 3), "c");
+    board.setEdge(new Point(9, 3), new Point(10, 4), "d");
+    assertEquals(3, board.getAdjacentEdges(shared).size());
+    assertTrue(board.getAdjacentEdges(shared).containsAll(List.of("a", "b", "c")));
+  }
+
+  // Annotations
+  @Test
+  public void fieldAnnotationsTest() {
+    board.addField(new Point(9, 5), "11");
+    board.addFieldAnnotation(new Point(7, 5), corner[1], "a");
+    board.addFieldAnnotation(new Point(7, 5), corner[2], "b");
+    board.addFieldAnnotation(new Point(9, 5), corner[1], "c");
+    board.addFieldAnnotation(new Point(9, 5), new Point(10, 4), null);
+    assertEquals(List.of("a", "b"), board.getFieldAnnotationsForField(new Point(7, 5)));
+    assertEquals(List.of("c"), board.getFieldAnnotationsForField(new Point(9, 5)));
+    assertEquals(List.of("a", "c"), board.getFieldAnnotationsForCorner(corner[1]));
+    assertTrue(board.getFieldAnnotationsForCorner(new Point(10, 4)).isEmpty());
+    assertThrows(IllegalArgumentException.class,
+        () -> board.addFieldAnnotation(new Point(7, 5), corner[1], "d"));
+  }
+
   // Corner retrieval
   @Test
   public void cornerTest() {
@@ -119,4 +153,207 @@ public class HexBoardTest {
   public void fieldRetrievalWrongCoordinatesInsideTest() {
     assertThrows(IllegalArgumentException.class, () -> board.getField(new Point(2, 2)));
   }
+
+  // Array storage
+  @Test
+  public void arrayStorageEdgeAndCornerTest() {
+    HexBoard<String, String, String, String> arrayBoard = new HexBoard<>(
+        HexBoard.StorageType.ARRAY);
+    arrayBoard.addField(new Point(7, 5), "00");
+    for (int i = 0; i < corner.length - 1; i++) {
+      assertNull(arrayBoard.getEdge(corner[i], corner[i + 1]));
+      arrayBoard.setEdge(corner[i], corner[i + 1], Integer.toString(i));
+      assertEquals(Integer.toString(i), arrayBoard.getEdge(corner[i + 1], corner[i]));
+    }
+    for (Point p : corner) {
+      assertNull(arrayBoard.getCorner(p));
+      arrayBoard.setCorner(p, p.toString());
+      assertEquals(p.toString(), arrayBoard.getCorner(p));
+    }
+    assertEquals(2, arrayBoard.getAdjacentEdges(corner[1]).size());
+  }
+
+  @Test
+  public void arrayStorageKeepsDataWhenGrowingTest() {
+    HexBoard<String, String, String, String> arrayBoard = new HexBoard<>(
+        HexBoard.StorageType.ARRAY);
+    arrayBoard.addField(new Point(2, 2), "22");
+    arrayBoard.setCorner(new Point(3, 3), "cc");
+    arrayBoard.setEdge(new Point(3, 1), new Point(3, 3), "ee");
+    arrayBoard.addField(new Point(7, 5), "00");
+    assertEquals("22", arrayBoard.getField(new Point(2, 2)));
+    assertEquals("cc", arrayBoard.getCorner(new Point(3, 3)));
+    assertEquals("ee", arrayBoard.getEdge(new Point(3, 3), new Point(3, 1)));
+    assertTrue(arrayBoard.hasEdge(corner[0], corner[1]));
+  }
+
+  @Test
+  public void arrayStorageCornerDoesNotExistTest() {
+    HexBoard<String, String, String, String> arrayBoard = new HexBoard<>(
+        HexBoard.StorageType.ARRAY);
+    arrayBoard.addField(new Point(7, 5), "00");
+    assertThrows(IllegalArgumentException.class, () -> arrayBoard.getCorner(new Point(2, 0)));
+    assertThrows(IllegalArgumentException.class, () -> arrayBoard.getField(new Point(20, 20)));
+  }
+
+  @Test
+  public void packedCoordinatesTest() {
+    int packed = Coordinates.of(7, -3);
+    assertEquals(7, Coordinates.x(packed));
+    assertEquals(-3, Coordinates.y(packed));
+    assertEquals(new Point(7, -3), Coordinates.toPoint(packed));
+    assertEquals(Coordinates.edge(corner[0], corner[1]), Coordinates.edge(corner[1], corner[0]));
+    long edge = Coordinates.edge(corner[1], corner[0]);
+    assertEquals(Coordinates.of(corner[0]), Coordinates.edgeStart(edge));
+    assertEquals(Coordinates.of(corner[1]), Coordinates.edgeEnd(edge));
+    packed = Coordinates.of(Short.MIN_VALUE, Short.MAX_VALUE);
+    assertEquals(Short.MIN_VALUE, Coordinates.x(packed));
+    assertEquals(Short.MAX_VALUE, Coordinates.y(packed));
+    assertThrows(IllegalArgumentException.class, () -> Coordinates.of(1 << 16, 0));
+    assertThrows(IllegalArgumentException.class, () -> Coordinates.of(0, Short.MAX_VALUE + 1));
+  }
+
+  @Test
+  public void packedAccessTest() {
+    HexBoard<String, String, String, String> arrayBoard = new HexBoard<>(
+        HexBoard.StorageType.ARRAY);
+    arrayBoard.addField(new Point(7, 5), "00");
+    for (HexBoard<String, String, String, String> b : List.of(board, arrayBoard)) {
+      long edge = Coordinates.edge(corner[2], corner[3]);
+      assertTrue(b.hasEdge(edge));
+      assertFalse(b.hasEdge(Coordinates.edge(corner[0], corner[2])));
+      b.setEdge(edge, "ee");
+      assertEquals("ee", b.getEdge(corner[3], corner[2]));
+      b.setCorner(corner[4], "cc");
+      assertEquals("cc", b.getCorner(Coordinates.of(corner[4])));
+      assertTrue(b.hasField(Coordinates.of(7, 5)));
+      assertEquals("00", b.getField(Coordinates.of(7, 5)));
+    }
+  }
+
+  @Test
+  public void snapshotRestoreTest() {
+    HexBoard<String, String, String, String> arrayBoard = new HexBoard<>(
+        HexBoard.StorageType.ARRAY);
+    arrayBoard.addField(new Point(7, 5), "00");
+    for (HexBoard<String, String, String, String> b : List.of(board, arrayBoard)) {
+      b.setCorner(corner[0], "c0");
+      HexBoard.Snapshot<String, String, String> snapshot = b.snapshot();
+      b.setCorner(corner[0], "c1");
+      b.setEdge(corner[0], corner[1], "ee");
+      b.addField(new Point(12, 2), "01");
+      for (int i = 0; i < 2; i++) {
+        b.restore(snapshot);
+        assertEquals("c0", b.getCorner(corner[0]));
+        assertNull(b.getEdge(corner[0], corner[1]));
+        assertFalse(b.hasField(new Point(12, 2)));
+        b.setCorner(corner[0], "c2");
+      }
+    }
+    assertThrows(IllegalArgumentException.class, () -> arrayBoard.restore(board.snapshot()));
+  }
+
+  @Test
+  public void tagsTest() {
+    HexBoard<String, String, String, String> arrayBoard = new HexBoard<>(
+        HexBoard.StorageType.ARRAY);
+    arrayBoard.addField(new Point(7, 5), "00");
+    for (HexBoard<String, String, String, String> b : List.of(board, arrayBoard)) {
+      assertEquals(0, b.getCornerTag(corner[0]));
+      b.setCornerTag(corner[0], (byte) 5);
+      b.setEdgeTag(corner[0], corner[1], (byte) 7);
+      b.addField(new Point(12, 2), "01");
+      assertEquals(5, b.getCornerTag(corner[0]));
+      assertEquals(7, b.getEdgeTag(corner[1], corner[0]));
+      assertEquals(0, b.getEdgeTag(corner[0], corner[2]));
+      assertEquals(0, b.getCornerTag(Coordinates.of(7, 5)));
+      assertEquals(7, b.getEdgeTag(Coordinates.edge(corner[0], corner[1])));
+      HexBoard.Snapshot<String, String, String> snapshot = b.snapshot();
+      b.setCornerTag(corner[0], (byte) 6);
+      b.setEdgeTag(corner[0], corner[1], (byte) 8);
+      assertEquals(6, b.getCornerTag(corner[0]));
+      assertEquals(5, snapshot.getCornerTag(Coordinates.of(corner[0])));
+      assertEquals(7, snapshot.getEdgeTag(Coordinates.edge(corner[0], corner[1])));
+      b.restore(snapshot);
+      assertEquals(5, b.getCornerTag(corner[0]));
+      assertEquals(7, b.getEdgeTag(corner[0], corner[1]));
+      assertThrows(IllegalArgumentException.class,
+          () -> b.setCornerTag(new Point(7, 5), (byte) 1));
+      assertThrows(IllegalArgumentException.class,
+          () -> b.setEdgeTag(corner[0], corner[2], (byte) 1));
+    }
+  }
+
+  @Test
+  public void textViewRendersChangesTest() {
+    HexBoardTextView<String, String, String, String> view = new HexBoardTextView<>(board);
+    String empty = view.toString();
+    HexBoard.Snapshot<String, String, String> snapshot = board.snapshot();
+    board.setCorner(corner[0], "c0");
+    board.setEdge(corner[1], corner[2], "e1");
+    board.setEdge(corner[4], corner[3], "e3");
+    String changed = view.toString();
+    assertEquals(new HexBoardTextView<>(board).toString(), changed);
+    assertTrue(changed.contains("(c0)"));
+    assertTrue(changed.contains("e1") && changed.contains("e3"));
+
+    board.setEdge(corner[1], corner[2], null);
+    board.setEdge(corner[3], corner[4], null);
+    board.setCorner(corner[0], null);
+    assertEquals(empty, view.toString());
+
+    board.setCorner(corner[0], "c0");
+    board.restore(snapshot);
+    assertEquals(empty, view.toString());
+    board.addField(new Point(12, 2), "01");
+    assertEquals(new HexBoardTextView<>(board).toString(), view.toString());
+  }
+
+  @Test
+  public void textViewRendersToAppendableTest() throws IOException {
+    HexBoardTextView<String, String, String, String> view = new HexBoardTextView<>(board);
+    board.setCorner(corner[0], "c0");
+    StringWriter writer = new StringWriter();
+    view.render(writer);
+    assertEquals(view.toString(), writer.toString());
+
+    board.setEdge(corner[0], corner[1], "e0");
+    CharBuffer buffer = CharBuffer.allocate(view.toString().length());
+    view.render(buffer);
+    assertEquals(view.toString(), buffer.flip().toString());
+    StringBuilder builder = new StringBuilder();
+    view.render(builder);
+    assertEquals(view.toString(), builder.toString());
+  }
+
+  @Test
+  public void ansiViewWritesChangesTest() throws IOException {
+    HexBoardTextView<String, String, String, String> view = new HexBoardTextView<>(board);
+    HexBoardAnsiView ansiView = new HexBoardAnsiView(view, 1, 1);
+    StringBuilder out = new StringBuilder();
+    ansiView.render(out);
+    assertTrue(out.toString().startsWith(HexBoardAnsiView.CLEAR_SCREEN));
+    int lines = view.toString().split(System.lineSeparator()).length;
+
+    out.setLength(0);
+    ansiView.render(out);
+    assertEquals("", out.toString());
+
+    board.setCorner(corner[0], "c0");
+    out.setLength(0);
+    ansiView.render(out);
+    String[] text = view.toString().split(System.lineSeparator());
+    int row = 0;
+    while (!text[row].contains("(c0)")) {
+      row++;
+    }
+    int column = text[row].indexOf("(c0)") + 2;
+    assertEquals("\u001b[" + (row + 1) + ";" + column + "Hc0\u001b[" + (lines + 1) + ";1H",
+        out.toString());
+
+    board.addField(new Point(12, 2), "01");
+    out.setLength(0);
+    ansiView.render(out);
+    assertTrue(out.toString().startsWith(HexBoardAnsiView.CLEAR_SCREEN));
+  }
 }